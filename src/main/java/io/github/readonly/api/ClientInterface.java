@@ -27,10 +27,15 @@ package io.github.readonly.api;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 
 import io.github.readonly.command.Command;
+import io.github.readonly.command.CommandDispatcher;
+import io.github.readonly.command.CommandLatencies;
+import io.github.readonly.command.CommandMetrics;
+import io.github.readonly.command.cooldown.CooldownEngine;
 import io.github.readonly.command.CommandListener;
 import io.github.readonly.command.ServerCommands;
 import io.github.readonly.command.SlashCommand;
@@ -120,19 +125,14 @@ public interface ClientInterface
 	/**
 	 * Adds a single {@link io.github.readonly.command.Command Command} to this Client's registered Commands.
 	 * <p>
-	 * For Client's containing 20 commands or less, command calls by users will have the bot iterate through the entire
-	 * {@link java.util.ArrayList ArrayList} to find the command called. As expected, this can get fairly hefty if a bot
-	 * has a lot of Commands registered to it.
+	 * Registered commands are held in an immutable snapshot that maps each of their
+	 * {@link io.github.readonly.command.Command#name name} and {@link io.github.readonly.command.Command#aliases
+	 * aliases} directly to the command, so finding the command a user called is a single lock-free lookup.
 	 * <p>
-	 * To prevent delay a Client that has more that 20 Commands registered to it will begin to use <b>indexed calls</b>.
+	 * Every insertion and removal builds and publishes a new snapshot, leaving lookups already in progress unaffected.
 	 * <br>
-	 * Indexed calls use a {@link java.util.HashMap HashMap} which links their
-	 * {@link io.github.readonly.command.Command#name name} and their {@link io.github.readonly.command.Command#aliases
-	 * aliases} to the index that which they are located at in the ArrayList they are stored.
-	 * <p>
-	 * This means that all insertion and removal of Commands must reorganize the index maintained by the HashMap. <br>
 	 * For this particular insertion, the Command provided is inserted at the end of the index, meaning it will become
-	 * the "rightmost" Command in the ArrayList.
+	 * the "rightmost" Command in the list.
 	 *
 	 * @param command
 	 *            The Command to add
@@ -146,19 +146,14 @@ public interface ClientInterface
 	 * Adds a single {@link io.github.readonly.command.Command Command} to this Client's registered Commands at the
 	 * specified index.
 	 * <p>
-	 * For Client's containing 20 commands or less, command calls by users will have the bot iterate through the entire
-	 * {@link java.util.ArrayList ArrayList} to find the command called. As expected, this can get fairly hefty if a bot
-	 * has a lot of Commands registered to it.
+	 * Registered commands are held in an immutable snapshot that maps each of their
+	 * {@link io.github.readonly.command.Command#name name} and {@link io.github.readonly.command.Command#aliases
+	 * aliases} directly to the command, so finding the command a user called is a single lock-free lookup.
 	 * <p>
-	 * To prevent delay a Client that has more that 20 Commands registered to it will begin to use <b>indexed calls</b>.
+	 * Every insertion and removal builds and publishes a new snapshot, leaving lookups already in progress unaffected.
 	 * <br>
-	 * Indexed calls use a {@link java.util.HashMap HashMap} which links their
-	 * {@link io.github.readonly.command.Command#name name} and their {@link io.github.readonly.command.Command#aliases
-	 * aliases} to the index that which they are located at in the ArrayList they are stored.
-	 * <p>
-	 * This means that all insertion and removal of Commands must reorganize the index maintained by the HashMap. <br>
 	 * For this particular insertion, the Command provided is inserted at the index specified, meaning it will become
-	 * the Command located at that index in the ArrayList. This will shift the Command previously located at that index
+	 * the Command located at that index in the list. This will shift the Command previously located at that index
 	 * as well as any located at greater indices, right one index ({@code size()+1}).
 	 *
 	 * @param command
@@ -185,20 +180,14 @@ public interface ClientInterface
 	 * Adds a single {@link io.github.readonly.command.SlashCommand SlashCommand} to this Client's registered
 	 * SlashCommand.
 	 * <p>
-	 * For Client's containing 20 commands or less, command calls by users will have the bot iterate through the entire
-	 * {@link java.util.ArrayList ArrayList} to find the command called. As expected, this can get fairly hefty if a bot
-	 * has a lot of Commands registered to it.
-	 * <p>
-	 * To prevent delay a Client that has more that 20 Commands registered to it will begin to use <b>indexed calls</b>.
-	 * <br>
-	 * Indexed calls use a {@link java.util.HashMap HashMap} which links their
-	 * {@link io.github.readonly.command.SlashCommand#name name} to the index that which they are located at in the
-	 * ArrayList they are stored.
+	 * Registered commands are held in an immutable snapshot that maps each of their
+	 * {@link io.github.readonly.command.SlashCommand#name name} directly to the command, so finding the command a user called is
+	 * a single lock-free lookup.
 	 * <p>
-	 * This means that all insertion and removal of SlashCommands must reorganize the index maintained by the HashMap.
+	 * Every insertion and removal builds and publishes a new snapshot, leaving lookups already in progress unaffected.
 	 * <br>
 	 * For this particular insertion, the SlashCommand provided is inserted at the end of the index, meaning it will
-	 * become the "rightmost" Command in the ArrayList.
+	 * become the "rightmost" Command in the list.
 	 *
 	 * @param command
 	 *            The Command to add
@@ -212,19 +201,14 @@ public interface ClientInterface
 	 * Adds a single {@link io.github.readonly.command.SlashCommand SlashCommand} to this Client's registered
 	 * Commands at the specified index.
 	 * <p>
-	 * For Client's containing 20 commands or less, command calls by users will have the bot iterate through the entire
-	 * {@link java.util.ArrayList ArrayList} to find the command called. As expected, this can get fairly hefty if a bot
-	 * has a lot of Commands registered to it.
+	 * Registered commands are held in an immutable snapshot that maps each of their
+	 * {@link io.github.readonly.command.Command#name name} directly to the command, so finding the command a user called is
+	 * a single lock-free lookup.
 	 * <p>
-	 * To prevent delay a Client that has more that 20 Commands registered to it will begin to use <b>indexed calls</b>.
+	 * Every insertion and removal builds and publishes a new snapshot, leaving lookups already in progress unaffected.
 	 * <br>
-	 * Indexed calls use a {@link java.util.HashMap HashMap} which links their
-	 * {@link io.github.readonly.command.Command#name name} to the index that which they are located at in the ArrayList
-	 * they are stored.
-	 * <p>
-	 * This means that all insertion and removal of Commands must reorganize the index maintained by the HashMap. <br>
 	 * For this particular insertion, the Command provided is inserted at the index specified, meaning it will become
-	 * the Command located at that index in the ArrayList. This will shift the Command previously located at that index
+	 * the Command located at that index in the list. This will shift the Command previously located at that index
 	 * as well as any located at greater indices, right one index ({@code size()+1}).
 	 *
 	 * @param command
@@ -267,17 +251,12 @@ public interface ClientInterface
 	 * Removes a single {@link io.github.readonly.command.Command Command} from this Client's registered Commands at the
 	 * index linked to the provided name/alias.
 	 * <p>
-	 * For Client's containing 20 commands or less, command calls by users will have the bot iterate through the entire
-	 * {@link java.util.ArrayList ArrayList} to find the command called. As expected, this can get fairly hefty if a bot
-	 * has a lot of Commands registered to it.
+	 * Registered commands are held in an immutable snapshot that maps each of their
+	 * {@link io.github.readonly.command.Command#name name} and {@link io.github.readonly.command.Command#aliases
+	 * aliases} directly to the command, so finding the command a user called is a single lock-free lookup.
 	 * <p>
-	 * To prevent delay a Client that has more that 20 Commands registered to it will begin to use <b>indexed calls</b>.
+	 * Every insertion and removal builds and publishes a new snapshot, leaving lookups already in progress unaffected.
 	 * <br>
-	 * Indexed calls use a {@link java.util.HashMap HashMap} which links their
-	 * {@link io.github.readonly.command.Command#name name} and their {@link io.github.readonly.command.Command#aliases
-	 * aliases} to the index that which they are located at in the ArrayList they are stored.
-	 * <p>
-	 * This means that all insertion and removal of Commands must reorganize the index maintained by the HashMap. <br>
 	 * For this particular removal, the Command removed is that of the corresponding index retrieved by the name
 	 * provided. This will shift any Commands located at greater indices, left one index ({@code size()-1}).
 	 *
@@ -345,6 +324,9 @@ public interface ClientInterface
 
 	/**
 	 * Gets the {@link java.time.OffsetDateTime OffsetDateTime} that the specified cooldown expires.
+	 * <p>
+	 * A name from {@link io.github.readonly.command.Command#getCooldownKey Command#getCooldownKey} refers to the same
+	 * cooldown the command itself checks.
 	 *
 	 * @param name
 	 *            The cooldown name
@@ -355,6 +337,9 @@ public interface ClientInterface
 
 	/**
 	 * Gets the remaining number of seconds on the specified cooldown.
+	 * <p>
+	 * A name from {@link io.github.readonly.command.Command#getCooldownKey Command#getCooldownKey} refers to the same
+	 * cooldown the command itself checks.
 	 *
 	 * @param name
 	 *            The cooldown name
@@ -374,6 +359,9 @@ public interface ClientInterface
 
 	/**
 	 * Applies the specified cooldown with the provided name.
+	 * <p>
+	 * A name from {@link io.github.readonly.command.Command#getCooldownKey Command#getCooldownKey} refers to the same
+	 * cooldown the command itself checks.
 	 *
 	 * @param name
 	 *            The cooldown name
@@ -387,6 +375,32 @@ public interface ClientInterface
 	 */
 	void cleanCooldowns();
 
+	/**
+	 * Gets the {@link io.github.readonly.command.cooldown.CooldownEngine CooldownEngine} holding the cooldowns of this
+	 * Client. Commands check and apply their cooldowns through it directly, without building a String key. The
+	 * cooldowns themselves are held in the {@link io.github.readonly.command.cooldown.CooldownStore CooldownStore}
+	 * provided to the ClientBuilder.
+	 *
+	 * @return The CooldownEngine of this Client
+	 */
+	CooldownEngine getCooldownEngine();
+
+	/**
+	 * Gets the {@link io.github.readonly.command.CommandMetrics CommandMetrics} tracking how often every command, slash
+	 * command and context menu was invoked, completed, terminated or threw during this session.
+	 *
+	 * @return The CommandMetrics of this Client
+	 */
+	CommandMetrics getCommandMetrics();
+
+	/**
+	 * Gets the {@link io.github.readonly.command.CommandLatencies CommandLatencies} holding the latency histograms of
+	 * every phase of every command and slash command run during this session.
+	 *
+	 * @return The CommandLatencies of this Client
+	 */
+	CommandLatencies getCommandLatencies();
+
 	/**
 	 * Gets the number of uses for the provide {@link io.github.readonly.command.Command Command} during this session, or
 	 * {@code 0} if the command is not registered to this Client.
@@ -466,13 +480,34 @@ public interface ClientInterface
 	/**
 	 * Gets the {@link java.util.concurrent.ScheduledExecutorService ScheduledExecutorService} held by this client.
 	 * <p>
-	 * This is used for methods such as {@link io.github.readonly.command.event.CommandEvent#async(Runnable)
-	 * CommandEvent#async(Runnable)} run code asynchronously.
+	 * Unless virtual threads are enabled, this is also used for methods such as
+	 * {@link io.github.readonly.command.event.CommandEvent#async(Runnable) CommandEvent#async(Runnable)} to run code
+	 * asynchronously.
 	 *
 	 * @return The ScheduledExecutorService held by this client.
 	 */
 	ScheduledExecutorService getScheduleExecutor();
 
+	/**
+	 * Gets the {@link java.util.concurrent.ExecutorService ExecutorService} used by
+	 * {@link io.github.readonly.command.event.CommandEvent#async(Runnable) CommandEvent#async(Runnable)}.
+	 * <p>
+	 * This is the {@linkplain #getScheduleExecutor() ScheduledExecutorService} unless the Client was built using
+	 * {@link io.github.readonly.command.ClientBuilder#useVirtualThreads(boolean)
+	 * ClientBuilder#useVirtualThreads(boolean)}, in which case every task runs on its own virtual thread.
+	 *
+	 * @return The ExecutorService used to run code asynchronously.
+	 */
+	ExecutorService getAsyncExecutor();
+
+	/**
+	 * Gets the {@link io.github.readonly.command.CommandDispatcher CommandDispatcher} used to run commands off of the
+	 * JDA event thread.
+	 *
+	 * @return The CommandDispatcher, or {@code null} if commands run directly on the JDA event thread
+	 */
+	CommandDispatcher getCommandDispatcher();
+
 	/**
 	 * Gets the invite to the bot's support server.
 	 *
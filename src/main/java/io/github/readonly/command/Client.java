@@ -29,20 +29,23 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.jetbrains.annotations.NotNull;
@@ -53,6 +56,8 @@ import org.slf4j.LoggerFactory;
 import io.github.readonly.api.ClientInterface;
 import io.github.readonly.command.Command.Category;
 import io.github.readonly.command.arg.parse.ArgumentIndex;
+import io.github.readonly.command.cooldown.CooldownEngine;
+import io.github.readonly.command.cooldown.CooldownStore;
 import io.github.readonly.command.ctx.ContextMenu;
 import io.github.readonly.command.ctx.MessageContextMenu;
 import io.github.readonly.command.ctx.UserContextMenu;
@@ -75,12 +80,21 @@ import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateTopicEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.role.RoleCreateEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdateNameEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.events.session.ShutdownEvent;
 import net.dv8tion.jda.api.hooks.EventListener;
@@ -109,43 +123,49 @@ public class Client implements ClientInterface, EventListener
 	private final String[]												coOwnerIds;
 	private final String												prefix;
 	private final String[]												prefixes;
+	private final boolean												usesMentionPrefix;
+	private final PrefixMatcher											prefixMatcher;
+	private final ConcurrentHashMap<Long, PrefixMatcher>				guildPrefixMatchers;
+	private final TopicTags.Cache										topicTags;
 	private final Function<MessageReceivedEvent, String>				prefixFunction;
 	private final Function<MessageReceivedEvent, Boolean>				commandPreProcessFunction;
 	private final BiFunction<MessageReceivedEvent, Command, Boolean>	commandPreProcessBiFunction;
 	private final String												serverInvite;
-	private final HashMap<String, Integer>								commandIndex;
-	private final ArrayList<Command>									commands;
+	private final CommandRegistry<Command>								commands;
 	private final LinkedList<ServerCommands>							serverCommands;
 	private final boolean												embedAllReplies;
 	private final String												success;
 	private final String												warning;
 	private final String												error;
-	private final HashMap<String, OffsetDateTime>						cooldowns;
-	private final HashMap<String, Integer>								uses;
+	private final CooldownEngine										cooldowns;
+	private final CommandMetrics										metrics;
+	private final CommandLatencies										latencies;
 	private final FixedSizeCache<Long, Set<Message>>					linkMap;
 	private final boolean												useHelp;
 	private final boolean												shutdownAutomatically;
 	private final Consumer<CommandEvent>								helpConsumer;
 	private final String												helpWord;
 	private final ScheduledExecutorService								executor;
+	private final ExecutorService										asyncExecutor;
 	private final GuildSettingsManager<?>								manager;
+	private final CommandDispatcher										dispatcher;
 
 	private final LinkedList<SlashCommand> globalSlashCommands;
 	private final LinkedList<ContextMenu> globalUserInteractions;
 
-	private final LinkedList<SlashCommand>	totalSlashCommands;
-	private final HashMap<String, Integer>	slashCommandIndex;
+	private final CommandRegistry<SlashCommand>		slashCommands;
+	private volatile Map<String, SlashCommand>		slashCommandRoutes;
 
-	private final LinkedList<ContextMenu>	totalContextMenus;
-	private final HashMap<String, Integer>	contextMenuIndex;
-
-	private LinkedList<String> indexedSlashCommandNames;
+	private final CommandRegistry<ContextMenu>	contextMenus;
+	private final CommandRegistry<ContextMenu>	userContextMenus;
+	private final CommandRegistry<ContextMenu>	messageContextMenus;
 
 	private final HashMap<Category, List<Command>> categoryToCommandListMap;
 
-	private String			textPrefix;
-	private CommandListener	listener	= null;
-	private int				totalGuilds;
+	private String					textPrefix;
+	private CommandListener			listener	= null;
+	private int						totalGuilds;
+	private volatile PrefixMatcher	mentionMatcher;
 
 	public Client(
 		//@noformat
@@ -158,7 +178,8 @@ public class Client implements ClientInterface, EventListener
 		LinkedList<ServerCommands> serverCommands, LinkedList<SlashCommand> slashCommands,
 		LinkedList<ContextMenu> userInteractions, boolean embedAllReplies,
 		boolean useHelp, boolean shutdownAutomatically, Consumer<CommandEvent> helpConsumer,
-		String helpWord, ScheduledExecutorService executor, int linkedCacheSize, GuildSettingsManager<?> manager
+		String helpWord, ScheduledExecutorService executor, int linkedCacheSize, GuildSettingsManager<?> manager,
+		CommandDispatcher dispatcher, ExecutorService asyncExecutor, CooldownStore cooldownStore
 		)
 	//@format
 	{
@@ -197,6 +218,22 @@ public class Client implements ClientInterface, EventListener
 			this.prefixes = ArrayUtils.remove(prefixes, 0);
 			Arrays.sort(this.prefixes, Comparator.reverseOrder());
 		}
+		this.usesMentionPrefix = this.prefix.equals(DEFAULT_PREFIX) || ArrayUtils.contains(this.prefixes, DEFAULT_PREFIX);
+		// Compile the default prefix and the alternate prefixes once, in the order they are checked
+		this.prefixMatcher = new PrefixMatcher();
+		if (!this.prefix.equals(DEFAULT_PREFIX))
+		{
+			this.prefixMatcher.add(this.prefix, 0);
+		}
+		for (String pre : this.prefixes)
+		{
+			if (!DEFAULT_PREFIX.equals(pre))
+			{
+				this.prefixMatcher.add(pre, 0);
+			}
+		}
+		this.guildPrefixMatchers = new ConcurrentHashMap<>();
+		this.topicTags = new TopicTags.Cache();
 		this.prefixFunction = prefixFunction;
 		this.commandPreProcessFunction = commandPreProcessFunction;
 		this.commandPreProcessBiFunction = commandPreProcessBiFunction;
@@ -207,27 +244,30 @@ public class Client implements ClientInterface, EventListener
 		this.success = success == null ? "" : success;
 		this.warning = warning == null ? "" : warning;
 		this.error = error == null ? "" : error;
-		this.commandIndex = new HashMap<>();
-		this.totalSlashCommands = new LinkedList<>();
-		this.slashCommandIndex = new HashMap<>();
-		this.totalContextMenus = new LinkedList<>();
-		this.contextMenuIndex = new HashMap<>();
+		this.commands = new CommandRegistry<>(Client::commandKeys, "Command added has a name or alias that has already been indexed: \"%s\"!");
+		this.slashCommands = new CommandRegistry<>(cmd -> Collections.singletonList(cmd.getName().toLowerCase(Locale.ROOT)), "Command added has a name that has already been indexed: \"%s\"!");
+		this.slashCommandRoutes = Collections.emptyMap();
+		this.contextMenus = new CommandRegistry<>(menu -> Collections.emptyList(), "%s");
+		// Do not lowercase, as there could be 2 menus with the same name, but different letter cases
+		this.userContextMenus = new CommandRegistry<>(menu -> Collections.singletonList(menu.getName()), "Context Menu added has a name and class that has already been indexed: \"%s\"!");
+		this.messageContextMenus = new CommandRegistry<>(menu -> Collections.singletonList(menu.getName()), "Context Menu added has a name and class that has already been indexed: \"%s\"!");
 		this.globalSlashCommands = new LinkedList<>();
 		this.globalUserInteractions = new LinkedList<>();
-		this.commands = new ArrayList<>();
 		this.categoryToCommandListMap = new HashMap<>();
 		this.categoryToCommandListMap.put(new Category("Uncategorized"), new ArrayList<>());
 		this.serverCommands = new LinkedList<>();
 		this.embedAllReplies = embedAllReplies;
-		this.cooldowns = new HashMap<>();
-		this.uses = new HashMap<>();
+		this.cooldowns = cooldownStore == null ? new CooldownEngine() : new CooldownEngine(cooldownStore);
+		this.metrics = new CommandMetrics();
 		this.linkMap = linkedCacheSize > 0 ? new FixedSizeCache<>(linkedCacheSize) : null;
 		this.useHelp = useHelp;
 		this.shutdownAutomatically = shutdownAutomatically;
 		this.helpWord = helpWord == null ? "help" : helpWord;
 		this.executor = executor == null ? Executors.newSingleThreadScheduledExecutor() : executor;
+		this.asyncExecutor = asyncExecutor == null ? this.executor : asyncExecutor;
+		this.latencies = new CommandLatencies(this.executor);
 		this.manager = manager;
-		this.indexedSlashCommandNames = new LinkedList<>();
+		this.dispatcher = dispatcher;
 		this.helpConsumer = helpConsumer == null ? (event) ->
 		{
 			StringBuilder	builder		= new StringBuilder("**" + event.getSelfUser().getName() + "** commands:\n");
@@ -314,7 +354,7 @@ public class Client implements ClientInterface, EventListener
 	@Override
 	public List<Command> getCommands()
 	{
-		return commands;
+		return commands.list();
 	}
 
 	@Override
@@ -332,7 +372,7 @@ public class Client implements ClientInterface, EventListener
 	@Override
 	public List<ContextMenu> getContextMenus()
 	{
-		return totalContextMenus;
+		return contextMenus.list();
 	}
 
 	@Override
@@ -356,36 +396,44 @@ public class Client implements ClientInterface, EventListener
 	@Override
 	public OffsetDateTime getCooldown(String name)
 	{
-		return cooldowns.get(name);
+		long remaining = cooldowns.getRemainingNanos(name);
+		return remaining > 0 ? OffsetDateTime.now().plus(remaining, ChronoUnit.NANOS) : null;
 	}
 
 	@Override
 	public int getRemainingCooldown(String name)
 	{
-		if (cooldowns.containsKey(name))
-		{
-			int time = (int) Math.ceil(OffsetDateTime.now().until(cooldowns.get(name), ChronoUnit.MILLIS) / 1000D);
-			if (time <= 0)
-			{
-				cooldowns.remove(name);
-				return 0;
-			}
-			return time;
-		}
-		return 0;
+		return cooldowns.getRemaining(name);
 	}
 
 	@Override
 	public void applyCooldown(String name, int seconds)
 	{
-		cooldowns.put(name, OffsetDateTime.now().plusSeconds(seconds));
+		cooldowns.apply(name, seconds);
 	}
 
 	@Override
 	public void cleanCooldowns()
 	{
-		OffsetDateTime now = OffsetDateTime.now();
-		cooldowns.keySet().stream().filter((str) -> (cooldowns.get(str).isBefore(now))).collect(Collectors.toList()).forEach(cooldowns::remove);
+		cooldowns.clean();
+	}
+
+	@Override
+	public CooldownEngine getCooldownEngine()
+	{
+		return cooldowns;
+	}
+
+	@Override
+	public CommandMetrics getCommandMetrics()
+	{
+		return metrics;
+	}
+
+	@Override
+	public CommandLatencies getCommandLatencies()
+	{
+		return latencies;
 	}
 
 	@Override
@@ -397,7 +445,7 @@ public class Client implements ClientInterface, EventListener
 	@Override
 	public int getCommandUses(String name)
 	{
-		return uses.getOrDefault(name, 0);
+		return (int) metrics.get(name, CommandMetrics.Counter.INVOKED);
 	}
 
 	@Override
@@ -409,37 +457,10 @@ public class Client implements ClientInterface, EventListener
 	@Override
 	public void addCommand(Command command, int index)
 	{
-		if ((index > commands.size()) || (index < 0))
-		{
-			throw new ArrayIndexOutOfBoundsException("Index specified is invalid: [" + index + "/" + commands.size() + "]");
-		}
-		synchronized (commandIndex)
-		{
-			String name = command.getName().toLowerCase(Locale.ROOT);
-			// check for collision
-			if (commandIndex.containsKey(name))
-			{
-				throw new IllegalArgumentException("Command added has a name or alias that has already been indexed: \"" + name + "\"!");
-			}
-			for (String alias : command.getAliases())
-			{
-				if (commandIndex.containsKey(alias.toLowerCase(Locale.ROOT)))
-				{
-					throw new IllegalArgumentException("Command added has a name or alias that has already been indexed: \"" + alias + "\"!");
-				}
-			}
-			// shift if not append
-			if (index < commands.size())
-			{
-				commandIndex.entrySet().stream().filter(entry -> entry.getValue() >= index).collect(Collectors.toList()).forEach(entry -> commandIndex.put(entry.getKey(), entry.getValue() + 1));
-			}
-			// add
-			commandIndex.put(name, index);
-			for (String alias : command.getAliases())
-			{
-				commandIndex.put(alias.toLowerCase(Locale.ROOT), index);
-			}
-		}
+		// Resolve the argument converters up front, so misdeclared
+		// arguments fail when the command is added rather than when called
+		command.getArgumentBinder();
+		commands.add(command, index);
 
 		if (categoryToCommandListMap.containsKey(command.getCategory()))
 		{
@@ -449,101 +470,69 @@ public class Client implements ClientInterface, EventListener
 			List<Command> newCmdList = new ArrayList<>(Arrays.asList(command));
 			categoryToCommandListMap.put(command.getCategory(), newCmdList);
 		}
-
-		commands.add(index, command);
 	}
 
 	@Override
 	public void indexSlashCommand(SlashCommand slashCommand, int index)
 	{
-		if ((index > totalSlashCommands.size()) || (index < 0))
-		{
-			throw new ArrayIndexOutOfBoundsException("Index specified is invalid: [" + index + "/" + totalSlashCommands.size() + "]");
-		}
-		synchronized (slashCommandIndex)
+		synchronized (slashCommands)
 		{
-			String name = slashCommand.getName().toLowerCase(Locale.ROOT);
-			// check for collision
-			if (slashCommandIndex.containsKey(name))
-			{
-				throw new IllegalArgumentException("Command added has a name that has already been indexed: \"" + name + "\"!");
-			}
-			// shift if not append
-			if (index < totalSlashCommands.size())
-			{
-				slashCommandIndex.entrySet().stream().filter(entry -> entry.getValue() >= index).collect(Collectors.toList()).forEach(entry -> slashCommandIndex.put(entry.getKey(), entry.getValue() + 1));
-			}
-			// add
-			slashCommandIndex.put(name, index);
+			slashCommands.add(slashCommand, index);
+			slashCommandRoutes = compileSlashCommandRoutes(slashCommands.list());
 		}
-		indexedSlashCommandNames.add(slashCommand.getName());
-		totalSlashCommands.add(index, slashCommand);
 	}
 
 	@Override
 	public void indexSlashCommand(SlashCommand command)
 	{
-		if (!indexedSlashCommandNames.contains(command.getName()))
+		if (!slashCommands.contains(command.getName().toLowerCase(Locale.ROOT)))
 		{
-			indexSlashCommand(command, totalContextMenus.size());
+			indexSlashCommand(command, slashCommands.size());
 		}
 	}
 
 	@Override
 	public void indexContextMenu(ContextMenu menu)
 	{
-		indexContextMenu(menu, totalContextMenus.size());
+		indexContextMenu(menu, contextMenus.size());
 	}
 
 	@Override
 	public void indexContextMenu(ContextMenu menu, int index)
 	{
-		if ((index > totalContextMenus.size()) || (index < 0))
+		synchronized (contextMenus)
 		{
-			throw new ArrayIndexOutOfBoundsException("Index specified is invalid: [" + index + "/" + totalContextMenus.size() + "]");
-		}
-		synchronized (contextMenuIndex)
-		{
-			String name = menu.getName();
-			// check for collision
-			if (contextMenuIndex.containsKey(name))
+			if ((index > contextMenus.size()) || (index < 0))
 			{
-				// Compare the existing menu's class to the new menu's class
-				if (contextMenuIndex.get(name).getClass().getName().equals(menu.getClass().getName()))
-				{
-					throw new IllegalArgumentException("Context Menu added has a name and class that has already been indexed: \"" + name + "\"!");
-				}
-			}
-			// shift if not append
-			if (index < contextMenuIndex.size())
-			{
-				contextMenuIndex.entrySet().stream().filter(entry -> entry.getValue() >= index).collect(Collectors.toList()).forEach(entry -> contextMenuIndex.put(entry.getKey(), entry.getValue() + 1));
+				throw new ArrayIndexOutOfBoundsException("Index specified is invalid: [" + index + "/" + contextMenus.size() + "]");
 			}
-			// add
-			contextMenuIndex.put(name, index);
+			// User and Message context menus may share a name, so each type is indexed separately
+			CommandRegistry<ContextMenu> typed = menu instanceof UserContextMenu ? userContextMenus : messageContextMenus;
+			typed.add(menu, typed.size());
+			contextMenus.add(menu, index);
 		}
-		totalContextMenus.add(index, menu);
 	}
 
 	@Override
 	public void removeCommand(String name)
 	{
-		synchronized (commandIndex)
+		if (commands.remove(name.toLowerCase(Locale.ROOT)) == null)
 		{
-			if (!commandIndex.containsKey(name.toLowerCase(Locale.ROOT)))
-			{
-				throw new IllegalArgumentException("Name provided is not indexed: \"" + name + "\"!");
-			}
-			int		targetIndex		= commandIndex.remove(name.toLowerCase(Locale.ROOT));
-			Command	removedCommand	= commands.remove(targetIndex);
-			for (String alias : removedCommand.getAliases())
-			{
-				commandIndex.remove(alias.toLowerCase(Locale.ROOT));
-			}
-			commandIndex.entrySet().stream().filter(entry -> entry.getValue() > targetIndex).collect(Collectors.toList()).forEach(entry -> commandIndex.put(entry.getKey(), entry.getValue() - 1));
+			throw new IllegalArgumentException("Name provided is not indexed: \"" + name + "\"!");
 		}
 	}
 
+	private static List<String> commandKeys(Command command)
+	{
+		List<String> keys = new ArrayList<>(command.getAliases().length + 1);
+		keys.add(command.getName().toLowerCase(Locale.ROOT));
+		for (String alias : command.getAliases())
+		{
+			keys.add(alias.toLowerCase(Locale.ROOT));
+		}
+		return keys;
+	}
+
 	@Override
 	public String getOwnerId()
 	{
@@ -601,6 +590,28 @@ public class Client implements ClientInterface, EventListener
 		return executor;
 	}
 
+	@Override
+	public ExecutorService getAsyncExecutor()
+	{
+		return asyncExecutor;
+	}
+
+	@Override
+	public CommandDispatcher getCommandDispatcher()
+	{
+		return dispatcher;
+	}
+
+	/**
+	 * Gets the cache of parsed topic tags of the channels this Client has seen.
+	 *
+	 * @return The TopicTags cache
+	 */
+	TopicTags.Cache getTopicTags()
+	{
+		return topicTags;
+	}
+
 	@Override
 	public String getServerInvite()
 	{
@@ -675,6 +686,14 @@ public class Client implements ClientInterface, EventListener
 		{
 			manager.shutdown();
 		}
+		if (dispatcher != null)
+		{
+			dispatcher.shutdown();
+		}
+		if (asyncExecutor != executor)
+		{
+			asyncExecutor.shutdown();
+		}
 		executor.shutdown();
 	}
 
@@ -702,6 +721,17 @@ public class Client implements ClientInterface, EventListener
 		} else if (event instanceof ReadyEvent)
 		{
 			onReady((ReadyEvent) event);
+		} else if (event instanceof GuildLeaveEvent)
+		{
+			guildPrefixMatchers.remove(((GuildLeaveEvent) event).getGuild().getIdLong());
+			topicTags.invalidateGuild(((GuildLeaveEvent) event).getGuild().getIdLong());
+			invalidateRoleRequirements(((GuildLeaveEvent) event).getGuild().getIdLong());
+		} else if ((event instanceof RoleCreateEvent) || (event instanceof RoleDeleteEvent) || (event instanceof RoleUpdateNameEvent))
+		{
+			invalidateRoleRequirements(((GenericRoleEvent) event).getGuild().getIdLong());
+		} else if (((event instanceof ChannelUpdateTopicEvent) || (event instanceof ChannelDeleteEvent)) && ((GenericChannelEvent) event).isFromGuild())
+		{
+			topicTags.invalidate(((GenericChannelEvent) event).getGuild().getIdLong(), ((GenericChannelEvent) event).getChannel().getIdLong());
 		} else if (event instanceof ShutdownEvent)
 		{
 			if (shutdownAutomatically)
@@ -711,6 +741,14 @@ public class Client implements ClientInterface, EventListener
 		}
 	}
 
+	private void invalidateRoleRequirements(long guildId)
+	{
+		for (Command command : commands.list())
+		{
+			command.invalidateRoleRequirement(guildId);
+		}
+	}
+
 	private void onReady(ReadyEvent event)
 	{
 		if (!event.getJDA().getSelfUser().isBot())
@@ -720,6 +758,10 @@ public class Client implements ClientInterface, EventListener
 			return;
 		}
 		textPrefix = prefix.equals(DEFAULT_PREFIX) ? "@" + event.getJDA().getSelfUser().getName() + " " : prefix;
+		if (usesMentionPrefix)
+		{
+			getMentionMatcher(event.getJDA());
+		}
 		if (activity != null)
 		{
 			event.getJDA().getPresence().setPresence(status == null ? OnlineStatus.ONLINE : status, "default".equals(activity.getName()) ? Activity.playing("Type " + textPrefix + helpWord) : activity);
@@ -809,56 +851,28 @@ public class Client implements ClientInterface, EventListener
 			if (useHelp && parts.command.equalsIgnoreCase(helpWord))
 			{
 				CommandEvent cevent = new CommandEvent(event, parts.prefixUsed, parts.argumentIndex, this);
-				if (listener != null)
-				{
-					listener.onCommand(cevent, null);
-				}
-				helpConsumer.accept(cevent); // Fire help consumer
-				if (listener != null)
+				dispatch(event.getChannel().getIdLong(), event.getAuthor().getIdLong(), () ->
 				{
-					listener.onCompletedCommand(cevent, null);
-				}
+					if (listener != null)
+					{
+						listener.onCommand(cevent, null);
+					}
+					helpConsumer.accept(cevent); // Fire help consumer
+					if (listener != null)
+					{
+						listener.onCompletedCommand(cevent, null);
+					}
+				});
 				return; // Help Consumer is done
 			} else if (event.isFromType(ChannelType.PRIVATE) || event.getChannel().canTalk())
 			{
 				String			name	= parts.command;
-				final Command	command;				// this will be null if
-				// it's not a command
-				synchronized (commandIndex)
-				{
-					int i = commandIndex.getOrDefault(name.toLowerCase(Locale.ROOT), -1);
-					command = i != -1 ? commands.get(i) : null;
-				}
+				// this will be null if it's not a command
+				final Command	command	= commands.get(name.toLowerCase(Locale.ROOT));
 				if (command != null)
 				{
 					CommandEvent cevent = new CommandEvent(event, parts.prefixUsed, parts.argumentIndex, this, command);
-					if (listener != null)
-					{
-						listener.onCommand(cevent, command);
-					}
-					uses.put(command.getName(), uses.getOrDefault(command.getName(), 0) + 1);
-					if ((commandPreProcessFunction != null) || (commandPreProcessBiFunction != null))
-					{
-						// Apply both pre-process functions
-						if ((commandPreProcessFunction != null) && commandPreProcessFunction.apply(event))
-						{
-							command.run(cevent);
-							return;
-						}
-
-						if ((commandPreProcessBiFunction != null) && commandPreProcessBiFunction.apply(event, command))
-						{
-							command.run(cevent);
-							return;
-						}
-
-						// If we are here, neither function returned true, so we
-						// can just return
-						return;
-					} else
-					{
-						command.run(cevent);
-					}
+					dispatch(event.getChannel().getIdLong(), event.getAuthor().getIdLong(), () -> runCommand(event, cevent, command));
 					return; // Command is done
 				}
 			}
@@ -869,24 +883,70 @@ public class Client implements ClientInterface, EventListener
 		}
 	}
 
+	private void runCommand(MessageReceivedEvent event, CommandEvent cevent, Command command)
+	{
+		if (listener != null)
+		{
+			listener.onCommand(cevent, command);
+		}
+		metrics.increment(CommandMetrics.Kind.TEXT, command, command.getName(), CommandMetrics.Counter.INVOKED);
+		if ((commandPreProcessFunction != null) || (commandPreProcessBiFunction != null))
+		{
+			// Apply both pre-process functions
+			if ((commandPreProcessFunction != null) && commandPreProcessFunction.apply(event))
+			{
+				command.run(cevent);
+				return;
+			}
+
+			if ((commandPreProcessBiFunction != null) && commandPreProcessBiFunction.apply(event, command))
+			{
+				command.run(cevent);
+				return;
+			}
+
+			// If we are here, neither function returned true, so we
+			// can just return
+			return;
+		} else
+		{
+			command.run(cevent);
+		}
+	}
+
+	/**
+	 * Runs a command invocation, either directly on the calling thread or through the {@link CommandDispatcher} if one
+	 * was provided.
+	 */
+	private void dispatch(long channelId, long userId, Runnable task)
+	{
+		if (dispatcher == null)
+		{
+			task.run();
+		} else
+		{
+			dispatcher.dispatch(channelId, userId, task);
+		}
+	}
+
+	private static long getChannelIdLong(GenericCommandInteractionEvent event)
+	{
+		return event.getChannel() == null ? 0L : event.getChannel().getIdLong();
+	}
+
 	@Nullable
 	private MessageParts getParts(MessageReceivedEvent event)
 	{
 		String rawContent = event.getMessage().getContentRaw();
 
-		GuildSettingsProvider settings = event.isFromType(ChannelType.TEXT) ? provideSettings(event.getGuild()) : null;
-
 		// Check for prefix or alternate prefix (@mention cases)
-		if (prefix.equals(DEFAULT_PREFIX) || (((prefixes != null) || (prefixes.length > 0)) && ArrayUtils.contains(prefixes, DEFAULT_PREFIX)))
+		if (usesMentionPrefix)
 		{
-			if (rawContent.startsWith("<@" + event.getJDA().getSelfUser().getId() + ">") || rawContent.startsWith("<@!" + event.getJDA().getSelfUser().getId() + ">"))
+			// The mention forms consume the character following them as well,
+			// since the default @mention prefix is always followed by a space
+			final int prefixLength = getMentionMatcher(event.getJDA()).match(rawContent);
+			if (prefixLength > 0)
 			{
-				// Since we now use substring into makeMessageParts function and
-				// a indexOf here, we need to do a +1 to get the good substring
-				// On top of that we need to do another +1 because the default
-				// @mention prefix will always be followed by a space
-				// So we need to add 2 characters to get the correct substring
-				final int prefixLength = rawContent.indexOf('>') + 2;
 				return makeMessageParts(rawContent, prefixLength);
 			}
 		}
@@ -902,47 +962,61 @@ public class Client implements ClientInterface, EventListener
 				return makeMessageParts(rawContent, prefixLength);
 			}
 		}
-		final String lowerCaseContent = rawContent.toLowerCase(Locale.ROOT);
-		// Check for default prefix
-		if (lowerCaseContent.startsWith(prefix.toLowerCase(Locale.ROOT)))
+		// Check for default prefix and alternate prefixes
+		int prefixLength = prefixMatcher.match(rawContent);
+		if (prefixLength > 0)
 		{
-			final int prefixLength = prefix.length();
 			return makeMessageParts(rawContent, prefixLength);
 		}
-		// Check for prefixes
-		if (prefixes != null)
-		{
-			for (String pre : prefixes)
-			{
-				if (pre != null)
-				{
-					if (lowerCaseContent.startsWith(pre.toLowerCase(Locale.ROOT)))
-					{
-						final int prefixLength = pre.length();
-						return makeMessageParts(rawContent, prefixLength);
-					}
-				}
-			}
-		}
 		// Check for guild specific prefixes
-		if (settings != null)
+		if (event.isFromType(ChannelType.TEXT))
 		{
-			Collection<String> prefixes = settings.getPrefixes();
-			if (prefixes != null)
+			GuildSettingsProvider settings = provideSettings(event.getGuild());
+			if (settings != null)
 			{
-				for (String prefix : prefixes)
+				prefixLength = getGuildPrefixMatcher(event.getGuild().getIdLong(), settings.getPrefixes()).match(rawContent);
+				if (prefixLength > 0)
 				{
-					if (lowerCaseContent.startsWith(prefix.toLowerCase(Locale.ROOT)))
-					{
-						final int prefixLength = prefix.length();
-						return makeMessageParts(rawContent, prefixLength);
-					}
+					return makeMessageParts(rawContent, prefixLength);
 				}
 			}
 		}
 		return null;
 	}
 
+	private PrefixMatcher getMentionMatcher(JDA jda)
+	{
+		PrefixMatcher matcher = mentionMatcher;
+		if (matcher == null)
+		{
+			String selfId = jda.getSelfUser().getId();
+			matcher = new PrefixMatcher().add("<@" + selfId + ">", 1).add("<@!" + selfId + ">", 1);
+			mentionMatcher = matcher;
+		}
+		return matcher;
+	}
+
+	/**
+	 * Gets the compiled guild specific prefixes for a guild, compiling them again only if the prefixes provided by
+	 * the {@link io.github.readonly.settings.GuildSettingsProvider GuildSettingsProvider} have changed since the last
+	 * time they were compiled.
+	 */
+	private PrefixMatcher getGuildPrefixMatcher(long guildId, Collection<String> prefixes)
+	{
+		if ((prefixes == null) || prefixes.isEmpty())
+		{
+			guildPrefixMatchers.remove(guildId);
+			return PrefixMatcher.EMPTY;
+		}
+		PrefixMatcher matcher = guildPrefixMatchers.get(guildId);
+		if ((matcher == null) || !matcher.isFor(prefixes))
+		{
+			matcher = PrefixMatcher.compile(prefixes);
+			guildPrefixMatchers.put(guildId, matcher);
+		}
+		return matcher;
+	}
+
 	/**
 	 * Processes the message raw content and returns the "parts" of the message <br> These parts include: <ul> <li>Used
 	 * prefix</li> <li>Command name</li> <li>Arguments</li> </ul>
@@ -1011,13 +1085,16 @@ public class Client implements ClientInterface, EventListener
 
 		if (command != null)
 		{
-			if (listener != null)
+			dispatch(getChannelIdLong(event), event.getUser().getIdLong(), () ->
 			{
-				listener.onSlashCommand(commandEvent, command);
-			}
-			uses.put(command.getName(), uses.getOrDefault(command.getName(), 0) + 1);
+				if (listener != null)
+				{
+					listener.onSlashCommand(commandEvent, command);
+				}
+				metrics.increment(CommandMetrics.Kind.SLASH, command, command.getName(), CommandMetrics.Counter.INVOKED);
 
-			command.run(commandEvent);
+				command.run(commandEvent);
+			});
 			// Command is done
 		}
 	}
@@ -1035,112 +1112,85 @@ public class Client implements ClientInterface, EventListener
 
 	private SlashCommand findSlashCommand(String path)
 	{
-		String[] parts = path.split(" ");
-
-		final SlashCommand command; // this will be null if it's not a command
-		synchronized (slashCommandIndex)
-		{
-			int i = slashCommandIndex.getOrDefault(parts[0].toLowerCase(Locale.ROOT), -1);
-			command = i != -1 ? totalSlashCommands.get(i) : null;
-		}
-
-		if (command == null)
-		{
-			return null;
-		}
+		// this will be null if it's not a command
+		return slashCommandRoutes.get(path);
+	}
 
-		switch (parts.length)
+	/**
+	 * Compiles the routing table used to find the SlashCommand an interaction is for.
+	 * <p>
+	 * Every command is mapped by its full path, in the same format as
+	 * {@link net.dv8tion.jda.api.interactions.commands.CommandInteractionPayload#getFullCommandName()
+	 * getFullCommandName()}: {@code root}, {@code root child} and {@code root group child}. Paths are lowercase, as
+	 * Discord requires slash command names to be. If two children share a path, the one registered first wins.
+	 *
+	 * @param commands
+	 *            The indexed SlashCommands, in order
+	 *
+	 * @return An unmodifiable Map of full paths to SlashCommands
+	 */
+	private static Map<String, SlashCommand> compileSlashCommandRoutes(List<SlashCommand> commands)
+	{
+		Map<String, SlashCommand> routes = new HashMap<>();
+		for (SlashCommand command : commands)
 		{
-		case 1: // Slash command with no children
-			return command;
-		case 2: // Slash command with children
-			// child check
-			for (SlashCommand cmd : command.getChildren())
-			{
-				if (cmd.isCommandFor(parts[1]))
-				{
-					System.out.println("child check -> return cmd");
-					return cmd;
-				}
-			}
-			return null;
-		case 3: // Slash command with a group and a child
-			for (SlashCommand cmd : command.getChildren())
+			String root = command.getName().toLowerCase(Locale.ROOT);
+			routes.putIfAbsent(root, command);
+			for (SlashCommand child : command.getChildren())
 			{
-				if (cmd.isCommandFor(parts[2]) && cmd.getSubcommandGroup().getName().equals(parts[1]))
+				String parent = child.getSubcommandGroup() == null ? root : root + " " + child.getSubcommandGroup().getName().toLowerCase(Locale.ROOT);
+				routes.putIfAbsent(parent + " " + child.getName().toLowerCase(Locale.ROOT), child);
+				for (String alias : child.getAliases())
 				{
-					return cmd;
+					routes.putIfAbsent(parent + " " + alias.toLowerCase(Locale.ROOT), child);
 				}
 			}
-			return null;
 		}
-		// How did we get here?
-		return null;
+		return Collections.unmodifiableMap(routes);
 	}
 
 	private void onUserContextMenu(UserContextInteractionEvent event)
 	{
-		final UserContextMenu menu; // this will be null if it's not a command
-		synchronized (contextMenuIndex)
-		{
-			ContextMenu	c;
-			int			i	= contextMenuIndex.getOrDefault(event.getName(), -1);
-			c = i != -1 ? totalContextMenus.get(i) : null;
-
-			if (c instanceof UserContextMenu)
-			{
-				menu = (UserContextMenu) c;
-			} else
-			{
-				menu = null;
-			}
-		}
+		// this will be null if it's not a command
+		final UserContextMenu menu = (UserContextMenu) userContextMenus.get(event.getName());
 
 		final UserContextMenuEvent menuEvent = new UserContextMenuEvent(event.getJDA(), event.getResponseNumber(), event, this);
 
 		if (menu != null)
 		{
-			if (listener != null)
+			dispatch(getChannelIdLong(event), event.getUser().getIdLong(), () ->
 			{
-				listener.onUserContextMenu(menuEvent, menu);
-			}
-			uses.put(menu.getName(), uses.getOrDefault(menu.getName(), 0) + 1);
-			menu.run(menuEvent);
+				if (listener != null)
+				{
+					listener.onUserContextMenu(menuEvent, menu);
+				}
+				metrics.increment(CommandMetrics.Kind.USER_CONTEXT_MENU, menu, menu.getName(), CommandMetrics.Counter.INVOKED);
+				menu.run(menuEvent);
+			});
 			// Command is done
 		}
 	}
 
 	private void onMessageContextMenu(MessageContextInteractionEvent event)
 	{
-		final MessageContextMenu menu; // this will be null if it's not a
-		// command
-		synchronized (contextMenuIndex)
-		{
-			ContextMenu c;
-			// Do not lowercase, as there could be 2 menus with the same name,
-			// but different letter cases
-			int i = contextMenuIndex.getOrDefault(event.getName(), -1);
-			c = i != -1 ? totalContextMenus.get(i) : null;
-
-			if (c instanceof MessageContextMenu)
-			{
-				menu = (MessageContextMenu) c;
-			} else
-			{
-				menu = null;
-			}
-		}
+		// this will be null if it's not a command
+		// Do not lowercase, as there could be 2 menus with the same name,
+		// but different letter cases
+		final MessageContextMenu menu = (MessageContextMenu) messageContextMenus.get(event.getName());
 
 		final MessageContextMenuEvent menuEvent = new MessageContextMenuEvent(event.getJDA(), event.getResponseNumber(), event, this);
 
 		if (menu != null)
 		{
-			if (listener != null)
+			dispatch(getChannelIdLong(event), event.getUser().getIdLong(), () ->
 			{
-				listener.onMessageContextMenu(menuEvent, menu);
-			}
-			uses.put(menu.getName(), uses.getOrDefault(menu.getName(), 0) + 1);
-			menu.run(menuEvent);
+				if (listener != null)
+				{
+					listener.onMessageContextMenu(menuEvent, menu);
+				}
+				metrics.increment(CommandMetrics.Kind.MESSAGE_CONTEXT_MENU, menu, menu.getName(), CommandMetrics.Counter.INVOKED);
+				menu.run(menuEvent);
+			});
 			// Command is done
 		}
 	}
@@ -31,14 +31,19 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import io.github.readonly.command.Command.Category;
+import io.github.readonly.command.CommandDispatcher.Ordering;
+import io.github.readonly.command.CommandDispatcher.RejectionPolicy;
+import io.github.readonly.command.cooldown.CooldownStore;
 import io.github.readonly.command.ctx.ContextMenu;
 import io.github.readonly.command.event.CommandEvent;
+import io.github.readonly.common.util.async.VirtualThreads;
 import io.github.readonly.settings.GuildSettingsManager;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
@@ -52,6 +57,9 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 public class ClientBuilder
 {
 
+	private static final int	DEFAULT_FALLBACK_THREADS	= Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+	private static final int	VIRTUAL_QUEUE_DEPTH			= 10000;
+
 	private Activity											activity					= Activity.playing("default");
 	private OnlineStatus										status						= OnlineStatus.ONLINE;
 	private String												ownerId;
@@ -79,6 +87,10 @@ public class ClientBuilder
 	private ScheduledExecutorService							executor;
 	private int													linkedCacheSize				= 0;
 	private GuildSettingsManager<?>								manager						= null;
+	private CommandDispatcher									dispatcher					= null;
+	private boolean												useVirtualThreads			= false;
+	private int													virtualThreadFallbackSize	= DEFAULT_FALLBACK_THREADS;
+	private CooldownStore										cooldownStore				= null;
 
 	/**
 	 * Builds a {@link io.github.readonly.command.Client ClientImpl} with the provided settings. <br> Once built,
@@ -89,6 +101,16 @@ public class ClientBuilder
 	 */
 	public Client build()
 	{
+		CommandDispatcher	dispatcher		= this.dispatcher;
+		ExecutorService		asyncExecutor	= null;
+		if (useVirtualThreads)
+		{
+			asyncExecutor = VirtualThreads.newExecutor("JDATools-Async-", virtualThreadFallbackSize);
+			if (dispatcher == null)
+			{
+				dispatcher = new CommandDispatcher(VirtualThreads.newExecutor("JDATools-Command-", virtualThreadFallbackSize), VIRTUAL_QUEUE_DEPTH, Ordering.CHANNEL, RejectionPolicy.CALLER_RUNS);
+			}
+		}
 		// @noformat
 		Client client = new Client(
 			ownerId, coOwnerIds, prefix, prefixes,
@@ -98,7 +120,8 @@ public class ClientBuilder
 			new ArrayList<>(commands), serverCommands,
 			globalSlashCommands, globalUserInteractions, embedAllReplies,
 			useHelp, shutdownAutomatically, helpConsumer,
-			helpWord, executor, linkedCacheSize, manager
+			helpWord, executor, linkedCacheSize, manager,
+			dispatcher, asyncExecutor, cooldownStore
 			);
 		if (listener != null)
 		{
@@ -599,4 +622,73 @@ public class ClientBuilder
 		this.manager = manager;
 		return this;
 	}
+
+	/**
+	 * Sets the {@link io.github.readonly.command.CommandDispatcher CommandDispatcher} used to run commands off of the
+	 * JDA event thread. <br> Setting it to {@code null} or not setting this at all will cause commands to run directly
+	 * on the JDA event thread that received them.
+	 *
+	 * @param dispatcher
+	 *                   The CommandDispatcher for the ClientImpl
+	 *
+	 * @return This builder
+	 */
+	public ClientBuilder setCommandDispatcher(CommandDispatcher dispatcher)
+	{
+		this.dispatcher = dispatcher;
+		return this;
+	}
+
+	/**
+	 * Sets whether command bodies and {@link io.github.readonly.command.event.CommandEvent#async(Runnable)
+	 * CommandEvent#async(Runnable)} run on virtual threads. <br> Virtual threads are only available on Java 21 or
+	 * newer; on older runtimes a bounded pool of platform threads, sized using
+	 * {@link io.github.readonly.command.ClientBuilder#setVirtualThreadFallbackSize(int)}, is used instead. <p> Unless a
+	 * {@link io.github.readonly.command.CommandDispatcher CommandDispatcher} is set, commands are dispatched in order
+	 * per channel, each on its own virtual thread.
+	 *
+	 * @param useVirtualThreads
+	 *                          {@code true} to run commands and async tasks on virtual threads
+	 *
+	 * @return This builder
+	 */
+	public ClientBuilder useVirtualThreads(boolean useVirtualThreads)
+	{
+		this.useVirtualThreads = useVirtualThreads;
+		return this;
+	}
+
+	/**
+	 * Sets the number of platform threads used in place of virtual threads on runtimes that do not support them.
+	 * <br> This only has an effect if {@link io.github.readonly.command.ClientBuilder#useVirtualThreads(boolean)} is
+	 * enabled.
+	 *
+	 * @param virtualThreadFallbackSize
+	 *                                  The number of platform threads to fall back to
+	 *
+	 * @return This builder
+	 */
+	public ClientBuilder setVirtualThreadFallbackSize(int virtualThreadFallbackSize)
+	{
+		this.virtualThreadFallbackSize = virtualThreadFallbackSize;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link io.github.readonly.command.cooldown.CooldownStore CooldownStore} cooldowns are held in. <br>
+	 * Setting it to {@code null} or not setting this at all will cause cooldowns to be held in an
+	 * {@link io.github.readonly.command.cooldown.InMemoryCooldownStore InMemoryCooldownStore}. <p> To share cooldowns
+	 * between several processes running on the same machine, provide each with a
+	 * {@link io.github.readonly.command.cooldown.MappedCooldownStore MappedCooldownStore} mapping the same file.
+	 *
+	 * @param cooldownStore
+	 *                      The CooldownStore for the ClientImpl
+	 *
+	 * @return This builder
+	 */
+	public ClientBuilder setCooldownStore(CooldownStore cooldownStore)
+	{
+		this.cooldownStore = cooldownStore;
+		return this;
+	}
 }
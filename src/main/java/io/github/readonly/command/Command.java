@@ -35,12 +35,24 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.readonly.api.ClientInterface;
 import io.github.readonly.api.CooldownScope;
+import io.github.readonly.command.arg.ArgumentBinder;
+import io.github.readonly.command.arg.ArgumentException;
 import io.github.readonly.command.arg.CommandArgument;
+import io.github.readonly.command.arg.ParsedArguments;
 import io.github.readonly.command.arg.parse.ArgumentIndex;
+import io.github.readonly.command.cooldown.CooldownEngine;
 import io.github.readonly.command.event.CommandEvent;
 import io.github.readonly.command.operation.UserInteraction;
 import net.dv8tion.jda.api.Permission;
@@ -91,6 +103,8 @@ import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
 public abstract class Command extends UserInteraction
 {
 
+	private static final Logger LOG = LoggerFactory.getLogger(Command.class);
+
 	/**
 	 * The name of the command, allows the command to be called the formats: <br>
 	 * Normal Command: {@code [prefix]<command name>}. <br>
@@ -128,7 +142,7 @@ public abstract class Command extends UserInteraction
 	/**
 	 * A String name of a role required to use this command.
 	 */
-	protected List<String> requiredRoles = new ArrayList<>();
+	protected List<String> requiredRoles = new RoleRequirement.TrackedList<>();
 
 	/**
 	 * {@code true} if the command may only be used by a User with an ID matching the Owners or any of the CoOwners.<br>
@@ -155,6 +169,11 @@ public abstract class Command extends UserInteraction
 	 */
 	protected Permission[] botPermissions = new Permission[0];
 
+	private volatile PermissionPlan		userPermissionPlan	= PermissionPlan.EMPTY;
+	private volatile PermissionPlan		botPermissionPlan	= PermissionPlan.EMPTY;
+	private volatile RoleRequirement	roleRequirement		= RoleRequirement.EMPTY;
+	private volatile ArgumentBinder		argumentBinder		= ArgumentBinder.EMPTY;
+
 	/**
 	 * The aliases of the command, when calling a command these function identically to calling the
 	 * {@link io.github.readonly.command.Command#name Command.name}. This options only works for normal commands, not slash
@@ -242,26 +261,41 @@ public abstract class Command extends UserInteraction
 	 *            The CommandEvent that triggered this Command
 	 */
 	public final void run(CommandEvent event)
+	{
+		final CommandLatencies	latencies	= event.getClient().getCommandLatencies();
+		final long				start		= System.nanoTime();
+		try
+		{
+			run(event, latencies, start);
+		} finally
+		{
+			latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.TOTAL, start);
+		}
+	}
+
+	private void run(CommandEvent event, CommandLatencies latencies, long start)
 	{
 		// child check
-		if (!event.getArgumentIndex().isEmpty())
+		ArgumentIndex index = event.getArgumentIndex();
+		if (((helpBiConsumer != null) || (children.length > 0)) && !index.isEmpty())
 		{
-			String[] parts = Arrays.copyOf(event.getArgumentIndex().getChildArgArray(), 2);
-			if ((helpBiConsumer != null) && parts[0].equalsIgnoreCase(event.getClient().getHelpWord()))
+			String head = index.getHead().toString();
+			if ((helpBiConsumer != null) && head.equalsIgnoreCase(event.getClient().getHelpWord()))
 			{
 				helpBiConsumer.accept(event, this);
 				return;
 			}
 			for (Command cmd : getChildren())
 			{
-				if (cmd.isCommandFor(parts[0]))
+				if (cmd.isCommandFor(head))
 				{
-					event.setArgumentIndex(new ArgumentIndex(parts[1] == null ? "" : parts[1]));
+					event.setArgumentIndex(index.getTail());
 					cmd.run(event);
 					return;
 				}
 			}
 		}
+		long time = latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.CHILD_CHECK, start);
 		// owner check
 		if (ownerCommand && !(event.isOwner()))
 		{
@@ -275,7 +309,7 @@ public abstract class Command extends UserInteraction
 			return;
 		}
 		// is allowed check
-		if (event.isFromType(ChannelType.TEXT) && !isAllowed(event.getTextChannel()))
+		if (event.isFromType(ChannelType.TEXT) && !isAllowed(event.getTextChannel(), topicTagsOf(event.getClient())))
 		{
 			terminate(event, "That command cannot be used in this channel!");
 			return;
@@ -283,71 +317,59 @@ public abstract class Command extends UserInteraction
 		// required role check
 		if (!requiredRoles.isEmpty())
 		{
-			requiredRoles.forEach(role ->
+			RoleRequirement	roles	= getRoleRequirement();
+			int				missing	= roles.firstMissingName(event.isFromType(ChannelType.TEXT) ? event.getMember() : null);
+			if (missing >= 0)
 			{
-				if (!event.isFromType(ChannelType.TEXT) || event.getMember().getRoles().stream().noneMatch(r -> r.getName().equalsIgnoreCase(role)))
-				{
-					terminate(event, event.getClient().getError() + " You must have a role called `" + role + "` to use that!");
-					return;
-				}
-			});
+				terminate(event, event.getClient().getError() + " You must have a role called `" + roles.getName(missing) + "` to use that!");
+				return;
+			}
 		}
 
+		time = latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.CHECKS, time);
+
 		// availability check
 		if (event.getChannelType() == ChannelType.TEXT)
 		{
 			// user perms
-			for (Permission p : userPermissions)
+			PermissionPlan	plan	= getUserPermissionPlan();
+			int				missing	= plan.firstMissing(event.getMember(), event.getTextChannel(), null);
+			if (missing >= 0)
 			{
-				if (p.isChannel())
-				{
-					if (!event.getMember().hasPermission(event.getTextChannel(), p))
-					{
-						terminate(event, String.format(userMissingPermMessage, event.getClient().getError(), p.getName(), "channel"));
-						return;
-					}
-				} else
-				{
-					if (!event.getMember().hasPermission(p))
-					{
-						terminate(event, String.format(userMissingPermMessage, event.getClient().getError(), p.getName(), "server"));
-						return;
-					}
-				}
+				Permission p = plan.getPermission(missing);
+				terminate(event, String.format(userMissingPermMessage, event.getClient().getError(), p.getName(), plan.getScope(missing) == PermissionPlan.Scope.GUILD ? "server" : "channel"));
+				return;
 			}
 			// bot perms
-			for (Permission p : botPermissions)
+			plan = getBotPermissionPlan();
+			AudioChannel vc = null;
+			if (plan.needsVoiceChannel())
+			{
+				GuildVoiceState gvc = event.getMember().getVoiceState();
+				vc = gvc == null ? null : gvc.getChannel();
+			}
+			missing = plan.firstMissing(event.getSelfMember(), event.getTextChannel(), vc);
+			if (missing >= 0)
 			{
-				if (p.isChannel())
+				Permission p = plan.getPermission(missing);
+				switch (plan.getScope(missing))
 				{
-					if (p.name().startsWith("VOICE"))
+				case VOICE:
+					if (vc == null)
 					{
-						GuildVoiceState	gvc	= event.getMember().getVoiceState();
-						AudioChannel	vc	= gvc == null ? null : gvc.getChannel();
-						if (vc == null)
-						{
-							terminate(event, event.getClient().getError() + " You must be in a voice channel to use that!");
-							return;
-						} else if (!event.getSelfMember().hasPermission(vc, p))
-						{
-							terminate(event, String.format(botMissingPermMessage, event.getClient().getError(), p.getName(), "voice channel"));
-							return;
-						}
+						terminate(event, event.getClient().getError() + " You must be in a voice channel to use that!");
 					} else
 					{
-						if (!event.getSelfMember().hasPermission(event.getTextChannel(), p))
-						{
-							terminate(event, String.format(botMissingPermMessage, event.getClient().getError(), p.getName(), "channel"));
-							return;
-						}
-					}
-				} else
-				{
-					if (!event.getSelfMember().hasPermission(p))
-					{
-						terminate(event, String.format(botMissingPermMessage, event.getClient().getError(), p.getName(), "server"));
-						return;
+						terminate(event, String.format(botMissingPermMessage, event.getClient().getError(), p.getName(), "voice channel"));
 					}
+					return;
+				case CHANNEL:
+					terminate(event, String.format(botMissingPermMessage, event.getClient().getError(), p.getName(), "channel"));
+					return;
+				case GUILD:
+				default:
+					terminate(event, String.format(botMissingPermMessage, event.getClient().getError(), p.getName(), "server"));
+					return;
 				}
 			}
 			// nsfw check
@@ -361,26 +383,110 @@ public abstract class Command extends UserInteraction
 			terminate(event, event.getClient().getError() + " This command cannot be used in direct messages");
 			return;
 		}
+		time = latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.PERMISSIONS, time);
+		// argument binding
+		ArgumentBinder binder = getArgumentBinder();
+		if (!binder.isEmpty())
+		{
+			// Binding may retrieve users or members, so a command on
+			// cooldown is turned away before anything is requested. The
+			// cooldown itself is still only applied once the arguments bind
+			if ((cooldown > 0) && !(event.isOwner()))
+			{
+				long	guildId		= event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+				int		remaining	= event.getClient().getCooldownEngine().getRemaining(name, cooldownScope, event.getAuthor().getIdLong(), event.getChannel().getIdLong(), guildId, CooldownEngine.shardOf(event.getJDA()));
+				if (remaining > 0)
+				{
+					terminate(event, getCooldownError(event, remaining));
+					return;
+				}
+			}
+			CompletableFuture<ParsedArguments> bound = binder.bind(event);
+			if (!bound.isDone())
+			{
+				// Users or members are being retrieved, so the command is
+				// finished through the dispatcher or async executor rather
+				// than on the thread that receives them
+				final long binding = time;
+				bound.whenCompleteAsync((arguments, t) ->
+				{
+					try
+					{
+						long lap = latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.ARGUMENTS, binding);
+						if (t != null)
+						{
+							terminate(event, argumentError(event, t));
+							return;
+						}
+						event.setParsedArguments(arguments);
+						invoke(event, latencies, lap);
+					} catch (Throwable e)
+					{
+						LOG.error("Command {} threw an exception after its arguments were retrieved", name, e);
+					}
+				}, resumeExecutor(event));
+				return;
+			}
+			try
+			{
+				event.setParsedArguments(bound.join());
+			} catch (CompletionException e)
+			{
+				terminate(event, argumentError(event, e));
+				return;
+			}
+		}
+		time = latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.ARGUMENTS, time);
+		invoke(event, latencies, time);
+	}
+
+	/**
+	 * Gets the Executor a command whose arguments were retrieved asynchronously is finished on: the
+	 * {@link CommandDispatcher CommandDispatcher} under the same ordering key if the Client has one, otherwise the async
+	 * executor of the Client.
+	 */
+	private static Executor resumeExecutor(CommandEvent event)
+	{
+		CommandDispatcher dispatcher = event.getClient().getCommandDispatcher();
+		if (dispatcher == null)
+		{
+			return event.getClient().getAsyncExecutor();
+		}
+		final long	channelId	= event.getChannel().getIdLong();
+		final long	userId		= event.getAuthor().getIdLong();
+		return task ->
+		{
+			try
+			{
+				dispatcher.dispatch(channelId, userId, task);
+			} catch (RejectedExecutionException e)
+			{
+				LOG.warn("A command was dropped after its arguments were retrieved", e);
+			}
+		};
+	}
+
+	private void invoke(CommandEvent event, CommandLatencies latencies, long time)
+	{
 		// cooldown check, ignoring owner
 		if ((cooldown > 0) && !(event.isOwner()))
 		{
-			String	key			= getCooldownKey(event);
-			int		remaining	= event.getClient().getRemainingCooldown(key);
+			long	guildId		= event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+			int		remaining	= event.getClient().getCooldownEngine().tryAcquire(name, cooldownScope, event.getAuthor().getIdLong(), event.getChannel().getIdLong(), guildId, CooldownEngine.shardOf(event.getJDA()), cooldown);
 			if (remaining > 0)
 			{
 				terminate(event, getCooldownError(event, remaining));
 				return;
-			} else
-			{
-				event.getClient().applyCooldown(key, cooldown);
 			}
 		}
+		time = latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.COOLDOWN, time);
 		// run
 		try
 		{
 			execute(event);
 		} catch (Throwable t)
 		{
+			event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.TEXT, this, name, CommandMetrics.Counter.EXCEPTION);
 			if (event.getClient().getListener() != null)
 			{
 				event.getClient().getListener().onCommandException(event, this, t);
@@ -388,7 +494,11 @@ public abstract class Command extends UserInteraction
 			}
 			// otherwise we rethrow
 			throw t;
+		} finally
+		{
+			latencies.lap(CommandMetrics.Kind.TEXT, this, name, CommandLatencies.Phase.EXECUTE, time);
 		}
+		event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.TEXT, this, name, CommandMetrics.Counter.COMPLETED);
 		if (event.getClient().getListener() != null)
 		{
 			event.getClient().getListener().onCompletedCommand(event, this);
@@ -438,6 +548,22 @@ public abstract class Command extends UserInteraction
 	 *         cancelled, or if {@code usesTopicTags} has been set to {@code false}.
 	 */
 	public boolean isAllowed(TextChannel channel)
+	{
+		return isAllowed(channel, null);
+	}
+
+	/**
+	 * Checks whether a command is allowed in a TextChannel, as {@link #isAllowed(TextChannel)} does, reusing the tags
+	 * cached by a {@link io.github.readonly.command.Client Client}.
+	 *
+	 * @param channel
+	 *            The TextChannel to test.
+	 * @param topicTags
+	 *            The Client's cache of parsed topic tags, or {@code null} to parse the topic
+	 *
+	 * @return {@code true} if the command is allowed
+	 */
+	boolean isAllowed(TextChannel channel, TopicTags.Cache topicTags)
 	{
 		if (!usesTopicTags)
 		{
@@ -447,34 +573,17 @@ public abstract class Command extends UserInteraction
 		{
 			return true;
 		}
-		String topic = channel.getTopic();
-		if ((topic == null) || topic.isEmpty())
-		{
-			return true;
-		}
-		topic = topic.toLowerCase(Locale.ROOT);
-		String lowerName = name.toLowerCase(Locale.ROOT);
-		if (topic.contains("{" + lowerName + "}"))
-		{
-			return true;
-		}
-		if (topic.contains("{-" + lowerName + "}"))
-		{
-			return false;
-		}
-		String lowerCat = category == null ? null : category.getName().toLowerCase(Locale.ROOT);
-		if (lowerCat != null)
-		{
-			if (topic.contains("{" + lowerCat + "}"))
-			{
-				return true;
-			}
-			if (topic.contains("{-" + lowerCat + "}"))
-			{
-				return false;
-			}
-		}
-		return !topic.contains("{-all}");
+		TopicTags tags = topicTags == null ? TopicTags.of(channel) : topicTags.get(channel);
+		return tags.isAllowed(name.toLowerCase(Locale.ROOT), category == null ? null : category.getName().toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Gets the cache of parsed topic tags of a Client, or {@code null} if it is not a
+	 * {@link io.github.readonly.command.Client Client}.
+	 */
+	static TopicTags.Cache topicTagsOf(ClientInterface client)
+	{
+		return client instanceof Client ? ((Client) client).getTopicTags() : null;
 	}
 
 	/**
@@ -538,6 +647,59 @@ public abstract class Command extends UserInteraction
 		return requiredRoles;
 	}
 
+	/**
+	 * Gets the compiled {@link io.github.readonly.command.Command#requiredRoles Command.requiredRoles}, compiling them
+	 * again if the list was replaced or changed.
+	 *
+	 * @return The RoleRequirement of the requiredRoles
+	 */
+	RoleRequirement getRoleRequirement()
+	{
+		RoleRequirement roles = roleRequirement;
+		if (!roles.isFor(requiredRoles))
+		{
+			roles = RoleRequirement.ofNames(requiredRoles);
+			roleRequirement = roles;
+		}
+		return roles;
+	}
+
+	/**
+	 * Gets the compiled {@link io.github.readonly.command.arg.TypedArgument TypedArgument}s among the
+	 * {@link io.github.readonly.command.Command#arguments Command.arguments}, compiling them again if the list was
+	 * replaced or changed.
+	 *
+	 * @return The ArgumentBinder of the arguments
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the typed arguments are declared out of order
+	 */
+	public ArgumentBinder getArgumentBinder()
+	{
+		ArgumentBinder binder = argumentBinder;
+		if (!binder.isFor(arguments))
+		{
+			binder = ArgumentBinder.compile(arguments);
+			argumentBinder = binder;
+		}
+		return binder;
+	}
+
+	/**
+	 * Drops the required role names resolved for a Guild by this command and its children.
+	 *
+	 * @param guildId
+	 *            The ID of the Guild
+	 */
+	void invalidateRoleRequirement(long guildId)
+	{
+		roleRequirement.invalidate(guildId);
+		for (Command child : getChildren())
+		{
+			child.invalidateRoleRequirement(guildId);
+		}
+	}
+
 	/**
 	 * Gets the {@link io.github.readonly.command.Command#cooldown Command.cooldown} for the Command.
 	 *
@@ -571,6 +733,53 @@ public abstract class Command extends UserInteraction
 		return botPermissions;
 	}
 
+	/**
+	 * Gets the compiled {@link io.github.readonly.command.Command#userPermissions Command.userPermissions}, compiling
+	 * them again if the array was replaced.
+	 *
+	 * @return The PermissionPlan of the userPermissions
+	 */
+	PermissionPlan getUserPermissionPlan()
+	{
+		PermissionPlan plan = userPermissionPlan;
+		if (!plan.isFor(userPermissions))
+		{
+			plan = PermissionPlan.compile(userPermissions, p -> false, p -> false);
+			userPermissionPlan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Gets the compiled {@link io.github.readonly.command.Command#botPermissions Command.botPermissions}, compiling
+	 * them again if the array was replaced.
+	 *
+	 * @return The PermissionPlan of the botPermissions
+	 */
+	PermissionPlan getBotPermissionPlan()
+	{
+		PermissionPlan plan = botPermissionPlan;
+		if (!plan.isFor(botPermissions))
+		{
+			plan = compileBotPermissionPlan(botPermissions);
+			botPermissionPlan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Compiles the permissions the bot must have to run this command.
+	 *
+	 * @param permissions
+	 *            The permissions to compile
+	 *
+	 * @return The compiled PermissionPlan
+	 */
+	PermissionPlan compileBotPermissionPlan(Permission[] permissions)
+	{
+		return PermissionPlan.compile(permissions, p -> p.name().startsWith("VOICE"), p -> false);
+	}
+
 	/**
 	 * Gets the {@link io.github.readonly.command.Command#aliases Command.aliases} for the Command.
 	 *
@@ -622,12 +831,24 @@ public abstract class Command extends UserInteraction
 		return b.toString();
 	}
 
+	private static String argumentError(CommandEvent event, Throwable t)
+	{
+		Throwable cause = (t instanceof CompletionException) && (t.getCause() != null) ? t.getCause() : t;
+		if (cause instanceof ArgumentException)
+		{
+			return event.getClient().getError() + " " + cause.getMessage();
+		}
+		LOG.error("Failed to bind arguments", cause);
+		return event.getClient().getError() + " Something went wrong while reading the arguments!";
+	}
+
 	private void terminate(CommandEvent event, String message)
 	{
 		if (message != null)
 		{
 			event.reply(message);
 		}
+		event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.TEXT, this, name, CommandMetrics.Counter.TERMINATED);
 		if (event.getClient().getListener() != null)
 		{
 			event.getClient().getListener().onTerminatedCommand(event, this);
@@ -658,9 +879,9 @@ public abstract class Command extends UserInteraction
 		case CHANNEL:
 			return cooldownScope.genKey(name, event.getChannel().getIdLong());
 		case SHARD:
-			return event.getJDA().getShardInfo() != null ? cooldownScope.genKey(name, event.getJDA().getShardInfo().getShardId()) : CooldownScope.GLOBAL.genKey(name, 0);
+			return CooldownEngine.shardOf(event.getJDA()) >= 0 ? cooldownScope.genKey(name, CooldownEngine.shardOf(event.getJDA())) : CooldownScope.GLOBAL.genKey(name, 0);
 		case USER_SHARD:
-			return event.getJDA().getShardInfo() != null ? cooldownScope.genKey(name, event.getAuthor().getIdLong(), event.getJDA().getShardInfo().getShardId()) : CooldownScope.USER.genKey(name, event.getAuthor().getIdLong());
+			return CooldownEngine.shardOf(event.getJDA()) >= 0 ? cooldownScope.genKey(name, event.getAuthor().getIdLong(), CooldownEngine.shardOf(event.getJDA())) : CooldownScope.USER.genKey(name, event.getAuthor().getIdLong());
 		case GLOBAL:
 			return cooldownScope.genKey(name, 0);
 		default:
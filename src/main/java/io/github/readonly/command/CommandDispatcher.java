@@ -0,0 +1,334 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * Moves the execution of commands off of the JDA event thread and onto a bounded pool of worker threads.
+ * <p>
+ * Commands sharing an {@link Ordering ordering key} (by default the channel they were called in) are always run one
+ * after another, in the order they were received, while commands with different keys run in parallel. Every
+ * {@link io.github.readonly.command.CommandListener CommandListener} callback for a command is fired on the worker
+ * running that command, so callbacks for commands sharing a key are never interleaved.
+ * <p>
+ * At most {@code queueDepth} commands may be queued or running at once. Commands received past that limit are handled
+ * according to the {@link RejectionPolicy RejectionPolicy}.
+ * <p>
+ * A dispatcher is provided to a Client using
+ * {@link io.github.readonly.command.ClientBuilder#setCommandDispatcher(CommandDispatcher)
+ * ClientBuilder#setCommandDispatcher(CommandDispatcher)}. Without one, commands run directly on the JDA event thread.
+ */
+public class CommandDispatcher
+{
+
+	private static final Logger LOG = LoggerFactory.getLogger(CommandDispatcher.class);
+
+	private final ExecutorService								executor;
+	private final int											queueDepth;
+	private final Ordering										ordering;
+	private final RejectionPolicy								rejectionPolicy;
+	private final AtomicInteger									pending;
+	private final ConcurrentHashMap<Long, CompletableFuture<?>>	tails;
+
+	/**
+	 * Creates a CommandDispatcher running commands on a fixed pool of daemon threads.
+	 *
+	 * @param threads
+	 *            The number of worker threads
+	 * @param queueDepth
+	 *            The maximum number of commands that may be queued or running at once
+	 * @param ordering
+	 *            What commands must share to be run in order
+	 * @param rejectionPolicy
+	 *            What to do with a command received while the queue is full
+	 */
+	public CommandDispatcher(int threads, int queueDepth, Ordering ordering, RejectionPolicy rejectionPolicy)
+	{
+		this(newWorkerPool(threads), queueDepth, ordering, rejectionPolicy);
+	}
+
+	/**
+	 * Creates a CommandDispatcher running commands on the provided {@link java.util.concurrent.ExecutorService
+	 * ExecutorService}.
+	 *
+	 * @param executor
+	 *            The ExecutorService to run commands on, shut down alongside the Client
+	 * @param queueDepth
+	 *            The maximum number of commands that may be queued or running at once
+	 * @param ordering
+	 *            What commands must share to be run in order
+	 * @param rejectionPolicy
+	 *            What to do with a command received while the queue is full
+	 */
+	public CommandDispatcher(ExecutorService executor, int queueDepth, Ordering ordering, RejectionPolicy rejectionPolicy)
+	{
+		Checks.notNull(executor, "Executor");
+		Checks.positive(queueDepth, "Queue depth");
+		Checks.notNull(ordering, "Ordering");
+		Checks.notNull(rejectionPolicy, "Rejection policy");
+		this.executor = executor;
+		this.queueDepth = queueDepth;
+		this.ordering = ordering;
+		this.rejectionPolicy = rejectionPolicy;
+		this.pending = new AtomicInteger();
+		this.tails = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Gets the number of commands currently queued or running.
+	 *
+	 * @return The number of pending commands
+	 */
+	public int getPendingCount()
+	{
+		return pending.get();
+	}
+
+	/**
+	 * Gets the maximum number of commands that may be queued or running at once.
+	 *
+	 * @return The queue depth
+	 */
+	public int getQueueDepth()
+	{
+		return queueDepth;
+	}
+
+	/**
+	 * Gets what commands must share to be run in order.
+	 *
+	 * @return The ordering
+	 */
+	public Ordering getOrdering()
+	{
+		return ordering;
+	}
+
+	/**
+	 * Gets what is done with commands received while the queue is full.
+	 *
+	 * @return The rejection policy
+	 */
+	public RejectionPolicy getRejectionPolicy()
+	{
+		return rejectionPolicy;
+	}
+
+	/**
+	 * Queues a command to be run after every command previously queued under the same ordering key.
+	 *
+	 * @param channelId
+	 *            The ID of the channel the command was called in
+	 * @param userId
+	 *            The ID of the user that called the command
+	 * @param task
+	 *            The command invocation, including its listener callbacks
+	 *
+	 * @throws java.util.concurrent.RejectedExecutionException
+	 *             If the queue is full and the rejection policy is {@link RejectionPolicy#ABORT ABORT}
+	 */
+	void dispatch(long channelId, long userId, Runnable task)
+	{
+		if (pending.incrementAndGet() > queueDepth)
+		{
+			pending.decrementAndGet();
+			reject(task);
+			return;
+		}
+		Runnable wrapped = () ->
+		{
+			try
+			{
+				task.run();
+			} catch (Throwable t)
+			{
+				LOG.error("A command threw an exception while being dispatched", t);
+			} finally
+			{
+				pending.decrementAndGet();
+			}
+		};
+		try
+		{
+			if (ordering == Ordering.NONE)
+			{
+				executor.execute(wrapped);
+				return;
+			}
+			final long key = ordering == Ordering.USER ? userId : channelId;
+			// Chain onto the last command queued for this key, running
+			// regardless of how the previous command completed
+			CompletableFuture<?> tail = tails.compute(key, (k, previous) -> previous == null ? CompletableFuture.runAsync(wrapped, executor) : chain(previous, wrapped, task));
+			tail.whenComplete((r, t) -> tails.remove(key, tail));
+		} catch (RejectedExecutionException e)
+		{
+			// The executor has been shut down
+			pending.decrementAndGet();
+			reject(task);
+		}
+	}
+
+	/**
+	 * Shuts down the worker threads. Commands already queued are still run.
+	 */
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	/**
+	 * Submits a command once the previous command under the same key completes. The command is submitted from the
+	 * completion of the previous one rather than through {@code handleAsync}, since the executor may have been shut
+	 * down by then, and a rejection there would otherwise be swallowed by the future, leaving the command neither run
+	 * nor rejected.
+	 *
+	 * @param previous
+	 *            The future of the previous command
+	 * @param wrapped
+	 *            The command, wrapped to count itself off as pending once run
+	 * @param task
+	 *            The unwrapped command, handled by the rejection policy if it can't be submitted
+	 *
+	 * @return A future completed once the command has run or been rejected
+	 */
+	private CompletableFuture<Void> chain(CompletableFuture<?> previous, Runnable wrapped, Runnable task)
+	{
+		CompletableFuture<Void> next = new CompletableFuture<>();
+		previous.whenComplete((r, t) ->
+		{
+			try
+			{
+				executor.execute(() ->
+				{
+					try
+					{
+						wrapped.run();
+					} finally
+					{
+						next.complete(null);
+					}
+				});
+			} catch (RejectedExecutionException e)
+			{
+				// The executor has been shut down
+				pending.decrementAndGet();
+				try
+				{
+					reject(task);
+				} catch (RejectedExecutionException aborted)
+				{
+					LOG.warn("A queued command was rejected after the dispatcher was shut down", aborted);
+				} finally
+				{
+					next.complete(null);
+				}
+			}
+		});
+		return next;
+	}
+
+	private void reject(Runnable task)
+	{
+		switch (rejectionPolicy)
+		{
+		case CALLER_RUNS:
+			task.run();
+			break;
+		case DISCARD:
+			LOG.warn("Command queue is full ({} pending), a command was discarded", queueDepth);
+			break;
+		case ABORT:
+		default:
+			throw new RejectedExecutionException("Command queue is full (" + queueDepth + " pending)");
+		}
+	}
+
+	private static ExecutorService newWorkerPool(int threads)
+	{
+		Checks.positive(threads, "Threads");
+		AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, r ->
+		{
+			Thread thread = new Thread(r, "CommandDispatcher-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * What commands must share to be run in the order they were received.
+	 */
+	public enum Ordering
+	{
+		/**
+		 * Commands called in the same channel run in order.
+		 */
+		CHANNEL,
+
+		/**
+		 * Commands called by the same user run in order.
+		 */
+		USER,
+
+		/**
+		 * Commands are not ordered, and all run in parallel.
+		 */
+		NONE
+	}
+
+	/**
+	 * What is done with a command received while the queue is full.
+	 */
+	public enum RejectionPolicy
+	{
+		/**
+		 * The command runs on the JDA event thread that received it, ahead of any commands already queued under the same
+		 * ordering key.
+		 */
+		CALLER_RUNS,
+
+		/**
+		 * The command is dropped and a warning is logged.
+		 */
+		DISCARD,
+
+		/**
+		 * A {@link java.util.concurrent.RejectedExecutionException RejectedExecutionException} is thrown on the JDA
+		 * event thread.
+		 */
+		ABORT
+	}
+}
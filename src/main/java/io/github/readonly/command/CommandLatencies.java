@@ -0,0 +1,395 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.readonly.command.operation.UserInteraction;
+import io.github.readonly.common.util.LatencyHistogram;
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * Latency histograms for every {@link io.github.readonly.command.Command Command} and
+ * {@link io.github.readonly.command.SlashCommand SlashCommand} run by a {@link io.github.readonly.command.Client
+ * Client}, split by {@link Phase Phase}.
+ * <p>
+ * Every phase of a command has its own {@link io.github.readonly.common.util.LatencyHistogram LatencyHistogram}, so
+ * it is possible to tell whether a slow command spends its time in its checks or in its body. Recording never blocks
+ * and never allocates once a command has been seen.
+ * <p>
+ * Latencies are read by taking a {@link #snapshot() snapshot}, or periodically through a
+ * {@link io.github.readonly.command.LatencyListener LatencyListener} registered with
+ * {@link #setReportListener(LatencyListener, long, TimeUnit)}.
+ */
+public final class CommandLatencies
+{
+
+	private static final Logger LOG = LoggerFactory.getLogger(CommandLatencies.class);
+
+	private final ScheduledExecutorService							scheduler;
+	private final ConcurrentHashMap<UserInteraction, Histograms>	histograms;
+	private ScheduledFuture<?>										reportTask;
+
+	/**
+	 * Creates a new, empty CommandLatencies.
+	 *
+	 * @param scheduler
+	 *            The ScheduledExecutorService reports are delivered on
+	 */
+	public CommandLatencies(ScheduledExecutorService scheduler)
+	{
+		Checks.notNull(scheduler, "Scheduler");
+		this.scheduler = scheduler;
+		this.histograms = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Records the latency of a phase of the provided command.
+	 *
+	 * @param kind
+	 *            The kind of the command
+	 * @param command
+	 *            The command
+	 * @param name
+	 *            The name the command is reported under
+	 * @param phase
+	 *            The phase that was timed
+	 * @param nanos
+	 *            The latency, in nanoseconds
+	 */
+	public void record(CommandMetrics.Kind kind, UserInteraction command, String name, Phase phase, long nanos)
+	{
+		Histograms entry = histograms.get(command);
+		if (entry == null)
+		{
+			entry = histograms.computeIfAbsent(command, c -> new Histograms(kind, name));
+		}
+		entry.phases[phase.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Records the time elapsed since {@code since} as the latency of a phase of the provided command.
+	 *
+	 * @param kind
+	 *            The kind of the command
+	 * @param command
+	 *            The command
+	 * @param name
+	 *            The name the command is reported under
+	 * @param phase
+	 *            The phase that was timed
+	 * @param since
+	 *            The {@link System#nanoTime()} at which the phase started
+	 *
+	 * @return The {@link System#nanoTime()} at which the phase ended, to be used as the start of the next phase
+	 */
+	public long lap(CommandMetrics.Kind kind, UserInteraction command, String name, Phase phase, long since)
+	{
+		long now = System.nanoTime();
+		record(kind, command, name, phase, now - since);
+		return now;
+	}
+
+	/**
+	 * Takes a snapshot of every histogram.
+	 *
+	 * @return A new Report holding all latencies recorded so far
+	 */
+	public Report snapshot()
+	{
+		List<Entry> entries = new ArrayList<>(histograms.size());
+		histograms.forEach((command, entry) ->
+		{
+			LatencyHistogram.Snapshot[] phases = new LatencyHistogram.Snapshot[Phase.VALUES.length];
+			for (int i = 0; i < phases.length; i++)
+			{
+				phases[i] = entry.phases[i].snapshot();
+			}
+			entries.add(new Entry(command, entry.kind, entry.name, phases));
+		});
+		return new Report(System.nanoTime(), 0, Collections.unmodifiableList(entries));
+	}
+
+	/**
+	 * Sets a {@link io.github.readonly.command.LatencyListener LatencyListener} to be sent a
+	 * {@link Report#delta(Report) delta} of the latencies recorded every {@code period}. Only one listener may be set
+	 * at a time; setting another replaces it.
+	 *
+	 * @param listener
+	 *            The LatencyListener, or {@code null} to stop reporting
+	 * @param period
+	 *            The time between reports
+	 * @param unit
+	 *            The unit of the period
+	 */
+	public synchronized void setReportListener(LatencyListener listener, long period, TimeUnit unit)
+	{
+		if (reportTask != null)
+		{
+			reportTask.cancel(false);
+			reportTask = null;
+		}
+		if (listener == null)
+		{
+			return;
+		}
+		Checks.positive(period, "Period");
+		Checks.notNull(unit, "Unit");
+		Report[] last = {snapshot()};
+		reportTask = scheduler.scheduleAtFixedRate(() ->
+		{
+			Report current = snapshot();
+			Report delta = current.delta(last[0]);
+			last[0] = current;
+			try
+			{
+				listener.onLatencyReport(delta);
+			} catch (Throwable t)
+			{
+				LOG.error("A LatencyListener threw an exception", t);
+			}
+		}, period, period, unit);
+	}
+
+	/**
+	 * The phases of a command that are timed.
+	 */
+	public enum Phase
+	{
+		/**
+		 * Checking if a child command or the help word was called.
+		 */
+		CHILD_CHECK,
+
+		/**
+		 * The owner, category, channel and required role checks.
+		 */
+		CHECKS,
+
+		/**
+		 * The user and bot permission checks, including the NSFW and guild only checks.
+		 */
+		PERMISSIONS,
+
+		/**
+		 * Binding the typed arguments. If users or members had to be retrieved, this includes waiting for them, and the
+		 * phases after it are recorded once they arrive, outside of {@link #TOTAL}.
+		 */
+		ARGUMENTS,
+
+		/**
+		 * Checking and applying the cooldown.
+		 */
+		COOLDOWN,
+
+		/**
+		 * Executing the body of the command.
+		 */
+		EXECUTE,
+
+		/**
+		 * The whole run of the command, from the first check to the end of its body.
+		 */
+		TOTAL;
+
+		private static final Phase[] VALUES = values();
+	}
+
+	/**
+	 * The latencies of every recorded command, either since they were first recorded or over an interval.
+	 */
+	public static final class Report
+	{
+
+		private final long			nanoTime;
+		private final long			intervalNanos;
+		private final List<Entry>	entries;
+
+		private Report(long nanoTime, long intervalNanos, List<Entry> entries)
+		{
+			this.nanoTime = nanoTime;
+			this.intervalNanos = intervalNanos;
+			this.entries = entries;
+		}
+
+		/**
+		 * Gets the {@link System#nanoTime()} at which this report was taken.
+		 *
+		 * @return The time this report was taken
+		 */
+		public long getNanoTime()
+		{
+			return nanoTime;
+		}
+
+		/**
+		 * Gets the number of nanoseconds this report covers if it is a {@link #delta(Report) delta}, or {@code 0} if
+		 * it holds all latencies recorded so far.
+		 *
+		 * @return The interval covered by this report
+		 */
+		public long getIntervalNanos()
+		{
+			return intervalNanos;
+		}
+
+		/**
+		 * Gets the entry of every recorded command.
+		 *
+		 * @return A never-null, unmodifiable List of entries
+		 */
+		public List<Entry> getEntries()
+		{
+			return entries;
+		}
+
+		/**
+		 * Gets the latencies recorded between an earlier report and this one.
+		 *
+		 * @param previous
+		 *            The earlier report
+		 *
+		 * @return A new Report holding only the latencies recorded in between both reports
+		 */
+		public Report delta(Report previous)
+		{
+			Map<UserInteraction, Entry> before = new IdentityHashMap<>(previous.entries.size());
+			for (Entry entry : previous.entries)
+			{
+				before.put(entry.command, entry);
+			}
+			List<Entry> deltas = new ArrayList<>(entries.size());
+			for (Entry entry : entries)
+			{
+				Entry old = before.get(entry.command);
+				if (old == null)
+				{
+					deltas.add(entry);
+					continue;
+				}
+				LatencyHistogram.Snapshot[] phases = new LatencyHistogram.Snapshot[entry.phases.length];
+				for (int i = 0; i < phases.length; i++)
+				{
+					phases[i] = entry.phases[i].minus(old.phases[i]);
+				}
+				deltas.add(new Entry(entry.command, entry.kind, entry.name, phases));
+			}
+			return new Report(nanoTime, nanoTime - previous.nanoTime, Collections.unmodifiableList(deltas));
+		}
+	}
+
+	/**
+	 * The latencies of a single command within a {@link Report Report}.
+	 */
+	public static final class Entry
+	{
+
+		private final UserInteraction				command;
+		private final CommandMetrics.Kind			kind;
+		private final String						name;
+		private final LatencyHistogram.Snapshot[]	phases;
+
+		private Entry(UserInteraction command, CommandMetrics.Kind kind, String name, LatencyHistogram.Snapshot[] phases)
+		{
+			this.command = command;
+			this.kind = kind;
+			this.name = name;
+			this.phases = phases;
+		}
+
+		/**
+		 * Gets the command these latencies belong to.
+		 *
+		 * @return The command
+		 */
+		public UserInteraction getCommand()
+		{
+			return command;
+		}
+
+		/**
+		 * Gets the kind of the command.
+		 *
+		 * @return The kind
+		 */
+		public CommandMetrics.Kind getKind()
+		{
+			return kind;
+		}
+
+		/**
+		 * Gets the name the command is reported under.
+		 *
+		 * @return The name
+		 */
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * Gets the latencies of a phase.
+		 *
+		 * @param phase
+		 *            The phase
+		 *
+		 * @return The latencies of the phase
+		 */
+		public LatencyHistogram.Snapshot get(Phase phase)
+		{
+			return phases[phase.ordinal()];
+		}
+	}
+
+	private static final class Histograms
+	{
+
+		private final CommandMetrics.Kind	kind;
+		private final String				name;
+		private final LatencyHistogram[]	phases;
+
+		private Histograms(CommandMetrics.Kind kind, String name)
+		{
+			this.kind = kind;
+			this.name = name;
+			this.phases = new LatencyHistogram[Phase.VALUES.length];
+			for (int i = 0; i < phases.length; i++)
+			{
+				phases[i] = new LatencyHistogram();
+			}
+		}
+	}
+}
@@ -0,0 +1,376 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.readonly.command.operation.UserInteraction;
+
+/**
+ * Concurrent usage counters for every command, slash command and context menu run by a
+ * {@link io.github.readonly.command.Client Client}.
+ * <p>
+ * Each command is tracked by identity, with a separate {@link java.util.concurrent.atomic.LongAdder LongAdder} for
+ * every {@link Counter Counter}, so recording a call never blocks and never loses an update when several threads run
+ * commands at once. Outcomes of {@link io.github.readonly.command.Command#children child commands} are recorded under
+ * the child, while the invocation is recorded under the command the Client dispatched.
+ * <p>
+ * Counters are read by taking a {@link #snapshot() snapshot}. Snapshots are cheap and can be taken at any rate without
+ * affecting dispatch; {@link Snapshot#delta(Snapshot)} gives the number of calls between two snapshots, which makes
+ * scraping per-command rates a matter of keeping the last snapshot around.
+ */
+public final class CommandMetrics
+{
+
+	private final ConcurrentHashMap<UserInteraction, Counters> counters;
+
+	/**
+	 * Creates a new, empty CommandMetrics.
+	 */
+	public CommandMetrics()
+	{
+		this.counters = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Increments a counter of the provided command.
+	 *
+	 * @param kind
+	 *            The kind of the command
+	 * @param command
+	 *            The command
+	 * @param name
+	 *            The name the command is reported under
+	 * @param counter
+	 *            The counter to increment
+	 */
+	public void increment(Kind kind, UserInteraction command, String name, Counter counter)
+	{
+		Counters entry = counters.get(command);
+		if (entry == null)
+		{
+			entry = counters.computeIfAbsent(command, c -> new Counters(kind, name));
+		}
+		entry.adders[counter.ordinal()].increment();
+	}
+
+	/**
+	 * Gets the current value of a counter of the provided command.
+	 *
+	 * @param command
+	 *            The command
+	 * @param counter
+	 *            The counter to read
+	 *
+	 * @return The value of the counter, or {@code 0} if the command has never been recorded
+	 */
+	public long get(UserInteraction command, Counter counter)
+	{
+		Counters entry = counters.get(command);
+		return entry == null ? 0 : entry.adders[counter.ordinal()].sum();
+	}
+
+	/**
+	 * Gets the sum of a counter across every command reported under the provided name.
+	 *
+	 * @param name
+	 *            The name the commands are reported under
+	 * @param counter
+	 *            The counter to read
+	 *
+	 * @return The sum of the counter, or {@code 0} if no command with the name has been recorded
+	 */
+	public long get(String name, Counter counter)
+	{
+		long sum = 0;
+		for (Counters entry : counters.values())
+		{
+			if (entry.name.equals(name))
+			{
+				sum += entry.adders[counter.ordinal()].sum();
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Takes a snapshot of every counter.
+	 * <p>
+	 * Counters are read one at a time without locking, so a snapshot taken while commands are running may include a
+	 * call in one counter and not yet in another.
+	 *
+	 * @return A new Snapshot
+	 */
+	public Snapshot snapshot()
+	{
+		List<Entry> entries = new ArrayList<>(counters.size());
+		counters.forEach((command, entry) ->
+		{
+			long[] values = new long[Counter.VALUES.length];
+			for (int i = 0; i < values.length; i++)
+			{
+				values[i] = entry.adders[i].sum();
+			}
+			entries.add(new Entry(command, entry.kind, entry.name, values));
+		});
+		return new Snapshot(System.nanoTime(), 0, Collections.unmodifiableList(entries));
+	}
+
+	/**
+	 * Resets every counter to zero.
+	 */
+	public void reset()
+	{
+		counters.clear();
+	}
+
+	/**
+	 * The kinds of commands tracked.
+	 */
+	public enum Kind
+	{
+		/**
+		 * A text {@link io.github.readonly.command.Command Command}.
+		 */
+		TEXT,
+
+		/**
+		 * A {@link io.github.readonly.command.SlashCommand SlashCommand}.
+		 */
+		SLASH,
+
+		/**
+		 * A {@link io.github.readonly.command.ctx.UserContextMenu UserContextMenu}.
+		 */
+		USER_CONTEXT_MENU,
+
+		/**
+		 * A {@link io.github.readonly.command.ctx.MessageContextMenu MessageContextMenu}.
+		 */
+		MESSAGE_CONTEXT_MENU
+	}
+
+	/**
+	 * The counters kept for every command.
+	 */
+	public enum Counter
+	{
+		/**
+		 * The command was called.
+		 */
+		INVOKED,
+
+		/**
+		 * The command executed without throwing.
+		 */
+		COMPLETED,
+
+		/**
+		 * The command was terminated by one of its checks.
+		 */
+		TERMINATED,
+
+		/**
+		 * The command threw while executing.
+		 */
+		EXCEPTION;
+
+		private static final Counter[] VALUES = values();
+	}
+
+	/**
+	 * A point-in-time copy of the counters of every recorded command.
+	 */
+	public static final class Snapshot
+	{
+
+		private final long			nanoTime;
+		private final long			intervalNanos;
+		private final List<Entry>	entries;
+
+		private Snapshot(long nanoTime, long intervalNanos, List<Entry> entries)
+		{
+			this.nanoTime = nanoTime;
+			this.intervalNanos = intervalNanos;
+			this.entries = entries;
+		}
+
+		/**
+		 * Gets the {@link System#nanoTime()} at which this snapshot was taken.
+		 *
+		 * @return The time this snapshot was taken
+		 */
+		public long getNanoTime()
+		{
+			return nanoTime;
+		}
+
+		/**
+		 * Gets the number of nanoseconds this snapshot covers if it is a {@link #delta(Snapshot) delta}, or {@code 0}
+		 * if it holds totals.
+		 *
+		 * @return The interval covered by this snapshot
+		 */
+		public long getIntervalNanos()
+		{
+			return intervalNanos;
+		}
+
+		/**
+		 * Gets the entry of every recorded command.
+		 *
+		 * @return A never-null, unmodifiable List of entries
+		 */
+		public List<Entry> getEntries()
+		{
+			return entries;
+		}
+
+		/**
+		 * Gets the difference between this snapshot and an earlier one.
+		 * <p>
+		 * Commands missing from the earlier snapshot are counted from zero. If the counters were
+		 * {@link CommandMetrics#reset() reset} in between, negative differences are clamped to the values held by this
+		 * snapshot.
+		 *
+		 * @param previous
+		 *            The earlier snapshot
+		 *
+		 * @return A new Snapshot holding the number of calls made between both snapshots
+		 */
+		public Snapshot delta(Snapshot previous)
+		{
+			Map<UserInteraction, Entry> before = new IdentityHashMap<>(previous.entries.size());
+			for (Entry entry : previous.entries)
+			{
+				before.put(entry.command, entry);
+			}
+			List<Entry> deltas = new ArrayList<>(entries.size());
+			for (Entry entry : entries)
+			{
+				Entry	old		= before.get(entry.command);
+				long[]	values	= entry.values.clone();
+				if (old != null)
+				{
+					for (int i = 0; i < values.length; i++)
+					{
+						long diff = values[i] - old.values[i];
+						values[i] = diff < 0 ? values[i] : diff;
+					}
+				}
+				deltas.add(new Entry(entry.command, entry.kind, entry.name, values));
+			}
+			return new Snapshot(nanoTime, nanoTime - previous.nanoTime, Collections.unmodifiableList(deltas));
+		}
+	}
+
+	/**
+	 * The counters of a single command within a {@link Snapshot Snapshot}.
+	 */
+	public static final class Entry
+	{
+
+		private final UserInteraction	command;
+		private final Kind				kind;
+		private final String			name;
+		private final long[]			values;
+
+		private Entry(UserInteraction command, Kind kind, String name, long[] values)
+		{
+			this.command = command;
+			this.kind = kind;
+			this.name = name;
+			this.values = values;
+		}
+
+		/**
+		 * Gets the command these counters belong to.
+		 *
+		 * @return The command
+		 */
+		public UserInteraction getCommand()
+		{
+			return command;
+		}
+
+		/**
+		 * Gets the kind of the command.
+		 *
+		 * @return The kind
+		 */
+		public Kind getKind()
+		{
+			return kind;
+		}
+
+		/**
+		 * Gets the name the command is reported under.
+		 *
+		 * @return The name
+		 */
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * Gets the value of a counter.
+		 *
+		 * @param counter
+		 *            The counter to read
+		 *
+		 * @return The value of the counter
+		 */
+		public long get(Counter counter)
+		{
+			return values[counter.ordinal()];
+		}
+	}
+
+	private static final class Counters
+	{
+
+		private final Kind			kind;
+		private final String		name;
+		private final LongAdder[]	adders;
+
+		private Counters(Kind kind, String name)
+		{
+			this.kind = kind;
+			this.name = name;
+			this.adders = new LongAdder[Counter.VALUES.length];
+			for (int i = 0; i < adders.length; i++)
+			{
+				adders[i] = new LongAdder();
+			}
+		}
+	}
+}
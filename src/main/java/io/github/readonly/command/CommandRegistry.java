@@ -0,0 +1,188 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An ordered, copy-on-write registry of commands used by the {@link io.github.readonly.command.Client Client}.
+ * <p>
+ * Every name and alias of a registered command maps directly to the command itself. The registry is held as an
+ * immutable snapshot published through a volatile field, so lookups on the dispatch path are a single lock-free hash
+ * probe. Adding or removing a command builds and publishes a new snapshot; writers are serialized, but never block
+ * readers.
+ *
+ * @param <T>
+ *            The type of command held by this registry
+ */
+final class CommandRegistry<T>
+{
+
+	private final Function<T, List<String>>	keys;
+	private final String					collisionMessage;
+	private volatile Snapshot<T>			snapshot;
+
+	/**
+	 * Creates a new, empty CommandRegistry.
+	 *
+	 * @param keys
+	 *            A function providing the already normalized keys (name and aliases) a command is indexed under
+	 * @param collisionMessage
+	 *            The message, formatted with the colliding key, of the exception thrown when a key is already indexed
+	 */
+	CommandRegistry(Function<T, List<String>> keys, String collisionMessage)
+	{
+		this.keys = keys;
+		this.collisionMessage = collisionMessage;
+		this.snapshot = new Snapshot<>(Collections.emptyList(), Collections.emptyMap());
+	}
+
+	/**
+	 * Gets the command indexed under the provided key.
+	 *
+	 * @param key
+	 *            The normalized name or alias
+	 *
+	 * @return The command, or {@code null} if nothing is indexed under the key
+	 */
+	T get(String key)
+	{
+		return snapshot.index.get(key);
+	}
+
+	/**
+	 * Checks whether a command is indexed under the provided key.
+	 *
+	 * @param key
+	 *            The normalized name or alias
+	 *
+	 * @return {@code true} if a command is indexed under the key
+	 */
+	boolean contains(String key)
+	{
+		return snapshot.index.containsKey(key);
+	}
+
+	/**
+	 * Gets the registered commands, in order.
+	 *
+	 * @return A never-null, unmodifiable List of the currently registered commands
+	 */
+	List<T> list()
+	{
+		return snapshot.items;
+	}
+
+	/**
+	 * Gets the number of registered commands.
+	 *
+	 * @return The number of registered commands
+	 */
+	int size()
+	{
+		return snapshot.items.size();
+	}
+
+	/**
+	 * Adds a command at the specified position.
+	 *
+	 * @param item
+	 *            The command to add
+	 * @param index
+	 *            The position to add the command at (must follow the specifications {@code 0<=index<=size()})
+	 *
+	 * @throws java.lang.ArrayIndexOutOfBoundsException
+	 *             If {@code index < 0} or {@code index > size()}
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the command has a key that has already been indexed
+	 */
+	synchronized void add(T item, int index)
+	{
+		Snapshot<T> current = snapshot;
+		if ((index > current.items.size()) || (index < 0))
+		{
+			throw new ArrayIndexOutOfBoundsException("Index specified is invalid: [" + index + "/" + current.items.size() + "]");
+		}
+		List<String> itemKeys = keys.apply(item);
+		// check for collision
+		for (String key : itemKeys)
+		{
+			if (current.index.containsKey(key))
+			{
+				throw new IllegalArgumentException(String.format(collisionMessage, key));
+			}
+		}
+		List<T> newItems = new ArrayList<>(current.items);
+		newItems.add(index, item);
+		Map<String, T> newIndex = new HashMap<>(current.index);
+		for (String key : itemKeys)
+		{
+			newIndex.put(key, item);
+		}
+		snapshot = new Snapshot<>(Collections.unmodifiableList(newItems), Collections.unmodifiableMap(newIndex));
+	}
+
+	/**
+	 * Removes the command indexed under the provided key, along with every other key it is indexed under.
+	 *
+	 * @param key
+	 *            The normalized name or alias
+	 *
+	 * @return The removed command, or {@code null} if nothing was indexed under the key
+	 */
+	synchronized T remove(String key)
+	{
+		Snapshot<T>	current	= snapshot;
+		T			item	= current.index.get(key);
+		if (item == null)
+		{
+			return null;
+		}
+		List<T> newItems = new ArrayList<>(current.items);
+		newItems.remove(item);
+		Map<String, T> newIndex = new HashMap<>(current.index);
+		newIndex.values().removeIf(value -> value == item);
+		snapshot = new Snapshot<>(Collections.unmodifiableList(newItems), Collections.unmodifiableMap(newIndex));
+		return item;
+	}
+
+	private static final class Snapshot<T>
+	{
+
+		private final List<T>			items;
+		private final Map<String, T>	index;
+
+		private Snapshot(List<T> items, Map<String, T> index)
+		{
+			this.items = items;
+			this.index = index;
+		}
+	}
+}
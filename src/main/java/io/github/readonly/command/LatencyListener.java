@@ -0,0 +1,47 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+/**
+ * An implementable "Listener" that can be added to the {@link CommandLatencies} of a {@link Client} to be periodically
+ * sent the latencies of its commands.
+ *
+ * @see CommandLatencies#setReportListener(LatencyListener, long, java.util.concurrent.TimeUnit)
+ */
+@FunctionalInterface
+public interface LatencyListener
+{
+
+	/**
+	 * Called every reporting period with the latencies recorded since the previous report.
+	 * <p>
+	 * Percentiles for a phase of a command are read from the report, for example
+	 * {@code entry.get(CommandLatencies.Phase.EXECUTE).getValueAtPercentile(99)}.
+	 *
+	 * @param report
+	 *            The latencies recorded during the last period
+	 */
+	void onLatencyReport(CommandLatencies.Report report);
+}
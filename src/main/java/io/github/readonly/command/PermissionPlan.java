@@ -0,0 +1,245 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.utils.PermissionUtil;
+
+/**
+ * The permission requirements of a command, compiled once into raw bitmasks.
+ * <p>
+ * Every required {@link net.dv8tion.jda.api.Permission Permission} is sorted into a {@link Scope Scope} when the plan
+ * is compiled, so checking a Member takes one effective permission computation per scope instead of one
+ * {@link net.dv8tion.jda.api.entities.Member#hasPermission(Permission...) Member#hasPermission} call per permission.
+ * The permissions are still walked in their declared order when something is missing, so the first missing permission
+ * reported is the same one the per-permission checks would have found.
+ */
+final class PermissionPlan
+{
+
+	/**
+	 * A plan requiring no permissions.
+	 */
+	static final PermissionPlan EMPTY = new PermissionPlan(new Permission[0], new Permission[0], new Scope[0], 0, 0, 0);
+
+	private final Permission[]	source;
+	private final Permission[]	permissions;
+	private final Scope[]		scopes;
+	private final long			channelMask;
+	private final long			guildMask;
+	private final long			voiceMask;
+
+	private PermissionPlan(Permission[] source, Permission[] permissions, Scope[] scopes, long channelMask, long guildMask, long voiceMask)
+	{
+		this.source = source;
+		this.permissions = permissions;
+		this.scopes = scopes;
+		this.channelMask = channelMask;
+		this.guildMask = guildMask;
+		this.voiceMask = voiceMask;
+	}
+
+	/**
+	 * Compiles a PermissionPlan.
+	 *
+	 * @param source
+	 *            The required permissions, in the order they are checked
+	 * @param voice
+	 *            Which channel permissions are checked against the voice channel of the Member instead of the channel
+	 *            the command was called in
+	 * @param skip
+	 *            Which permissions are not checked at all
+	 *
+	 * @return The compiled PermissionPlan
+	 */
+	static PermissionPlan compile(Permission[] source, Predicate<Permission> voice, Predicate<Permission> skip)
+	{
+		if ((source == null) || (source.length == 0))
+		{
+			return EMPTY;
+		}
+		List<Permission>	permissions	= new ArrayList<>(source.length);
+		List<Scope>			scopes		= new ArrayList<>(source.length);
+		long				channelMask	= 0;
+		long				guildMask	= 0;
+		long				voiceMask	= 0;
+		for (Permission p : source)
+		{
+			if (skip.test(p))
+			{
+				continue;
+			}
+			Scope scope;
+			if (!p.isChannel())
+			{
+				scope = Scope.GUILD;
+				guildMask |= p.getRawValue();
+			} else if (voice.test(p))
+			{
+				scope = Scope.VOICE;
+				voiceMask |= p.getRawValue();
+			} else
+			{
+				scope = Scope.CHANNEL;
+				channelMask |= p.getRawValue();
+			}
+			permissions.add(p);
+			scopes.add(scope);
+		}
+		return new PermissionPlan(source, permissions.toArray(new Permission[0]), scopes.toArray(new Scope[0]), channelMask, guildMask, voiceMask);
+	}
+
+	/**
+	 * Checks if this plan was compiled from the provided permissions array.
+	 *
+	 * @param source
+	 *            The permissions array
+	 *
+	 * @return {@code true} if this plan was compiled from the same array
+	 */
+	boolean isFor(Permission[] source)
+	{
+		return (this.source == source) || ((permissions.length == 0) && ((source == null) || (source.length == 0)));
+	}
+
+	/**
+	 * Checks if this plan requires any permission in the voice channel of the Member.
+	 *
+	 * @return {@code true} if a voice channel is required
+	 */
+	boolean needsVoiceChannel()
+	{
+		return voiceMask != 0;
+	}
+
+	/**
+	 * Finds the first permission the provided Member is missing.
+	 *
+	 * @param member
+	 *            The Member to check
+	 * @param channel
+	 *            The channel the command was called in, checked for channel permissions
+	 * @param voiceChannel
+	 *            The voice channel of the Member that is checked for voice permissions, or {@code null} if the
+	 *            Member is not in one
+	 *
+	 * @return The index of the first missing permission, or {@code -1} if none are missing. If the Member is not in a
+	 *         voice channel, the first voice permission counts as missing.
+	 */
+	int firstMissing(Member member, GuildChannel channel, GuildChannel voiceChannel)
+	{
+		if (permissions.length == 0)
+		{
+			return -1;
+		}
+		long	channelPerms	= channelMask == 0 ? 0 : PermissionUtil.getEffectivePermission(channel.getPermissionContainer(), member);
+		long	guildPerms		= guildMask == 0 ? 0 : PermissionUtil.getEffectivePermission(member);
+		long	voicePerms		= (voiceMask == 0) || (voiceChannel == null) ? 0 : PermissionUtil.getEffectivePermission(voiceChannel.getPermissionContainer(), member);
+		if (((channelPerms & channelMask) == channelMask) && ((guildPerms & guildMask) == guildMask) && ((voicePerms & voiceMask) == voiceMask))
+		{
+			return -1;
+		}
+		for (int i = 0; i < permissions.length; i++)
+		{
+			long raw = permissions[i].getRawValue();
+			switch (scopes[i])
+			{
+			case CHANNEL:
+				if ((channelPerms & raw) != raw)
+				{
+					return i;
+				}
+				break;
+			case GUILD:
+				if ((guildPerms & raw) != raw)
+				{
+					return i;
+				}
+				break;
+			case VOICE:
+			default:
+				if ((voiceChannel == null) || ((voicePerms & raw) != raw))
+				{
+					return i;
+				}
+				break;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the permission at the provided index.
+	 *
+	 * @param index
+	 *            The index, as returned by {@link #firstMissing(Member, GuildChannel, GuildChannel)}
+	 *
+	 * @return The permission
+	 */
+	Permission getPermission(int index)
+	{
+		return permissions[index];
+	}
+
+	/**
+	 * Gets the scope of the permission at the provided index.
+	 *
+	 * @param index
+	 *            The index, as returned by {@link #firstMissing(Member, GuildChannel, GuildChannel)}
+	 *
+	 * @return The scope
+	 */
+	Scope getScope(int index)
+	{
+		return scopes[index];
+	}
+
+	/**
+	 * Where a permission is checked.
+	 */
+	enum Scope
+	{
+		/**
+		 * In the channel the command was called in.
+		 */
+		CHANNEL,
+
+		/**
+		 * Server wide.
+		 */
+		GUILD,
+
+		/**
+		 * In the voice channel the Member is connected to.
+		 */
+		VOICE
+	}
+}
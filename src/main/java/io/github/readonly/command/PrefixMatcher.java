@@ -0,0 +1,226 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A compiled, case-insensitive prefix trie used by the {@link io.github.readonly.command.Client Client} to detect
+ * which prefix (if any) a message starts with.
+ * <p>
+ * Prefixes are folded to lower case once when they are {@linkplain #add(String, int) added}, so matching walks the
+ * message a single time, one character per trie level, without copying or lowercasing the message itself. A message
+ * that does not start with any registered prefix is rejected at the first character that leaves the trie.
+ * <p>
+ * When more than one registered prefix matches the start of a message, the one that was added first wins. This keeps
+ * the same priority the Client has always used: the default prefix, then the alternate prefixes in their sorted order.
+ */
+final class PrefixMatcher
+{
+
+	/**
+	 * A matcher that never matches anything.
+	 */
+	static final PrefixMatcher EMPTY = new PrefixMatcher();
+
+	private final Node			root;
+	private final List<String>	source;
+	private int					count;
+
+	/**
+	 * Creates a new, empty PrefixMatcher.
+	 */
+	PrefixMatcher()
+	{
+		this(Collections.emptyList());
+	}
+
+	private PrefixMatcher(List<String> source)
+	{
+		this.root = new Node();
+		this.source = source;
+		this.count = 0;
+	}
+
+	/**
+	 * Compiles a PrefixMatcher from the provided prefixes, in priority order. {@code null} and empty prefixes are
+	 * ignored. A copy of the prefixes is kept, so {@link #isFor(Collection)} can tell if they changed since.
+	 *
+	 * @param prefixes
+	 *            The prefixes to compile
+	 *
+	 * @return The compiled PrefixMatcher
+	 */
+	static PrefixMatcher compile(Collection<String> prefixes)
+	{
+		PrefixMatcher matcher = new PrefixMatcher(new ArrayList<>(prefixes));
+		for (String prefix : matcher.source)
+		{
+			matcher.add(prefix, 0);
+		}
+		return matcher;
+	}
+
+	/**
+	 * Adds a prefix to this matcher with a lower priority than all prefixes already added.
+	 *
+	 * @param prefix
+	 *            The prefix to add, ignored if {@code null} or empty
+	 * @param trailing
+	 *            The number of characters following the prefix that are consumed alongside it when it matches
+	 *
+	 * @return This PrefixMatcher
+	 */
+	PrefixMatcher add(String prefix, int trailing)
+	{
+		if ((prefix == null) || prefix.isEmpty())
+		{
+			return this;
+		}
+		Node node = root;
+		for (int i = 0; i < prefix.length(); i++)
+		{
+			node = node.childOrCreate(fold(prefix.charAt(i)));
+		}
+		// First one added wins, so a duplicate keeps the earlier priority
+		if (node.priority < 0)
+		{
+			node.priority = count;
+			node.consumed = prefix.length() + trailing;
+		}
+		count++;
+		return this;
+	}
+
+	/**
+	 * Checks if this matcher was compiled from prefixes equal to the provided ones, in the same order. Unlike comparing
+	 * hashes, a change to the prefixes can never go unnoticed.
+	 *
+	 * @param prefixes
+	 *            The prefixes to compare with
+	 *
+	 * @return {@code true} if the prefixes are unchanged
+	 */
+	boolean isFor(Collection<String> prefixes)
+	{
+		if (prefixes.size() != source.size())
+		{
+			return false;
+		}
+		Iterator<String> compiled = source.iterator();
+		for (String prefix : prefixes)
+		{
+			if (!Objects.equals(prefix, compiled.next()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Matches the start of the provided content against the registered prefixes.
+	 *
+	 * @param content
+	 *            The content to match
+	 *
+	 * @return The number of characters of the content that the matching prefix consumes, or {@code -1} if no prefix
+	 *         matches. The returned value never exceeds the length of the content.
+	 */
+	int match(CharSequence content)
+	{
+		Node	node		= root;
+		int		best		= -1;
+		int		bestPrio	= Integer.MAX_VALUE;
+		int		length		= content.length();
+		for (int i = 0; (i < length) && (node.size > 0); i++)
+		{
+			node = node.child(fold(content.charAt(i)));
+			if (node == null)
+			{
+				break;
+			}
+			if ((node.priority >= 0) && (node.priority < bestPrio))
+			{
+				bestPrio = node.priority;
+				best = node.consumed;
+			}
+		}
+		return best < 0 ? -1 : Math.min(best, length);
+	}
+
+	private static char fold(char c)
+	{
+		return Character.toLowerCase(c);
+	}
+
+	private static final class Node
+	{
+
+		private char[]	keys		= new char[0];
+		private Node[]	children	= new Node[0];
+		private int		size		= 0;
+		private int		priority	= -1;
+		private int		consumed	= 0;
+
+		private Node child(char c)
+		{
+			final char[] keys = this.keys;
+			for (int i = 0; i < size; i++)
+			{
+				if (keys[i] == c)
+				{
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		private Node childOrCreate(char c)
+		{
+			Node node = child(c);
+			if (node == null)
+			{
+				if (size == keys.length)
+				{
+					int newLength = Math.max(2, size * 2);
+					keys = Arrays.copyOf(keys, newLength);
+					children = Arrays.copyOf(children, newLength);
+				}
+				node = new Node();
+				keys[size] = c;
+				children[size] = node;
+				size++;
+			}
+			return node;
+		}
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+
+/**
+ * The required roles of a command, compiled once into sorted arrays of role IDs.
+ * <p>
+ * Requirements given as IDs are compiled directly. Requirements given as names are resolved to IDs the first time the
+ * command is used in a {@link net.dv8tion.jda.api.entities.Guild Guild}, and the resolution is cached until the
+ * {@link io.github.readonly.command.Client Client} sees a role of that Guild being created, deleted or renamed.
+ * Checking a Member is then a binary search per role of the Member, without allocating.
+ * <p>
+ * Commands hold their required roles in a {@link TrackedList TrackedList}, so checking if a requirement is still up to
+ * date with the list is a comparison of modification counts rather than a hash of the list.
+ */
+final class RoleRequirement
+{
+
+	/**
+	 * A requirement that every Member meets.
+	 */
+	static final RoleRequirement EMPTY = new RoleRequirement(Collections.emptyList(), new long[0], new String[0]);
+
+	private final List<?>							source;
+	private final int								sourceVersion;
+	private final long[]							ids;
+	private final String[]							names;
+	private final ConcurrentHashMap<Long, long[][]>	resolved;
+
+	private RoleRequirement(List<?> source, long[] ids, String[] names)
+	{
+		this.source = source;
+		this.sourceVersion = version(source);
+		this.ids = ids;
+		this.names = names;
+		this.resolved = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Compiles a requirement that is met by having any of the provided roles.
+	 *
+	 * @param source
+	 *            The IDs of the roles
+	 *
+	 * @return The compiled RoleRequirement
+	 */
+	static RoleRequirement ofIds(List<Long> source)
+	{
+		if ((source == null) || source.isEmpty())
+		{
+			return EMPTY;
+		}
+		long[] ids = new long[source.size()];
+		int i = 0;
+		for (Long id : source)
+		{
+			ids[i++] = id;
+		}
+		Arrays.sort(ids);
+		return new RoleRequirement(source, ids, new String[0]);
+	}
+
+	/**
+	 * Compiles a requirement that is met by having a role with each of the provided names, ignoring case.
+	 *
+	 * @param source
+	 *            The names of the roles
+	 *
+	 * @return The compiled RoleRequirement
+	 */
+	static RoleRequirement ofNames(List<String> source)
+	{
+		if ((source == null) || source.isEmpty())
+		{
+			return EMPTY;
+		}
+		return new RoleRequirement(source, new long[0], source.toArray(new String[0]));
+	}
+
+	/**
+	 * Checks if this requirement was compiled from the provided list, and the list has not changed since.
+	 *
+	 * @param source
+	 *            The list
+	 *
+	 * @return {@code true} if this requirement is up to date with the list
+	 */
+	boolean isFor(List<?> source)
+	{
+		if ((source == null) || source.isEmpty())
+		{
+			return (ids.length == 0) && (names.length == 0);
+		}
+		return (this.source == source) && (sourceVersion == version(source));
+	}
+
+	/**
+	 * Gets a number that changes whenever the provided list is changed. This is the modification count of a
+	 * {@link TrackedList TrackedList}, and the hash of any other list a command replaced its list with.
+	 */
+	private static int version(List<?> source)
+	{
+		return source instanceof TrackedList ? ((TrackedList<?>) source).getVersion() : source.hashCode();
+	}
+
+	/**
+	 * Checks if the provided Member has any of the required role IDs.
+	 *
+	 * @param member
+	 *            The Member
+	 *
+	 * @return {@code true} if the Member has any of the roles, or if no IDs are required
+	 */
+	boolean hasAnyId(Member member)
+	{
+		if (ids.length == 0)
+		{
+			return true;
+		}
+		return (member != null) && hasAny(member, ids);
+	}
+
+	/**
+	 * Finds the first required role name the provided Member has no role for.
+	 *
+	 * @param member
+	 *            The Member, or {@code null} if the command was not called in a Guild
+	 *
+	 * @return The index of the first missing name, or {@code -1} if the Member has a role for every name
+	 */
+	int firstMissingName(Member member)
+	{
+		if (names.length == 0)
+		{
+			return -1;
+		}
+		if (member == null)
+		{
+			return 0;
+		}
+		long[][] guildIds = resolved.get(member.getGuild().getIdLong());
+		if (guildIds == null)
+		{
+			guildIds = resolve(member.getGuild());
+			resolved.put(member.getGuild().getIdLong(), guildIds);
+		}
+		for (int i = 0; i < guildIds.length; i++)
+		{
+			if (!hasAny(member, guildIds[i]))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the required role name at the provided index.
+	 *
+	 * @param index
+	 *            The index, as returned by {@link #firstMissingName(Member)}
+	 *
+	 * @return The role name
+	 */
+	String getName(int index)
+	{
+		return names[index];
+	}
+
+	/**
+	 * Drops the role names resolved for a Guild, so that they are resolved again on next use.
+	 *
+	 * @param guildId
+	 *            The ID of the Guild
+	 */
+	void invalidate(long guildId)
+	{
+		resolved.remove(guildId);
+	}
+
+	private long[][] resolve(Guild guild)
+	{
+		List<Role>	roles		= guild.getRoles();
+		long[][]	guildIds	= new long[names.length][];
+		for (int i = 0; i < names.length; i++)
+		{
+			long[]	matches	= new long[roles.size()];
+			int		count	= 0;
+			for (Role role : roles)
+			{
+				if (role.getName().equalsIgnoreCase(names[i]))
+				{
+					matches[count++] = role.getIdLong();
+				}
+			}
+			guildIds[i] = Arrays.copyOf(matches, count);
+			Arrays.sort(guildIds[i]);
+		}
+		return guildIds;
+	}
+
+	/**
+	 * The list commands hold their required roles in, counting every change made to it so that a compiled
+	 * RoleRequirement can tell it is out of date without hashing the list.
+	 *
+	 * @param <E>
+	 *            The type of element, role names or IDs
+	 */
+	static final class TrackedList<E> extends ArrayList<E>
+	{
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Replaces an element. Unlike other changes, this does not count as a change to an ArrayList on its own.
+		 */
+		@Override
+		public E set(int index, E element)
+		{
+			E previous = super.set(index, element);
+			modCount++;
+			return previous;
+		}
+
+		/**
+		 * Gets a view of part of this list. Replacing an element through the view counts as a change to this list.
+		 */
+		@Override
+		public List<E> subList(int fromIndex, int toIndex)
+		{
+			List<E> view = super.subList(fromIndex, toIndex);
+			return new AbstractList<E>()
+			{
+				@Override
+				public E get(int index)
+				{
+					return view.get(index);
+				}
+
+				@Override
+				public int size()
+				{
+					return view.size();
+				}
+
+				@Override
+				public E set(int index, E element)
+				{
+					E previous = view.set(index, element);
+					TrackedList.this.modCount++;
+					return previous;
+				}
+
+				@Override
+				public void add(int index, E element)
+				{
+					view.add(index, element);
+					modCount++;
+				}
+
+				@Override
+				public E remove(int index)
+				{
+					modCount++;
+					return view.remove(index);
+				}
+			};
+		}
+
+		/**
+		 * Gets the number of changes made to this list.
+		 *
+		 * @return The modification count
+		 */
+		int getVersion()
+		{
+			return modCount;
+		}
+	}
+
+	private static boolean hasAny(Member member, long[] sortedIds)
+	{
+		if (sortedIds.length == 0)
+		{
+			return false;
+		}
+		for (Role role : member.getRoles())
+		{
+			if (Arrays.binarySearch(sortedIds, role.getIdLong()) >= 0)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+}
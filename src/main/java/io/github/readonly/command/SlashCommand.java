@@ -26,12 +26,11 @@ package io.github.readonly.command;
 
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import io.github.readonly.api.CooldownScope;
+import io.github.readonly.command.cooldown.CooldownEngine;
 import io.github.readonly.command.event.CommandEvent;
 import io.github.readonly.command.event.SlashCommandEvent;
 import io.github.readonly.command.lists.OptionsList;
@@ -39,7 +38,6 @@ import lombok.Getter;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -97,7 +95,9 @@ public abstract class SlashCommand extends Command
 		this.options.addAll(Arrays.asList(options));
 	}
 
-	protected List<Long> requiredRoles = new LinkedList<>();
+	protected List<Long> requiredRoles = new RoleRequirement.TrackedList<>();
+
+	private volatile RoleRequirement slashRoleRequirement = RoleRequirement.EMPTY;
 
 	/**
 	 * Localization of slash command name. Allows discord to change the language of the name of slash commands in the
@@ -202,6 +202,19 @@ public abstract class SlashCommand extends Command
 	 *            The SlashCommandEvent that triggered this Command
 	 */
 	void run(SlashCommandEvent event)
+	{
+		final CommandLatencies	latencies	= event.getClient().getCommandLatencies();
+		final long				start		= System.nanoTime();
+		try
+		{
+			run(event, latencies, start);
+		} finally
+		{
+			latencies.lap(CommandMetrics.Kind.SLASH, this, name, CommandLatencies.Phase.TOTAL, start);
+		}
+	}
+
+	private void run(SlashCommandEvent event, CommandLatencies latencies, long start)
 	{
 		// set the client
 		Client client = event.getClient();
@@ -214,7 +227,7 @@ public abstract class SlashCommand extends Command
 		}
 
 		// is allowed check
-		if ((event.getChannelType() == ChannelType.TEXT) && !isAllowed(event.getChannel().asTextChannel()))
+		if ((event.getChannelType() == ChannelType.TEXT) && !isAllowed(event.getChannel().asTextChannel(), topicTagsOf(event.getClient())))
 		{
 			terminate(event, "That command cannot be used in this channel!", client);
 			return;
@@ -222,87 +235,60 @@ public abstract class SlashCommand extends Command
 
 		if (!requiredRoles.isEmpty())
 		{
-			if (event.getMember().getRoles().stream().map(Role::getIdLong).noneMatch(requiredRoles.stream().collect(Collectors.toSet())::contains))
+			if (!getSlashRoleRequirement().hasAnyId(event.getMember()))
 			{
 				terminate(event, client.getError() + " You do not have any of the required Roles to perform this command!", client);
 				return;
 			}
 		}
+		long time = latencies.lap(CommandMetrics.Kind.SLASH, this, name, CommandLatencies.Phase.CHECKS, start);
 
 		// availability check
 		if (event.getChannelType() != ChannelType.PRIVATE)
 		{
 			// user perms
-			for (Permission p : userPermissions)
+			// Member will never be null because this is only ran in a
+			// server (text channel)
+			PermissionPlan	plan	= getUserPermissionPlan();
+			int				missing	= event.getMember() == null ? -1 : plan.firstMissing(event.getMember(), event.getGuildChannel(), null);
+			if (missing >= 0)
 			{
-				// Member will never be null because this is only ran in a
-				// server (text channel)
-				if (event.getMember() == null)
-				{
-					continue;
-				}
-
-				if (p.isChannel())
-				{
-					if (!event.getMember().hasPermission(event.getGuildChannel(), p))
-					{
-						terminate(event, String.format(userMissingPermMessage, client.getError(), p.getName(), "channel"), client);
-						return;
-					}
-				} else
-				{
-					if (!event.getMember().hasPermission(p))
-					{
-						terminate(event, String.format(userMissingPermMessage, client.getError(), p.getName(), "server"), client);
-						return;
-					}
-				}
+				Permission p = plan.getPermission(missing);
+				terminate(event, String.format(userMissingPermMessage, client.getError(), p.getName(), plan.getScope(missing) == PermissionPlan.Scope.GUILD ? "server" : "channel"), client);
+				return;
 			}
 
 			// bot perms
-			for (Permission p : botPermissions)
+			plan = getBotPermissionPlan();
+			AudioChannel vc = null;
+			if (plan.needsVoiceChannel())
 			{
-				// We can ignore this permission because bots can reply with
-				// embeds even without either of these perms.
-				// The only thing stopping them is the user's ability to use
-				// Application Commands.
-				// It's extremely dumb, but what more can you do.
-				if ((p == Permission.VIEW_CHANNEL) || (p == Permission.MESSAGE_EMBED_LINKS))
-				{
-					continue;
-				}
-
-				Member selfMember = event.getGuild() == null ? null : event.getGuild().getSelfMember();
-				if (p.isChannel())
+				GuildVoiceState gvc = event.getMember().getVoiceState();
+				vc = gvc == null ? null : gvc.getChannel();
+			}
+			Member selfMember = event.getGuild() == null ? null : event.getGuild().getSelfMember();
+			missing = plan.firstMissing(selfMember, event.getGuildChannel(), vc);
+			if (missing >= 0)
+			{
+				Permission p = plan.getPermission(missing);
+				switch (plan.getScope(missing))
 				{
-					if (p.isVoice())
+				case VOICE:
+					if (vc == null)
 					{
-						GuildVoiceState	gvc	= event.getMember().getVoiceState();
-						AudioChannel	vc	= gvc == null ? null : gvc.getChannel();
-						if (vc == null)
-						{
-							terminate(event, client.getError() + " You must be in a voice channel to use that!", client);
-							return;
-						} else if (!selfMember.hasPermission(vc, p))
-						{
-							terminate(event, String.format(botMissingPermMessage, client.getError(), p.getName(), "voice channel"), client);
-							return;
-						}
+						terminate(event, client.getError() + " You must be in a voice channel to use that!", client);
 					} else
 					{
-						if (!selfMember.hasPermission(event.getGuildChannel(), p))
-						{
-							terminate(event, String.format(botMissingPermMessage, client.getError(), p.getName(), "channel"), client);
-							return;
-						}
-					}
-				} else
-				{
-					if (!selfMember.hasPermission(p))
-					{
-						terminate(event, String.format(botMissingPermMessage, client.getError(), p.getName(), "server"), client);
-						return;
+						terminate(event, String.format(botMissingPermMessage, client.getError(), p.getName(), "voice channel"), client);
 					}
+					return;
+				case CHANNEL:
+					terminate(event, String.format(botMissingPermMessage, client.getError(), p.getName(), "channel"), client);
+					return;
+				case GUILD:
+				default:
+					terminate(event, String.format(botMissingPermMessage, client.getError(), p.getName(), "server"), client);
+					return;
 				}
 			}
 
@@ -317,21 +303,21 @@ public abstract class SlashCommand extends Command
 			terminate(event, client.getError() + " This command cannot be used in direct messages", client);
 			return;
 		}
+		time = latencies.lap(CommandMetrics.Kind.SLASH, this, name, CommandLatencies.Phase.PERMISSIONS, time);
 
 		// cooldown check, ignoring owner
 		if ((cooldown > 0) && !(isOwner(event, client)))
 		{
-			String	key			= getCooldownKey(event);
-			int		remaining	= client.getRemainingCooldown(key);
+			long	guildId		= event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+			long	channelId	= event.getChannel() == null ? 0 : event.getChannel().getIdLong();
+			int		remaining	= client.getCooldownEngine().tryAcquire(name, cooldownScope, event.getUser().getIdLong(), channelId, guildId, CooldownEngine.shardOf(event.getJDA()), cooldown);
 			if (remaining > 0)
 			{
 				terminate(event, getCooldownError(event, remaining, client), client);
 				return;
-			} else
-			{
-				client.applyCooldown(key, cooldown);
 			}
 		}
+		time = latencies.lap(CommandMetrics.Kind.SLASH, this, name, CommandLatencies.Phase.COOLDOWN, time);
 
 		// run
 		try
@@ -339,6 +325,7 @@ public abstract class SlashCommand extends Command
 			execute(event);
 		} catch (Throwable t)
 		{
+			client.getCommandMetrics().increment(CommandMetrics.Kind.SLASH, this, name, CommandMetrics.Counter.EXCEPTION);
 			if (client.getListener() != null)
 			{
 				client.getListener().onSlashCommandException(event, this, t);
@@ -346,8 +333,12 @@ public abstract class SlashCommand extends Command
 			}
 			// otherwise we rethrow
 			throw t;
+		} finally
+		{
+			latencies.lap(CommandMetrics.Kind.SLASH, this, name, CommandLatencies.Phase.EXECUTE, time);
 		}
 
+		client.getCommandMetrics().increment(CommandMetrics.Kind.SLASH, this, name, CommandMetrics.Counter.COMPLETED);
 		if (client.getListener() != null)
 		{
 			client.getListener().onCompletedSlashCommand(event, this);
@@ -476,6 +467,41 @@ public abstract class SlashCommand extends Command
 		return children;
 	}
 
+	/**
+	 * Gets the compiled {@link SlashCommand#requiredRoles SlashCommand.requiredRoles}, compiling them again if the list
+	 * was replaced or changed.
+	 *
+	 * @return The RoleRequirement of the requiredRoles
+	 */
+	RoleRequirement getSlashRoleRequirement()
+	{
+		RoleRequirement roles = slashRoleRequirement;
+		if (!roles.isFor(requiredRoles))
+		{
+			roles = RoleRequirement.ofIds(requiredRoles);
+			slashRoleRequirement = roles;
+		}
+		return roles;
+	}
+
+	/**
+	 * Compiles the permissions the bot must have to run this command.
+	 * <p>
+	 * {@link net.dv8tion.jda.api.Permission#VIEW_CHANNEL VIEW_CHANNEL} and
+	 * {@link net.dv8tion.jda.api.Permission#MESSAGE_EMBED_LINKS MESSAGE_EMBED_LINKS} are left out, as bots can reply to
+	 * interactions without either of them.
+	 *
+	 * @param permissions
+	 *            The permissions to compile
+	 *
+	 * @return The compiled PermissionPlan
+	 */
+	@Override
+	PermissionPlan compileBotPermissionPlan(Permission[] permissions)
+	{
+		return PermissionPlan.compile(permissions, Permission::isVoice, p -> (p == Permission.VIEW_CHANNEL) || (p == Permission.MESSAGE_EMBED_LINKS));
+	}
+
 	void terminate(SlashCommandEvent event, String message)
 	{
 		terminate(event, message, event.getClient());
@@ -487,6 +513,7 @@ public abstract class SlashCommand extends Command
 		{
 			event.reply(message).setEphemeral(true).queue();
 		}
+		client.getCommandMetrics().increment(CommandMetrics.Kind.SLASH, this, name, CommandMetrics.Counter.TERMINATED);
 		if (client.getListener() != null)
 		{
 			client.getListener().onTerminatedSlashCommand(event, this);
@@ -516,11 +543,9 @@ public abstract class SlashCommand extends Command
 		case CHANNEL:
 			return cooldownScope.genKey(name, event.getChannel().getIdLong());
 		case SHARD:
-			event.getJDA().getShardInfo();
-			return cooldownScope.genKey(name, event.getJDA().getShardInfo().getShardId());
+			return CooldownEngine.shardOf(event.getJDA()) >= 0 ? cooldownScope.genKey(name, CooldownEngine.shardOf(event.getJDA())) : CooldownScope.GLOBAL.genKey(name, 0);
 		case USER_SHARD:
-			event.getJDA().getShardInfo();
-			return cooldownScope.genKey(name, event.getUser().getIdLong(), event.getJDA().getShardInfo().getShardId());
+			return CooldownEngine.shardOf(event.getJDA()) >= 0 ? cooldownScope.genKey(name, event.getUser().getIdLong(), CooldownEngine.shardOf(event.getJDA())) : CooldownScope.USER.genKey(name, event.getUser().getIdLong());
 		case GLOBAL:
 			return cooldownScope.genKey(name, 0);
 		default:
@@ -0,0 +1,207 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+
+/**
+ * The topic tags of a {@link net.dv8tion.jda.api.entities.channel.concrete.TextChannel TextChannel}, parsed once
+ * from its topic.
+ * <p>
+ * A topic is parsed into the names it allows ({@code {name}}), the names it denies ({@code {-name}}) and whether it
+ * denies everything else ({@code {-all}}). Each {@link io.github.readonly.command.Client Client} caches parsed tags
+ * per channel in a {@link Cache Cache}, reused for as long as the topic is unchanged; the Client drops them when a
+ * topic is updated, the channel is deleted, or the bot leaves the guild.
+ *
+ * @see io.github.readonly.command.Command#isAllowed(TextChannel)
+ */
+final class TopicTags
+{
+
+	private static final TopicTags NONE = new TopicTags("", Collections.emptySet(), Collections.emptySet(), false);
+
+	private final String		topic;
+	private final Set<String>	allowed;
+	private final Set<String>	denied;
+	private final boolean		denyAll;
+
+	private TopicTags(String topic, Set<String> allowed, Set<String> denied, boolean denyAll)
+	{
+		this.topic = topic;
+		this.allowed = allowed;
+		this.denied = denied;
+		this.denyAll = denyAll;
+	}
+
+	/**
+	 * Gets the tags of the provided channel, parsing its topic without caching it.
+	 *
+	 * @param channel
+	 *            The channel
+	 *
+	 * @return The tags of the channel
+	 */
+	static TopicTags of(TextChannel channel)
+	{
+		String topic = channel.getTopic();
+		return (topic == null) || topic.isEmpty() ? NONE : parse(topic);
+	}
+
+	/**
+	 * Checks if a command is allowed by these tags. The command's own name takes precedence over its category, and
+	 * both take precedence over {@code {-all}}.
+	 *
+	 * @param name
+	 *            The lowercase name of the command
+	 * @param category
+	 *            The lowercase name of the category of the command, or {@code null} if it has none
+	 *
+	 * @return {@code true} if the command may be used
+	 */
+	boolean isAllowed(String name, String category)
+	{
+		if (allowed.contains(name))
+		{
+			return true;
+		}
+		if (denied.contains(name))
+		{
+			return false;
+		}
+		if (category != null)
+		{
+			if (allowed.contains(category))
+			{
+				return true;
+			}
+			if (denied.contains(category))
+			{
+				return false;
+			}
+		}
+		return !denyAll;
+	}
+
+	/**
+	 * The parsed tags of the channels a {@link io.github.readonly.command.Client Client} has seen, grouped by guild so
+	 * that leaving a guild drops all of its channels at once.
+	 */
+	static final class Cache
+	{
+
+		private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, TopicTags>> guilds = new ConcurrentHashMap<>();
+
+		/**
+		 * Gets the tags of the provided channel, parsing its topic if it changed since it was last parsed.
+		 *
+		 * @param channel
+		 *            The channel
+		 *
+		 * @return The tags of the channel
+		 */
+		TopicTags get(TextChannel channel)
+		{
+			String topic = channel.getTopic();
+			if ((topic == null) || topic.isEmpty())
+			{
+				return NONE;
+			}
+			ConcurrentHashMap<Long, TopicTags>	channels	= guilds.computeIfAbsent(channel.getGuild().getIdLong(), id -> new ConcurrentHashMap<>());
+			TopicTags							tags		= channels.get(channel.getIdLong());
+			if ((tags == null) || ((tags.topic != topic) && !tags.topic.equals(topic)))
+			{
+				tags = parse(topic);
+				channels.put(channel.getIdLong(), tags);
+			}
+			return tags;
+		}
+
+		/**
+		 * Drops the cached tags of a channel.
+		 *
+		 * @param guildId
+		 *            The ID of the guild of the channel
+		 * @param channelId
+		 *            The ID of the channel
+		 */
+		void invalidate(long guildId, long channelId)
+		{
+			ConcurrentHashMap<Long, TopicTags> channels = guilds.get(guildId);
+			if (channels != null)
+			{
+				channels.remove(channelId);
+			}
+		}
+
+		/**
+		 * Drops the cached tags of every channel of a guild.
+		 *
+		 * @param guildId
+		 *            The ID of the guild
+		 */
+		void invalidateGuild(long guildId)
+		{
+			guilds.remove(guildId);
+		}
+	}
+
+	private static TopicTags parse(String topic)
+	{
+		String		lower	= topic.toLowerCase(Locale.ROOT);
+		Set<String>	allowed	= new HashSet<>();
+		Set<String>	denied	= new HashSet<>();
+		int			open	= -1;
+		for (int i = 0; i < lower.length(); i++)
+		{
+			char c = lower.charAt(i);
+			if (c == '{')
+			{
+				open = i;
+			} else if ((c == '}') && (open >= 0))
+			{
+				String tag = lower.substring(open + 1, i);
+				if (tag.startsWith("-"))
+				{
+					denied.add(tag.substring(1));
+				} else
+				{
+					allowed.add(tag);
+				}
+				open = -1;
+			}
+		}
+		if (allowed.isEmpty() && denied.isEmpty())
+		{
+			return new TopicTags(topic, Collections.emptySet(), Collections.emptySet(), false);
+		}
+		return new TopicTags(topic, allowed, denied, denied.contains("all"));
+	}
+}
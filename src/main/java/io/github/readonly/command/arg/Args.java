@@ -24,6 +24,13 @@
 
 package io.github.readonly.command.arg;
 
+import java.time.Duration;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+
 public class Args
 {
 
@@ -47,4 +54,63 @@ public class Args
 		return OptionalArgument.of(arg, desc).multi();
 	}
 
+	public static TypedArgument<User> user(String arg, String desc)
+	{
+		return TypedArgument.of(arg, desc, Converters.USER);
+	}
+
+	public static TypedArgument<Member> member(String arg, String desc)
+	{
+		return TypedArgument.of(arg, desc, Converters.MEMBER);
+	}
+
+	public static TypedArgument<Role> role(String arg, String desc)
+	{
+		return TypedArgument.of(arg, desc, Converters.ROLE);
+	}
+
+	public static TypedArgument<GuildChannel> channel(String arg, String desc)
+	{
+		return TypedArgument.of(arg, desc, Converters.CHANNEL);
+	}
+
+	public static TypedArgument<Long> snowflake(String arg, String desc)
+	{
+		return TypedArgument.of(arg, desc, Converters.SNOWFLAKE);
+	}
+
+	public static TypedArgument<Integer> integer(String arg, String desc, int min, int max)
+	{
+		return TypedArgument.of(arg, desc, Converters.integer(min, max));
+	}
+
+	public static TypedArgument<Long> number(String arg, String desc, long min, long max)
+	{
+		return TypedArgument.of(arg, desc, Converters.number(min, max));
+	}
+
+	public static TypedArgument<Duration> duration(String arg, String desc)
+	{
+		return TypedArgument.of(arg, desc, Converters.DURATION);
+	}
+
+	public static <E extends Enum<E>> TypedArgument<E> choice(String arg, String desc, Class<E> type)
+	{
+		return TypedArgument.of(arg, desc, Converters.choice(type));
+	}
+
+	/**
+	 * Creates an argument taking the rest of the arguments, exactly as written. It must be the last typed argument.
+	 *
+	 * @param arg
+	 *            The name of the argument
+	 * @param desc
+	 *            The description of the argument
+	 *
+	 * @return The argument
+	 */
+	public static TypedArgument<String> text(String arg, String desc)
+	{
+		return TypedArgument.greedy(arg, desc);
+	}
 }
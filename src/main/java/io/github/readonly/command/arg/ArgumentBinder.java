@@ -0,0 +1,274 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.arg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.readonly.command.arg.parse.ArgumentIndex;
+import io.github.readonly.command.event.CommandEvent;
+
+/**
+ * The compiled {@link io.github.readonly.command.arg.TypedArgument TypedArgument}s of a command, binding the tokens of
+ * a {@link io.github.readonly.command.arg.parse.ArgumentIndex ArgumentIndex} to values.
+ * <p>
+ * The typed arguments are picked out of the command's arguments and checked once, when the binder is compiled. Binding
+ * then walks the tokens and the arguments side by side. Users and members missing from the JDA cache are collected, and
+ * retrieved once all arguments have been read, in a single batch per converter, so the returned future is only left
+ * incomplete when something actually has to be retrieved.
+ */
+public final class ArgumentBinder
+{
+
+	/**
+	 * A binder without any arguments.
+	 */
+	public static final ArgumentBinder EMPTY = new ArgumentBinder(null, new TypedArgument<?>[0]);
+
+	private final List<CommandArgument<?>>	source;
+	private final int						sourceHash;
+	private final TypedArgument<?>[]		arguments;
+	private final String[]					names;
+
+	private ArgumentBinder(List<CommandArgument<?>> source, TypedArgument<?>[] arguments)
+	{
+		this.source = source;
+		this.sourceHash = source == null ? 0 : source.hashCode();
+		this.arguments = arguments;
+		this.names = new String[arguments.length];
+		for (int i = 0; i < arguments.length; i++)
+		{
+			names[i] = arguments[i].getName();
+		}
+	}
+
+	/**
+	 * Compiles the typed arguments among the arguments of a command.
+	 *
+	 * @param arguments
+	 *            The arguments of the command
+	 *
+	 * @return The compiled ArgumentBinder
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If a greedy argument is followed by another typed argument, or two typed arguments share a name
+	 */
+	public static ArgumentBinder compile(List<CommandArgument<?>> arguments)
+	{
+		List<TypedArgument<?>> typed = new ArrayList<>();
+		for (CommandArgument<?> argument : arguments)
+		{
+			if (argument instanceof TypedArgument)
+			{
+				TypedArgument<?> next = (TypedArgument<?>) argument;
+				if (!typed.isEmpty() && typed.get(typed.size() - 1).isGreedy())
+				{
+					throw new IllegalArgumentException("Greedy argument " + typed.get(typed.size() - 1).getName() + " must be the last typed argument!");
+				}
+				for (TypedArgument<?> other : typed)
+				{
+					if (other.getName().equals(next.getName()))
+					{
+						throw new IllegalArgumentException("Two typed arguments are named " + next.getName() + "!");
+					}
+				}
+				typed.add(next);
+			}
+		}
+		return new ArgumentBinder(arguments, typed.toArray(new TypedArgument<?>[0]));
+	}
+
+	/**
+	 * Checks whether this binder was compiled from the provided arguments, as they are now.
+	 *
+	 * @param arguments
+	 *            The arguments of the command
+	 *
+	 * @return {@code true} if the binder is up to date
+	 */
+	public boolean isFor(List<CommandArgument<?>> arguments)
+	{
+		return (source == arguments) && (sourceHash == arguments.hashCode());
+	}
+
+	/**
+	 * Checks whether there are any typed arguments to bind.
+	 *
+	 * @return {@code true} if there are none
+	 */
+	public boolean isEmpty()
+	{
+		return arguments.length == 0;
+	}
+
+	/**
+	 * Binds the arguments of a CommandEvent.
+	 *
+	 * @param event
+	 *            The CommandEvent
+	 *
+	 * @return A future of the bound arguments, already complete unless entities had to be retrieved. It fails with an
+	 *         {@link io.github.readonly.command.arg.ArgumentException ArgumentException} if an argument is missing or
+	 *         invalid.
+	 */
+	public CompletableFuture<ParsedArguments> bind(CommandEvent event)
+	{
+		ArgumentIndex	index	= event.getArgumentIndex();
+		int				count	= index.count();
+		Object[]		values	= new Object[arguments.length];
+		List<Pending>	pending	= null;
+		int				token	= 0;
+		try
+		{
+			for (int i = 0; i < arguments.length; i++)
+			{
+				TypedArgument<?> argument = arguments[i];
+				if (token >= count)
+				{
+					if (argument.isRequired())
+					{
+						throw new ArgumentException("Missing argument " + argument.getArgumentForHelp() + "!");
+					}
+					values[i] = argument.getDefaultValue();
+					continue;
+				}
+				if (argument.isGreedy())
+				{
+					values[i] = index.getRemainder(token).toString();
+					token = count;
+					continue;
+				}
+				CharSequence value = index.getArg(token);
+				try
+				{
+					if (argument.getConverter() instanceof EntityConverter)
+					{
+						EntityConverter<?>	converter	= (EntityConverter<?>) argument.getConverter();
+						long				id			= converter.id(value);
+						values[i] = converter.fromCache(event, id);
+						if (values[i] == null)
+						{
+							if (pending == null)
+							{
+								pending = new ArrayList<>();
+							}
+							pending.add(new Pending(i, converter, id, value, argument));
+						}
+					} else
+					{
+						values[i] = argument.getConverter().convert(value, event);
+					}
+					token++;
+				} catch (ArgumentException e)
+				{
+					if (argument.isRequired())
+					{
+						throw e;
+					}
+					values[i] = argument.getDefaultValue();
+				}
+			}
+		} catch (ArgumentException e)
+		{
+			return CompletableFuture.failedFuture(e);
+		}
+		if (pending == null)
+		{
+			return CompletableFuture.completedFuture(new ParsedArguments(names, values));
+		}
+		return retrieve(event, values, pending);
+	}
+
+	private CompletableFuture<ParsedArguments> retrieve(CommandEvent event, Object[] values, List<Pending> pending)
+	{
+		Map<EntityConverter<?>, long[]> batches = new IdentityHashMap<>();
+		for (Pending p : pending)
+		{
+			long[] ids = batches.get(p.converter);
+			ids = ids == null ? new long[1] : Arrays.copyOf(ids, ids.length + 1);
+			ids[ids.length - 1] = p.id;
+			batches.put(p.converter, ids);
+		}
+		Map<EntityConverter<?>, CompletableFuture<Map<Long, ?>>>	results	= new IdentityHashMap<>();
+		List<CompletableFuture<?>>									futures	= new ArrayList<>();
+		for (Map.Entry<EntityConverter<?>, long[]> batch : batches.entrySet())
+		{
+			CompletableFuture<Map<Long, ?>> future;
+			try
+			{
+				future = batch.getKey().retrieve(event, batch.getValue()).thenApply(map -> map);
+			} catch (RuntimeException e)
+			{
+				future = CompletableFuture.failedFuture(e);
+			}
+			// Failing to retrieve is the same as not finding anything
+			future = future.exceptionally(t -> Collections.emptyMap());
+			results.put(batch.getKey(), future);
+			futures.add(future);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v ->
+		{
+			for (Pending p : pending)
+			{
+				Object entity = results.get(p.converter).join().get(p.id);
+				if (entity != null)
+				{
+					values[p.index] = entity;
+				} else if (p.argument.isRequired())
+				{
+					throw p.converter.notFound(p.token);
+				} else
+				{
+					values[p.index] = p.argument.getDefaultValue();
+				}
+			}
+			return new ParsedArguments(names, values);
+		});
+	}
+
+	private static final class Pending
+	{
+
+		private final int					index;
+		private final EntityConverter<?>	converter;
+		private final long					id;
+		private final CharSequence			token;
+		private final TypedArgument<?>		argument;
+
+		private Pending(int index, EntityConverter<?> converter, long id, CharSequence token, TypedArgument<?> argument)
+		{
+			this.index = index;
+			this.converter = converter;
+			this.id = id;
+			this.token = token;
+			this.argument = argument;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.arg;
+
+import io.github.readonly.command.event.CommandEvent;
+
+/**
+ * Converts a single token of a command's arguments into a value.
+ *
+ * @param <T>
+ *            The type of value converted to
+ *
+ * @see io.github.readonly.command.arg.Converters
+ */
+@FunctionalInterface
+public interface ArgumentConverter<T>
+{
+
+	/**
+	 * Converts a token.
+	 *
+	 * @param token
+	 *            The token, with its quotes and escapes removed
+	 * @param event
+	 *            The CommandEvent the token was sent in
+	 *
+	 * @return The converted value, never {@code null}
+	 *
+	 * @throws io.github.readonly.command.arg.ArgumentException
+	 *             If the token cannot be converted
+	 */
+	T convert(CharSequence token, CommandEvent event);
+}
@@ -0,0 +1,503 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.arg;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.readonly.command.event.CommandEvent;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.Result;
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * The built-in {@link io.github.readonly.command.arg.ArgumentConverter ArgumentConverter}s, along with the parsers
+ * they are built on.
+ * <p>
+ * Mentions, snowflakes, numbers and durations are parsed by hand, a character at a time, without regular expressions
+ * or intermediate Strings. Users and members are looked up in the JDA cache first; those missing from it are retrieved
+ * from Discord by the {@link io.github.readonly.command.arg.ArgumentBinder ArgumentBinder} in one batch per command.
+ * Roles and channels are always cached by JDA, so they are only ever looked up in the cache.
+ */
+public final class Converters
+{
+
+	private static final long MAX_DURATION_NUMBER = 1_000_000_000L;
+
+	/**
+	 * Converts a raw snowflake to a {@code Long}.
+	 */
+	public static final ArgumentConverter<Long> SNOWFLAKE = (token, event) ->
+	{
+		long id = parseSnowflake(token);
+		if (id < 0)
+		{
+			throw new ArgumentException("`" + token + "` is not a valid ID!");
+		}
+		return id;
+	};
+
+	/**
+	 * Converts a duration such as {@code 90}, {@code 15m} or {@code 1h30m} to a {@link java.time.Duration Duration}.
+	 *
+	 * @see #parseDuration(CharSequence)
+	 */
+	public static final ArgumentConverter<Duration> DURATION = (token, event) ->
+	{
+		Duration duration = parseDuration(token);
+		if (duration == null)
+		{
+			throw new ArgumentException("`" + token + "` is not a valid duration! Try something like `90s`, `15m` or `1h30m`.");
+		}
+		return duration;
+	};
+
+	/**
+	 * Converts a token to a String, as is.
+	 */
+	public static final ArgumentConverter<String> STRING = (token, event) -> token.toString();
+
+	/**
+	 * Converts a user mention or ID to a {@link net.dv8tion.jda.api.entities.User User}, retrieving it if it is not
+	 * cached.
+	 */
+	public static final ArgumentConverter<User> USER = new EntityConverter<User>("user")
+	{
+
+		@Override
+		long parseId(CharSequence token)
+		{
+			return parseUserMention(token);
+		}
+
+		@Override
+		User fromCache(CommandEvent event, long id)
+		{
+			return event.getJDA().getUserById(id);
+		}
+
+		@Override
+		CompletableFuture<Map<Long, User>> retrieve(CommandEvent event, long[] ids)
+		{
+			// Discord has no endpoint to get several users, so the requests
+			// are only queued together
+			List<RestAction<Result<User>>> actions = new ArrayList<>(ids.length);
+			for (long id : ids)
+			{
+				actions.add(event.getJDA().retrieveUserById(id).mapToResult());
+			}
+			return RestAction.allOf(actions).submit().thenApply(results ->
+			{
+				Map<Long, User> users = new HashMap<>();
+				for (Result<User> result : results)
+				{
+					if (result.isSuccess())
+					{
+						users.put(result.get().getIdLong(), result.get());
+					}
+				}
+				return users;
+			});
+		}
+	};
+
+	/**
+	 * Converts a user mention or ID to a {@link net.dv8tion.jda.api.entities.Member Member} of the Guild the command
+	 * was called in, retrieving it if it is not cached.
+	 */
+	public static final ArgumentConverter<Member> MEMBER = new EntityConverter<Member>("member")
+	{
+
+		@Override
+		long parseId(CharSequence token)
+		{
+			return parseUserMention(token);
+		}
+
+		@Override
+		Member fromCache(CommandEvent event, long id)
+		{
+			return requireGuild(event).getMemberById(id);
+		}
+
+		@Override
+		CompletableFuture<Map<Long, Member>> retrieve(CommandEvent event, long[] ids)
+		{
+			CompletableFuture<Map<Long, Member>> future = new CompletableFuture<>();
+			// A single member chunk request covers every missing member
+			requireGuild(event).retrieveMembersByIds(ids).onSuccess(list ->
+			{
+				Map<Long, Member> members = new HashMap<>();
+				for (Member member : list)
+				{
+					members.put(member.getIdLong(), member);
+				}
+				future.complete(members);
+			}).onError(future::completeExceptionally);
+			return future;
+		}
+	};
+
+	/**
+	 * Converts a role mention, ID or name to a {@link net.dv8tion.jda.api.entities.Role Role} of the Guild the command
+	 * was called in.
+	 */
+	public static final ArgumentConverter<Role> ROLE = (token, event) ->
+	{
+		Guild	guild	= requireGuild(event);
+		long	id		= parseRoleMention(token);
+		Role	role	= id < 0 ? null : guild.getRoleById(id);
+		if (role == null)
+		{
+			List<Role> roles = guild.getRolesByName(token.toString(), true);
+			role = roles.isEmpty() ? null : roles.get(0);
+		}
+		if (role == null)
+		{
+			throw new ArgumentException("I could not find the role `" + token + "`!");
+		}
+		return role;
+	};
+
+	/**
+	 * Converts a channel mention, ID or text channel name to a
+	 * {@link net.dv8tion.jda.api.entities.channel.middleman.GuildChannel GuildChannel} of the Guild the command was
+	 * called in.
+	 */
+	public static final ArgumentConverter<GuildChannel> CHANNEL = (token, event) ->
+	{
+		Guild			guild	= requireGuild(event);
+		long			id		= parseChannelMention(token);
+		GuildChannel	channel	= id < 0 ? null : guild.getGuildChannelById(id);
+		if (channel == null)
+		{
+			List<? extends GuildChannel> channels = guild.getTextChannelsByName(token.toString(), true);
+			channel = channels.isEmpty() ? null : channels.get(0);
+		}
+		if (channel == null)
+		{
+			throw new ArgumentException("I could not find the channel `" + token + "`!");
+		}
+		return channel;
+	};
+
+	private Converters()
+	{
+	}
+
+	/**
+	 * Creates a converter to an {@code Integer} within a range.
+	 *
+	 * @param min
+	 *            The smallest value allowed
+	 * @param max
+	 *            The largest value allowed
+	 *
+	 * @return The converter
+	 */
+	public static ArgumentConverter<Integer> integer(int min, int max)
+	{
+		Checks.check(min <= max, "Minimum must not be larger than maximum!");
+		return (token, event) -> (int) parseLong(token, min, max);
+	}
+
+	/**
+	 * Creates a converter to a {@code Long} within a range.
+	 *
+	 * @param min
+	 *            The smallest value allowed
+	 * @param max
+	 *            The largest value allowed
+	 *
+	 * @return The converter
+	 */
+	public static ArgumentConverter<Long> number(long min, long max)
+	{
+		Checks.check(min <= max, "Minimum must not be larger than maximum!");
+		return (token, event) -> parseLong(token, min, max);
+	}
+
+	/**
+	 * Creates a converter to a constant of an enum, matching its name regardless of case.
+	 *
+	 * @param <E>
+	 *            The type of enum
+	 * @param type
+	 *            The class of the enum
+	 *
+	 * @return The converter
+	 */
+	public static <E extends Enum<E>> ArgumentConverter<E> choice(Class<E> type)
+	{
+		Checks.notNull(type, "Type");
+		Map<String, E>	constants	= new HashMap<>();
+		StringBuilder	names		= new StringBuilder();
+		for (E constant : type.getEnumConstants())
+		{
+			String name = constant.name().toLowerCase(Locale.ROOT);
+			constants.put(name, constant);
+			names.append(names.length() == 0 ? "`" : ", `").append(name).append('`');
+		}
+		Map<String, E>	lookup	= Collections.unmodifiableMap(constants);
+		String			options	= names.toString();
+		return (token, event) ->
+		{
+			E constant = lookup.get(token.toString().toLowerCase(Locale.ROOT));
+			if (constant == null)
+			{
+				throw new ArgumentException("`" + token + "` is not one of " + options + "!");
+			}
+			return constant;
+		};
+	}
+
+	/**
+	 * Parses a raw snowflake.
+	 *
+	 * @param token
+	 *            The text to parse
+	 *
+	 * @return The snowflake, or {@code -1} if the text is not made of only digits or is too large
+	 */
+	public static long parseSnowflake(CharSequence token)
+	{
+		return parseSnowflake(token, 0, token.length());
+	}
+
+	/**
+	 * Parses a user mention, such as {@code <@id>} or {@code <@!id>}, or a raw snowflake.
+	 *
+	 * @param token
+	 *            The text to parse
+	 *
+	 * @return The ID of the user, or {@code -1} if the text is neither
+	 */
+	public static long parseUserMention(CharSequence token)
+	{
+		int length = token.length();
+		if (isMention(token, '@'))
+		{
+			int start = token.charAt(2) == '!' ? 3 : 2;
+			return token.charAt(2) == '&' ? -1 : parseSnowflake(token, start, length - 1);
+		}
+		return parseSnowflake(token, 0, length);
+	}
+
+	/**
+	 * Parses a role mention, such as {@code <@&id>}, or a raw snowflake.
+	 *
+	 * @param token
+	 *            The text to parse
+	 *
+	 * @return The ID of the role, or {@code -1} if the text is neither
+	 */
+	public static long parseRoleMention(CharSequence token)
+	{
+		int length = token.length();
+		if (isMention(token, '@'))
+		{
+			return token.charAt(2) == '&' ? parseSnowflake(token, 3, length - 1) : -1;
+		}
+		return parseSnowflake(token, 0, length);
+	}
+
+	/**
+	 * Parses a channel mention, such as {@code <#id>}, or a raw snowflake.
+	 *
+	 * @param token
+	 *            The text to parse
+	 *
+	 * @return The ID of the channel, or {@code -1} if the text is neither
+	 */
+	public static long parseChannelMention(CharSequence token)
+	{
+		int length = token.length();
+		if (isMention(token, '#'))
+		{
+			return parseSnowflake(token, 2, length - 1);
+		}
+		return parseSnowflake(token, 0, length);
+	}
+
+	/**
+	 * Parses a duration made of numbers each followed by a unit: {@code w} (weeks), {@code d} (days), {@code h}
+	 * (hours), {@code m} (minutes) or {@code s} (seconds), such as {@code 1h30m}. A number on its own is taken as
+	 * seconds.
+	 *
+	 * @param token
+	 *            The text to parse
+	 *
+	 * @return The duration, or {@code null} if the text is not a valid duration
+	 */
+	public static Duration parseDuration(CharSequence token)
+	{
+		int		length	= token.length();
+		long	seconds	= 0;
+		long	number	= -1;
+		boolean	units	= false;
+		for (int i = 0; i < length; i++)
+		{
+			char c = token.charAt(i);
+			if ((c >= '0') && (c <= '9'))
+			{
+				number = ((number < 0 ? 0 : number) * 10) + (c - '0');
+				if (number >= MAX_DURATION_NUMBER)
+				{
+					return null;
+				}
+				continue;
+			}
+			if (number < 0)
+			{
+				return null;
+			}
+			switch (Character.toLowerCase(c))
+			{
+			case 'w':
+				seconds += number * 604_800L;
+				break;
+			case 'd':
+				seconds += number * 86_400L;
+				break;
+			case 'h':
+				seconds += number * 3_600L;
+				break;
+			case 'm':
+				seconds += number * 60L;
+				break;
+			case 's':
+				seconds += number;
+				break;
+			default:
+				return null;
+			}
+			number = -1;
+			units = true;
+		}
+		if (number >= 0)
+		{
+			if (units)
+			{
+				// A number without a unit is only allowed on its own
+				return null;
+			}
+			seconds = number;
+		} else if (!units)
+		{
+			return null;
+		}
+		return Duration.ofSeconds(seconds);
+	}
+
+	private static long parseLong(CharSequence token, long min, long max)
+	{
+		int		length		= token.length();
+		int		i			= 0;
+		boolean	negative	= false;
+		if ((length > 0) && ((token.charAt(0) == '-') || (token.charAt(0) == '+')))
+		{
+			negative = token.charAt(0) == '-';
+			i = 1;
+		}
+		if (i == length)
+		{
+			throw new ArgumentException("`" + token + "` is not a whole number!");
+		}
+		// Accumulate negatively, so Long.MIN_VALUE can be parsed as well
+		long	value		= 0;
+		boolean	overflow	= false;
+		for (; i < length; i++)
+		{
+			int digit = token.charAt(i) - '0';
+			if ((digit < 0) || (digit > 9))
+			{
+				throw new ArgumentException("`" + token + "` is not a whole number!");
+			}
+			if (value < ((Long.MIN_VALUE + digit) / 10))
+			{
+				overflow = true;
+			} else
+			{
+				value = (value * 10) - digit;
+			}
+		}
+		if (!negative)
+		{
+			overflow |= value == Long.MIN_VALUE;
+			value = -value;
+		}
+		if (overflow || (value < min) || (value > max))
+		{
+			throw new ArgumentException("`" + token + "` must be a number between " + min + " and " + max + "!");
+		}
+		return value;
+	}
+
+	private static long parseSnowflake(CharSequence token, int start, int end)
+	{
+		// Snowflakes are positive longs, which have at most 19 digits
+		if ((start >= end) || ((end - start) > 19))
+		{
+			return -1;
+		}
+		long value = 0;
+		for (int i = start; i < end; i++)
+		{
+			int digit = token.charAt(i) - '0';
+			if ((digit < 0) || (digit > 9) || (value > ((Long.MAX_VALUE - digit) / 10)))
+			{
+				return -1;
+			}
+			value = (value * 10) + digit;
+		}
+		return value;
+	}
+
+	private static boolean isMention(CharSequence token, char sigil)
+	{
+		int length = token.length();
+		return (length > 3) && (token.charAt(0) == '<') && (token.charAt(1) == sigil) && (token.charAt(length - 1) == '>');
+	}
+
+	private static Guild requireGuild(CommandEvent event)
+	{
+		if (!event.getChannelType().isGuild())
+		{
+			throw new ArgumentException("That argument can only be used in a server!");
+		}
+		return event.getGuild();
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.arg;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.readonly.command.event.CommandEvent;
+
+/**
+ * A converter for entities that may be missing from the JDA cache. The
+ * {@link io.github.readonly.command.arg.ArgumentBinder ArgumentBinder} looks every such argument up in the cache first,
+ * and retrieves the ones that are missing from Discord in a single batch per converter.
+ *
+ * @param <T>
+ *            The type of entity
+ */
+abstract class EntityConverter<T> implements ArgumentConverter<T>
+{
+
+	private final String description;
+
+	EntityConverter(String description)
+	{
+		this.description = description;
+	}
+
+	/**
+	 * Parses the ID of the entity from a mention or a raw snowflake.
+	 *
+	 * @param token
+	 *            The token
+	 *
+	 * @return The ID, or {@code -1} if the token is neither
+	 */
+	abstract long parseId(CharSequence token);
+
+	/**
+	 * Gets an entity from the JDA cache.
+	 *
+	 * @param event
+	 *            The CommandEvent the entity was mentioned in
+	 * @param id
+	 *            The ID of the entity
+	 *
+	 * @return The entity, or {@code null} if it is not cached
+	 *
+	 * @throws io.github.readonly.command.arg.ArgumentException
+	 *             If the entity cannot be used where the command was called
+	 */
+	abstract T fromCache(CommandEvent event, long id);
+
+	/**
+	 * Retrieves entities missing from the cache.
+	 *
+	 * @param event
+	 *            The CommandEvent the entities were mentioned in
+	 * @param ids
+	 *            The IDs of the entities
+	 *
+	 * @return A future of the entities found, by ID
+	 */
+	abstract CompletableFuture<Map<Long, T>> retrieve(CommandEvent event, long[] ids);
+
+	@Override
+	public T convert(CharSequence token, CommandEvent event)
+	{
+		T entity = fromCache(event, id(token));
+		if (entity == null)
+		{
+			throw notFound(token);
+		}
+		return entity;
+	}
+
+	final long id(CharSequence token)
+	{
+		long id = parseId(token);
+		if (id < 0)
+		{
+			throw new ArgumentException("`" + token + "` is not a valid " + description + "!");
+		}
+		return id;
+	}
+
+	final ArgumentException notFound(CharSequence token)
+	{
+		return new ArgumentException("I could not find the " + description + " `" + token + "`!");
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.arg;
+
+import java.time.Duration;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * The converted values of the {@link io.github.readonly.command.arg.TypedArgument TypedArgument}s of a command, by
+ * name and by position. Optional arguments that were not given hold their default value, which may be {@code null}.
+ */
+public final class ParsedArguments
+{
+
+	/**
+	 * The arguments of a command without typed arguments.
+	 */
+	public static final ParsedArguments EMPTY = new ParsedArguments(new String[0], new Object[0]);
+
+	private final String[]	names;
+	private final Object[]	values;
+
+	ParsedArguments(String[] names, Object[] values)
+	{
+		this.names = names;
+		this.values = values;
+	}
+
+	public int size()
+	{
+		return values.length;
+	}
+
+	/**
+	 * Checks whether an argument has a value.
+	 *
+	 * @param name
+	 *            The name of the argument
+	 *
+	 * @return {@code true} if the argument exists and its value is not {@code null}
+	 */
+	public boolean has(String name)
+	{
+		int index = indexOf(name);
+		return (index >= 0) && (values[index] != null);
+	}
+
+	/**
+	 * Gets the value of an argument.
+	 *
+	 * @param <T>
+	 *            The type of the argument
+	 * @param name
+	 *            The name of the argument
+	 *
+	 * @return The value, possibly {@code null} for an optional argument
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the command has no argument with the name
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String name)
+	{
+		int index = indexOf(name);
+		if (index < 0)
+		{
+			throw new IllegalArgumentException("No argument named " + name);
+		}
+		return (T) values[index];
+	}
+
+	/**
+	 * Gets the value of an argument by its position among the typed arguments.
+	 *
+	 * @param <T>
+	 *            The type of the argument
+	 * @param index
+	 *            The position of the argument
+	 *
+	 * @return The value, possibly {@code null} for an optional argument
+	 *
+	 * @throws java.lang.IndexOutOfBoundsException
+	 *             If there is no argument at the position
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(int index)
+	{
+		return (T) values[index];
+	}
+
+	public <T> T getOrDefault(String name, T defaultValue)
+	{
+		T value = has(name) ? get(name) : null;
+		return value == null ? defaultValue : value;
+	}
+
+	public String getString(String name)
+	{
+		return get(name);
+	}
+
+	public int getInt(String name)
+	{
+		return this.<Integer> get(name);
+	}
+
+	public long getLong(String name)
+	{
+		return this.<Long> get(name);
+	}
+
+	public Duration getDuration(String name)
+	{
+		return get(name);
+	}
+
+	public User getUser(String name)
+	{
+		return get(name);
+	}
+
+	public Member getMember(String name)
+	{
+		return get(name);
+	}
+
+	public Role getRole(String name)
+	{
+		return get(name);
+	}
+
+	private int indexOf(String name)
+	{
+		for (int i = 0; i < names.length; i++)
+		{
+			if (names[i].equals(name))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.arg;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * A {@link io.github.readonly.command.arg.CommandArgument CommandArgument} that is also converted to a value before
+ * the command is executed. Typed arguments are bound to the tokens of a command's arguments in the order they were
+ * added to the command, and handed to it through
+ * {@link io.github.readonly.command.event.CommandEvent#getParsedArguments() CommandEvent#getParsedArguments()}.
+ * <p>
+ * A required argument that is missing or cannot be converted stops the command with an error. An optional argument
+ * that cannot be converted leaves its token for the next argument, and takes its default value.
+ *
+ * @param <V>
+ *            The type of value the argument is converted to
+ *
+ * @see io.github.readonly.command.arg.Args
+ */
+public class TypedArgument<V> extends CommandArgument<TypedArgument<V>>
+{
+
+	private final ArgumentConverter<V>	converter;
+	private final boolean				greedy;
+	private V							defaultValue;
+
+	public static final <V> TypedArgument<V> of(String name, String description, ArgumentConverter<V> converter)
+	{
+		return new TypedArgument<>(name, description, converter, false);
+	}
+
+	static final TypedArgument<String> greedy(String name, String description)
+	{
+		return new TypedArgument<>(name, description, Converters.STRING, true);
+	}
+
+	private TypedArgument(String argumentName, String description, ArgumentConverter<V> converter, boolean greedy)
+	{
+		super(argumentName, ArgumentType.REQUIRED, description);
+		Checks.notNull(converter, "Converter");
+		this.converter = converter;
+		this.greedy = greedy;
+	}
+
+	/**
+	 * Makes this argument optional, without a default value.
+	 *
+	 * @return This argument
+	 */
+	public TypedArgument<V> optional()
+	{
+		return optional(null);
+	}
+
+	/**
+	 * Makes this argument optional.
+	 *
+	 * @param defaultValue
+	 *            The value used when the argument is missing or cannot be converted
+	 *
+	 * @return This argument
+	 */
+	public TypedArgument<V> optional(V defaultValue)
+	{
+		this.argumentType = ArgumentType.OPTIONAL;
+		this.defaultValue = defaultValue;
+		return this;
+	}
+
+	public String getName()
+	{
+		return argumentName;
+	}
+
+	public ArgumentConverter<V> getConverter()
+	{
+		return converter;
+	}
+
+	/**
+	 * Checks whether this argument takes every remaining token, as written.
+	 *
+	 * @return {@code true} if this argument is greedy
+	 */
+	public boolean isGreedy()
+	{
+		return greedy;
+	}
+
+	public V getDefaultValue()
+	{
+		return defaultValue;
+	}
+}
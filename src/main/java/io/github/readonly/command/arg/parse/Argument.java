@@ -26,12 +26,25 @@ package io.github.readonly.command.arg.parse;
 
 import java.util.function.Predicate;
 
-public class Argument implements IArgument<String>
+public class Argument implements IArgument<String>, CharSequence
 {
 
-	private String argument;
+	private final CharSequence	argument;
+	private String				value;
 
 	public Argument(String arg)
+	{
+		this((CharSequence) arg);
+	}
+
+	/**
+	 * Creates an Argument backed by a view over the text it was read from. The view is only copied into a String once
+	 * {@link #val()} is called.
+	 *
+	 * @param arg
+	 *            The text of the argument
+	 */
+	public Argument(CharSequence arg)
 	{
 		this.argument = arg;
 	}
@@ -39,11 +52,41 @@ public class Argument implements IArgument<String>
 	@Override
 	public String val()
 	{
-		return argument;
+		String value = this.value;
+		if (value == null)
+		{
+			value = argument.toString();
+			this.value = value;
+		}
+		return value;
 	}
 
 	public boolean validate(Predicate<String> predicate)
 	{
-		return predicate.test(argument);
+		return predicate.test(val());
+	}
+
+	@Override
+	public int length()
+	{
+		return argument.length();
+	}
+
+	@Override
+	public char charAt(int index)
+	{
+		return argument.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end)
+	{
+		return argument.subSequence(start, end);
+	}
+
+	@Override
+	public String toString()
+	{
+		return val();
 	}
 }
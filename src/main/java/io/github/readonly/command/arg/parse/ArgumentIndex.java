@@ -24,78 +24,356 @@
 
 package io.github.readonly.command.arg.parse;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * The arguments of a command, split into tokens on whitespace.
+ * <p>
+ * A token wrapped in double quotes may contain whitespace, and a backslash makes the character following it literal,
+ * so {@code say "hello world" \"hi\"} holds the tokens {@code say}, {@code hello world} and {@code "hi"}. Quotes may
+ * also appear in the middle of a token, as in {@code --name="John Smith"}.
+ * <p>
+ * Nothing is split until a token is first asked for, and then the arguments are walked only once, recording where each
+ * token starts and ends in an {@code int} array. Tokens are returned as views over the original String; only those
+ * containing quotes in the middle or escapes are copied, and only when read. Routing to a child command with
+ * {@link #getHead()} and {@link #getTail()} does not split the arguments at all.
+ */
 public class ArgumentIndex
 {
 
-	private List<IArgument<String>>	idx;
-	private String					args;
-	private final Pattern			multiWord	= Pattern.compile("(?>\")\\s*(?:.*?)\\s*(?>\")");
+	// Every token takes up three ints: where its text starts, where it ends,
+	// and where its raw text starts shifted left by one, with the low bit
+	// set if its quotes and escapes still have to be removed
+	private static final int		TOKEN_INTS	= 3;
+	private static final int		UNESCAPE	= 1;
+	private static final Argument	EMPTY		= new Argument("");
+
+	private final String	args;
+	private final int		offset;
+	private volatile int[]	tokens;
 
 	public ArgumentIndex(String args)
 	{
-		this.idx = new LinkedList<>();
-		buildIndex(args);
+		this(args == null ? "" : args, 0, null);
 	}
 
-	private void buildIndex(String args)
+	private ArgumentIndex(String args, int offset, int[] tokens)
 	{
-		if (args.length() > 0)
+		this.args = args;
+		this.offset = offset;
+		this.tokens = tokens;
+	}
+
+	public Argument getArg(Integer index)
+	{
+		int[] tokens = tokens();
+		if ((index < 0) || (index >= (tokens.length / TOKEN_INTS)))
 		{
-			this.args = args;
-			String	removeFromArr	= "";
-			Matcher	matcher			= multiWord.matcher(args);
-			if (matcher.find())
-			{
-				removeFromArr = matcher.group(0).replace("'", "");
-				args = args.replace(matcher.group(0), "");
-			}
-			String[]	idxArray	= args.split("\\s+");
-			int			c			= 0;
-			for (int i = 0; i < idxArray.length; i++)
+			return EMPTY;
+		}
+		int	i		= index * TOKEN_INTS;
+		int	start	= tokens[i];
+		int	end		= tokens[i + 1];
+		return new Argument((tokens[i + 2] & UNESCAPE) != 0 ? new Unescaped(args, start, end) : new Span(args, start, end));
+	}
+
+	public boolean isEmpty()
+	{
+		int[] tokens = this.tokens;
+		if (tokens != null)
+		{
+			return tokens.length == 0;
+		}
+		return skipWhitespace(offset) == args.length();
+	}
+
+	public int count()
+	{
+		return tokens().length / TOKEN_INTS;
+	}
+
+	/**
+	 * Gets the raw arguments starting at a token, quotes and escapes included.
+	 *
+	 * @param index
+	 *            The index of the first token
+	 *
+	 * @return A view of the arguments from the token onwards, empty if there is no such token
+	 */
+	public CharSequence getRemainder(int index)
+	{
+		int[] tokens = tokens();
+		if ((index < 0) || (index >= (tokens.length / TOKEN_INTS)))
+		{
+			return "";
+		}
+		return new Span(args, tokens[(index * TOKEN_INTS) + 2] >>> 1, args.length());
+	}
+
+	/**
+	 * Gets the tokens as an unmodifiable List, reading each token only when it is gotten from the List.
+	 *
+	 * @return The tokens
+	 */
+	public List<IArgument<String>> list()
+	{
+		return new AbstractList<IArgument<String>>()
+		{
+
+			@Override
+			public IArgument<String> get(int index)
 			{
-				idx.add(i, new Argument(idxArray[i]));
-				c = +1;
+				if ((index < 0) || (index >= size()))
+				{
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+				}
+				return getArg(index);
 			}
-			if (removeFromArr.length() > 0)
+
+			@Override
+			public int size()
 			{
-				idx.add(c, new Argument(removeFromArr));
+				return count();
 			}
+		};
+	}
+
+	/**
+	 * Gets the first word of the arguments, which may name a child command. Unlike tokens, the word ends at the first
+	 * whitespace regardless of quotes.
+	 *
+	 * @return A view of the first word, empty if there are no arguments
+	 */
+	public CharSequence getHead()
+	{
+		int start = skipWhitespace(offset);
+		return new Span(args, start, skipWord(start));
+	}
+
+	/**
+	 * Gets the arguments following the {@linkplain #getHead() first word}, to pass on to a child command. The
+	 * returned index shares the String of this one, and the tokens as well if they were already split.
+	 *
+	 * @return The remaining arguments
+	 */
+	public ArgumentIndex getTail()
+	{
+		int	start	= skipWhitespace(offset);
+		int	end		= skipWord(start);
+		int	from	= skipWhitespace(end);
+		int[] tokens = this.tokens;
+		if ((tokens != null) && (tokens.length > 0) && (tokens[0] == start) && (tokens[1] == end) && ((tokens[2] & UNESCAPE) == 0))
+		{
+			return new ArgumentIndex(args, from, Arrays.copyOfRange(tokens, TOKEN_INTS, tokens.length));
 		}
+		return new ArgumentIndex(args, from, null);
 	}
 
-	public Argument getArg(Integer index)
+	/**
+	 * Splits the arguments into the first word and the remaining arguments.
+	 *
+	 * @return An array holding the first word and, if there is anything following it, the remaining arguments
+	 *
+	 * @see #getHead()
+	 * @see #getTail()
+	 */
+	public String[] getChildArgArray()
 	{
-		try
+		int	start	= skipWhitespace(offset);
+		int	end		= skipWord(start);
+		if (end == args.length())
 		{
-			return (Argument) idx.get(index);
-		} catch (IndexOutOfBoundsException e)
+			return new String[]
+				{ args.substring(start, end) };
+		}
+		return new String[]
+			{ args.substring(start, end), args.substring(skipWhitespace(end)) };
+	}
+
+	private int[] tokens()
+	{
+		int[] tokens = this.tokens;
+		if (tokens == null)
 		{
-			return new Argument("");
+			tokens = tokenize();
+			this.tokens = tokens;
 		}
+		return tokens;
 	}
 
-	public boolean isEmpty()
+	private int[] tokenize()
+	{
+		final String	args	= this.args;
+		final int		length	= args.length();
+		int[]			tokens	= new int[4 * TOKEN_INTS];
+		int				size	= 0;
+		int				i		= skipWhitespace(offset);
+		while (i < length)
+		{
+			int		start	= i;
+			int		quotes	= 0;
+			boolean	escaped	= false;
+			boolean	quoted	= false;
+			for (; i < length; i++)
+			{
+				char c = args.charAt(i);
+				if ((c == '\\') && ((i + 1) < length))
+				{
+					escaped = true;
+					i++;
+				} else if (c == '"')
+				{
+					quoted = !quoted;
+					quotes++;
+				} else if (!quoted && Character.isWhitespace(c))
+				{
+					break;
+				}
+			}
+			if (size == tokens.length)
+			{
+				tokens = Arrays.copyOf(tokens, size * 2);
+			}
+			if (!escaped && (quotes == 2) && (args.charAt(start) == '"') && (args.charAt(i - 1) == '"'))
+			{
+				// A plain quoted token is still a view, just without its quotes
+				tokens[size] = start + 1;
+				tokens[size + 1] = i - 1;
+				tokens[size + 2] = start << 1;
+			} else
+			{
+				tokens[size] = start;
+				tokens[size + 1] = i;
+				tokens[size + 2] = (start << 1) | (escaped || (quotes > 0) ? UNESCAPE : 0);
+			}
+			size += TOKEN_INTS;
+			i = skipWhitespace(i);
+		}
+		return size == tokens.length ? tokens : Arrays.copyOf(tokens, size);
+	}
+
+	private int skipWhitespace(int i)
 	{
-		return idx.isEmpty();
+		while ((i < args.length()) && Character.isWhitespace(args.charAt(i)))
+		{
+			i++;
+		}
+		return i;
 	}
 
-	public int count()
+	private int skipWord(int i)
 	{
-		return idx.size();
+		while ((i < args.length()) && !Character.isWhitespace(args.charAt(i)))
+		{
+			i++;
+		}
+		return i;
 	}
 
-	public List<IArgument<String>> list()
+	private static final class Span implements CharSequence
 	{
-		return idx;
+
+		private final String	source;
+		private final int		start;
+		private final int		end;
+
+		private Span(String source, int start, int end)
+		{
+			this.source = source;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length()
+		{
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index)
+		{
+			if ((index < 0) || (index >= length()))
+			{
+				throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length());
+			}
+			return source.charAt(start + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end)
+		{
+			if ((start < 0) || (end > length()) || (start > end))
+			{
+				throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + length());
+			}
+			return new Span(source, this.start + start, this.start + end);
+		}
+
+		@Override
+		public String toString()
+		{
+			return source.substring(start, end);
+		}
 	}
 
-	public String[] getChildArgArray()
+	private static final class Unescaped implements CharSequence
 	{
-		return args.split("\\s+", 2);
+
+		private final String	source;
+		private final int		start;
+		private final int		end;
+		private String			value;
+
+		private Unescaped(String source, int start, int end)
+		{
+			this.source = source;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length()
+		{
+			return toString().length();
+		}
+
+		@Override
+		public char charAt(int index)
+		{
+			return toString().charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end)
+		{
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public String toString()
+		{
+			String value = this.value;
+			if (value == null)
+			{
+				StringBuilder builder = new StringBuilder(end - start);
+				for (int i = start; i < end; i++)
+				{
+					char c = source.charAt(i);
+					if ((c == '\\') && ((i + 1) < end))
+					{
+						builder.append(source.charAt(++i));
+					} else if (c != '"')
+					{
+						builder.append(c);
+					}
+				}
+				value = builder.toString();
+				this.value = value;
+			}
+			return value;
+		}
 	}
 }
@@ -0,0 +1,410 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.cooldown;
+
+import io.github.readonly.api.CooldownScope;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * Tracks command cooldowns by composite primitive keys, held in a {@link io.github.readonly.command.cooldown.CooldownStore
+ * CooldownStore}.
+ * <p>
+ * A cooldown is identified by the command name, its {@link io.github.readonly.api.CooldownScope CooldownScope} and up
+ * to two snowflakes, so checking one never formats or allocates a key String. The name is folded into the key with a
+ * stable hash rather than a per-process ID, so a store shared between processes, such as a
+ * {@link io.github.readonly.command.cooldown.MappedCooldownStore MappedCooldownStore}, sees the same key for the same
+ * cooldown everywhere.
+ * <p>
+ * Unless another store is provided, cooldowns are held in an {@link io.github.readonly.command.cooldown.InMemoryCooldownStore
+ * InMemoryCooldownStore}.
+ */
+public final class CooldownEngine
+{
+
+	/**
+	 * The number of cooldowns held by a CooldownEngine created without a capacity or store.
+	 */
+	public static final int DEFAULT_CAPACITY = InMemoryCooldownStore.DEFAULT_CAPACITY;
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	// The low byte of a command key is a scope ordinal, so it can never be all ones
+	private static final long STRING_KEY = -1L;
+
+	private final CooldownStore store;
+
+	/**
+	 * Creates a CooldownEngine holding up to {@link #DEFAULT_CAPACITY} cooldowns in memory.
+	 */
+	public CooldownEngine()
+	{
+		this(new InMemoryCooldownStore());
+	}
+
+	/**
+	 * Creates a CooldownEngine holding cooldowns in memory.
+	 *
+	 * @param capacity
+	 *            The maximum number of cooldowns held at once
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the capacity is not positive
+	 */
+	public CooldownEngine(int capacity)
+	{
+		this(new InMemoryCooldownStore(capacity));
+	}
+
+	/**
+	 * Creates a CooldownEngine holding cooldowns in the provided store.
+	 *
+	 * @param store
+	 *            The store to hold cooldowns in
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the store is {@code null}
+	 */
+	public CooldownEngine(CooldownStore store)
+	{
+		Checks.notNull(store, "Cooldown store");
+		this.store = store;
+	}
+
+	/**
+	 * Gets the store cooldowns are held in.
+	 *
+	 * @return The CooldownStore
+	 */
+	public CooldownStore getStore()
+	{
+		return store;
+	}
+
+	/**
+	 * Gets the shard ID to pass to this engine for the provided JDA.
+	 *
+	 * @param jda
+	 *            The JDA
+	 *
+	 * @return The shard ID, or {@code -1} if the JDA is not sharded
+	 */
+	public static int shardOf(JDA jda)
+	{
+		JDA.ShardInfo info = jda.getShardInfo();
+		return (info == null) || (info == JDA.ShardInfo.SINGLE) ? -1 : info.getShardId();
+	}
+
+	/**
+	 * Checks the cooldown of a command and, if it is not on cooldown, applies it, as a single atomic step.
+	 * <p>
+	 * The scope falls back the same way {@link io.github.readonly.command.Command#getCooldownKey
+	 * Command#getCooldownKey} does: guild scopes fall back to channel scopes outside of a guild, and shard scopes fall
+	 * back to global or user scopes when not sharded.
+	 *
+	 * @param name
+	 *            The name of the command
+	 * @param scope
+	 *            The scope of the cooldown
+	 * @param userId
+	 *            The ID of the user calling the command
+	 * @param channelId
+	 *            The ID of the channel the command was called in
+	 * @param guildId
+	 *            The ID of the guild the command was called in, or {@code 0} if not called in one
+	 * @param shardId
+	 *            The ID of the shard the command was called on, or {@code -1} if not sharded
+	 * @param seconds
+	 *            The length of the cooldown
+	 *
+	 * @return {@code 0} if the cooldown was applied, or the number of seconds remaining on the existing cooldown
+	 */
+	public int tryAcquire(String name, CooldownScope scope, long userId, long channelId, long guildId, int shardId, int seconds)
+	{
+		return toSeconds(access(Op.ACQUIRE, name, scope, userId, channelId, guildId, shardId, seconds));
+	}
+
+	/**
+	 * Gets the number of seconds remaining on the cooldown of a command.
+	 *
+	 * @param name
+	 *            The name of the command
+	 * @param scope
+	 *            The scope of the cooldown
+	 * @param userId
+	 *            The ID of the user calling the command
+	 * @param channelId
+	 *            The ID of the channel the command was called in
+	 * @param guildId
+	 *            The ID of the guild the command was called in, or {@code 0} if not called in one
+	 * @param shardId
+	 *            The ID of the shard the command was called on, or {@code -1} if not sharded
+	 *
+	 * @return The number of seconds remaining, or {@code 0} if the command is not on cooldown
+	 */
+	public int getRemaining(String name, CooldownScope scope, long userId, long channelId, long guildId, int shardId)
+	{
+		return toSeconds(access(Op.GET, name, scope, userId, channelId, guildId, shardId, 0));
+	}
+
+	/**
+	 * Applies the cooldown of a command, replacing any cooldown already applied.
+	 *
+	 * @param name
+	 *            The name of the command
+	 * @param scope
+	 *            The scope of the cooldown
+	 * @param userId
+	 *            The ID of the user calling the command
+	 * @param channelId
+	 *            The ID of the channel the command was called in
+	 * @param guildId
+	 *            The ID of the guild the command was called in, or {@code 0} if not called in one
+	 * @param shardId
+	 *            The ID of the shard the command was called on, or {@code -1} if not sharded
+	 * @param seconds
+	 *            The length of the cooldown
+	 */
+	public void apply(String name, CooldownScope scope, long userId, long channelId, long guildId, int shardId, int seconds)
+	{
+		access(Op.APPLY, name, scope, userId, channelId, guildId, shardId, seconds);
+	}
+
+	/**
+	 * Gets the number of nanoseconds remaining on a cooldown identified by a String key.
+	 * <p>
+	 * Keys in the format of {@link io.github.readonly.api.CooldownScope#genKey(String, long, long)
+	 * CooldownScope#genKey}, such as those from {@link io.github.readonly.command.Command#getCooldownKey
+	 * Command#getCooldownKey}, resolve to the same cooldown {@link #tryAcquire tryAcquire} checks. Any other key names a
+	 * cooldown of its own, never checked by commands.
+	 *
+	 * @param key
+	 *            The key of the cooldown
+	 *
+	 * @return The number of nanoseconds remaining, or {@code 0} if there is no such cooldown
+	 */
+	public long getRemainingNanos(String key)
+	{
+		long[] resolved = resolve(key);
+		return store.getRemaining(resolved[0], resolved[1], resolved[2]);
+	}
+
+	/**
+	 * Gets the number of seconds remaining on a cooldown identified by a String key, resolved as described in
+	 * {@link #getRemainingNanos(String)}.
+	 *
+	 * @param key
+	 *            The key of the cooldown
+	 *
+	 * @return The number of seconds remaining, or {@code 0} if there is no such cooldown
+	 */
+	public int getRemaining(String key)
+	{
+		return toSeconds(getRemainingNanos(key));
+	}
+
+	/**
+	 * Applies a cooldown identified by a String key, resolved as described in {@link #getRemainingNanos(String)},
+	 * replacing any cooldown already applied under it.
+	 *
+	 * @param key
+	 *            The key of the cooldown
+	 * @param seconds
+	 *            The length of the cooldown
+	 */
+	public void apply(String key, int seconds)
+	{
+		long[] resolved = resolve(key);
+		store.apply(resolved[0], resolved[1], resolved[2], seconds * NANOS_PER_SECOND);
+	}
+
+	/**
+	 * Removes every expired cooldown.
+	 */
+	public void clean()
+	{
+		store.clean();
+	}
+
+	/**
+	 * Gets the number of cooldowns held, possibly including expired cooldowns that have not been removed yet.
+	 *
+	 * @return The number of cooldowns
+	 */
+	public int size()
+	{
+		return store.size();
+	}
+
+	private long access(Op op, String name, CooldownScope scope, long userId, long channelId, long guildId, int shardId, int seconds)
+	{
+		CooldownScope	resolved;
+		long			idOne;
+		long			idTwo	= 0;
+		switch (scope)
+		{
+		case USER_GUILD:
+			resolved = guildId != 0 ? CooldownScope.USER_GUILD : CooldownScope.USER_CHANNEL;
+			idOne = userId;
+			idTwo = guildId != 0 ? guildId : channelId;
+			break;
+		case USER_CHANNEL:
+			resolved = scope;
+			idOne = userId;
+			idTwo = channelId;
+			break;
+		case GUILD:
+			resolved = guildId != 0 ? CooldownScope.GUILD : CooldownScope.CHANNEL;
+			idOne = guildId != 0 ? guildId : channelId;
+			break;
+		case CHANNEL:
+			resolved = scope;
+			idOne = channelId;
+			break;
+		case SHARD:
+			resolved = shardId >= 0 ? CooldownScope.SHARD : CooldownScope.GLOBAL;
+			idOne = Math.max(0, shardId);
+			break;
+		case USER_SHARD:
+			resolved = shardId >= 0 ? CooldownScope.USER_SHARD : CooldownScope.USER;
+			idOne = userId;
+			idTwo = Math.max(0, shardId);
+			break;
+		case GLOBAL:
+			resolved = scope;
+			idOne = 0;
+			break;
+		case USER:
+		default:
+			resolved = CooldownScope.USER;
+			idOne = userId;
+			break;
+		}
+		long a = (hash64(name) << 8) | resolved.ordinal();
+		switch (op)
+		{
+		case ACQUIRE:
+			return store.tryAcquire(a, idOne, idTwo, seconds * NANOS_PER_SECOND);
+		case APPLY:
+			store.apply(a, idOne, idTwo, seconds * NANOS_PER_SECOND);
+			return 0;
+		case GET:
+		default:
+			return store.getRemaining(a, idOne, idTwo);
+		}
+	}
+
+	/**
+	 * Resolves a String key to the composite key {@link #access access} uses for the same cooldown. Keys that are not in
+	 * the format of {@link io.github.readonly.api.CooldownScope#genKey(String, long, long) CooldownScope#genKey} are
+	 * kept apart under {@link #STRING_KEY}.
+	 */
+	private static long[] resolve(String key)
+	{
+		int last = key.lastIndexOf('|');
+		if (last > 0)
+		{
+			String tail = key.substring(last + 1);
+			if (tail.equals("Global"))
+			{
+				return new long[] { (hash64(key.substring(0, last)) << 8) | CooldownScope.GLOBAL.ordinal(), 0, 0 };
+			}
+			long id = parseId(tail);
+			if (id >= 0)
+			{
+				// A user scope with a second ID is "<name>|U:<userID>|<X>:<ID>"
+				int		previous	= key.lastIndexOf('|', last - 1);
+				long	userId		= previous > 0 ? parseId(key.substring(previous + 1, last)) : -1;
+				if ((userId >= 0) && (key.charAt(previous + 1) == 'U') && (tail.charAt(0) != 'U'))
+				{
+					CooldownScope scope = tail.charAt(0) == 'C' ? CooldownScope.USER_CHANNEL : tail.charAt(0) == 'G' ? CooldownScope.USER_GUILD : CooldownScope.USER_SHARD;
+					return new long[] { (hash64(key.substring(0, previous)) << 8) | scope.ordinal(), userId, id };
+				}
+				CooldownScope scope;
+				switch (tail.charAt(0))
+				{
+				case 'C':
+					scope = CooldownScope.CHANNEL;
+					break;
+				case 'G':
+					scope = CooldownScope.GUILD;
+					break;
+				case 'S':
+					scope = CooldownScope.SHARD;
+					break;
+				case 'U':
+				default:
+					scope = CooldownScope.USER;
+					break;
+				}
+				return new long[] { (hash64(key.substring(0, last)) << 8) | scope.ordinal(), id, 0 };
+			}
+		}
+		return new long[] { STRING_KEY, hash64(key), key.hashCode() };
+	}
+
+	/**
+	 * Parses a {@code <X>:<ID>} segment of a key, where X is one of U, C, G or S.
+	 *
+	 * @return The ID, or {@code -1} if the segment is not in that format
+	 */
+	private static long parseId(String segment)
+	{
+		if ((segment.length() < 3) || (segment.charAt(1) != ':') || ("UCGS".indexOf(segment.charAt(0)) < 0))
+		{
+			return -1;
+		}
+		try
+		{
+			return Long.parseLong(segment, 2, segment.length(), 10);
+		} catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+
+	private static int toSeconds(long nanos)
+	{
+		return nanos <= 0 ? 0 : (int) ((nanos + 999_999_999L) / 1_000_000_000L);
+	}
+
+	private static long hash64(String key)
+	{
+		// FNV-1a, independent of String#hashCode which forms the other half of the key
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++)
+		{
+			hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private enum Op
+	{
+		GET,
+		APPLY,
+		ACQUIRE
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.cooldown;
+
+/**
+ * Stores the deadlines of cooldowns for a {@link io.github.readonly.command.cooldown.CooldownEngine CooldownEngine}.
+ * <p>
+ * Cooldowns are identified by three longs. The CooldownEngine derives them from the command name, the
+ * {@link io.github.readonly.api.CooldownScope CooldownScope} and the IDs the scope applies to, using only stable
+ * hashes, so the same cooldown has the same key in every process. A store may therefore be shared between several
+ * processes, as {@link io.github.readonly.command.cooldown.MappedCooldownStore MappedCooldownStore} is.
+ * <p>
+ * All methods must be thread-safe. Each store decides which clock its deadlines are measured against; durations and
+ * remaining times are exchanged in nanoseconds.
+ *
+ * @see io.github.readonly.command.cooldown.InMemoryCooldownStore
+ * @see io.github.readonly.command.cooldown.MappedCooldownStore
+ */
+public interface CooldownStore
+{
+
+	/**
+	 * Checks a cooldown and, if it is not active, applies it, as a single atomic step.
+	 *
+	 * @param a
+	 *            The first part of the key
+	 * @param b
+	 *            The second part of the key
+	 * @param c
+	 *            The third part of the key
+	 * @param nanos
+	 *            The length of the cooldown, in nanoseconds
+	 *
+	 * @return {@code 0} if the cooldown was applied, or the nanoseconds remaining on the active cooldown
+	 */
+	long tryAcquire(long a, long b, long c, long nanos);
+
+	/**
+	 * Gets the time remaining on a cooldown.
+	 *
+	 * @param a
+	 *            The first part of the key
+	 * @param b
+	 *            The second part of the key
+	 * @param c
+	 *            The third part of the key
+	 *
+	 * @return The nanoseconds remaining, or {@code 0} if the cooldown is not active
+	 */
+	long getRemaining(long a, long b, long c);
+
+	/**
+	 * Applies a cooldown, replacing any cooldown already active under the same key.
+	 *
+	 * @param a
+	 *            The first part of the key
+	 * @param b
+	 *            The second part of the key
+	 * @param c
+	 *            The third part of the key
+	 * @param nanos
+	 *            The length of the cooldown, in nanoseconds
+	 */
+	void apply(long a, long b, long c, long nanos);
+
+	/**
+	 * Removes expired cooldowns, if the store holds on to them.
+	 */
+	void clean();
+
+	/**
+	 * Gets the number of cooldowns held, possibly including expired cooldowns that have not been removed yet.
+	 *
+	 * @return The number of cooldowns
+	 */
+	int size();
+}
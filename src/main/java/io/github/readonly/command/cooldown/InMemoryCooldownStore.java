@@ -0,0 +1,447 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.cooldown;
+
+import java.util.Arrays;
+
+/**
+ * A {@link io.github.readonly.command.cooldown.CooldownStore CooldownStore} held in the memory of this process,
+ * expiring cooldowns on hierarchical timing wheels.
+ * <p>
+ * Deadlines are taken from the monotonic {@link System#nanoTime()} clock, so cooldowns are not affected by changes to
+ * the wall clock. Cooldowns are held in a fixed number of segments, each an open-addressed table with a fixed capacity
+ * guarded by its own lock. Every segment also keeps its cooldowns on a four level timing wheel of 64 buckets per level,
+ * with a tick of about a second, which covers over 200 days. Expired cooldowns are removed as the wheel of their
+ * segment is advanced, which happens whenever the segment is accessed, and on {@link #clean()}. When a segment is full,
+ * the cooldown closest to expiring is dropped to make room, so memory use is bounded by the capacity given at
+ * construction.
+ */
+public final class InMemoryCooldownStore implements CooldownStore
+{
+
+	/**
+	 * The number of cooldowns held by an InMemoryCooldownStore created without a capacity.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 15;
+
+	private static final int	SEGMENT_BITS	= 5;
+	private static final int	SEGMENT_COUNT	= 1 << SEGMENT_BITS;
+	private static final int	TICK_SHIFT		= 30;
+	private static final int	WHEEL_BITS		= 6;
+	private static final int	WHEEL_SIZE		= 1 << WHEEL_BITS;
+	private static final int	WHEEL_LEVELS	= 4;
+	private static final long	WHEEL_SPAN		= 1L << (WHEEL_BITS * WHEEL_LEVELS);
+
+	private final Segment[]	segments;
+	private final long		origin;
+
+	/**
+	 * Creates an InMemoryCooldownStore holding up to {@link #DEFAULT_CAPACITY} cooldowns.
+	 */
+	public InMemoryCooldownStore()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an InMemoryCooldownStore.
+	 *
+	 * @param capacity
+	 *            The maximum number of cooldowns held at once, rounded up so every segment holds a power of two
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the capacity is not positive
+	 */
+	public InMemoryCooldownStore(int capacity)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("Capacity must be at least 1!");
+		}
+		int perSegment = Integer.highestOneBit((Math.max(8, ((capacity + SEGMENT_COUNT) - 1) / SEGMENT_COUNT) * 2) - 1);
+		this.origin = System.nanoTime();
+		this.segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; i++)
+		{
+			segments[i] = new Segment(perSegment * 2);
+		}
+	}
+
+	@Override
+	public long tryAcquire(long a, long b, long c, long nanos)
+	{
+		return access(Op.ACQUIRE, a, b, c, nanos);
+	}
+
+	@Override
+	public long getRemaining(long a, long b, long c)
+	{
+		return access(Op.GET, a, b, c, 0);
+	}
+
+	@Override
+	public void apply(long a, long b, long c, long nanos)
+	{
+		access(Op.APPLY, a, b, c, nanos);
+	}
+
+	@Override
+	public void clean()
+	{
+		long tick = tick(System.nanoTime());
+		for (Segment segment : segments)
+		{
+			synchronized (segment)
+			{
+				segment.advance(tick);
+			}
+		}
+	}
+
+	@Override
+	public int size()
+	{
+		int size = 0;
+		for (Segment segment : segments)
+		{
+			synchronized (segment)
+			{
+				size += segment.size;
+			}
+		}
+		return size;
+	}
+
+	private long access(Op op, long a, long b, long c, long nanos)
+	{
+		long	hash	= mix(a, b, c);
+		Segment	segment	= segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+		long	now		= System.nanoTime();
+		synchronized (segment)
+		{
+			segment.advance(tick(now));
+			int		slot		= segment.find(a, b, c, (int) hash);
+			long	remaining	= slot < 0 ? 0 : segment.deadlines[slot] - now;
+			if (remaining <= 0)
+			{
+				remaining = 0;
+			}
+			if ((op == Op.APPLY) || ((op == Op.ACQUIRE) && (remaining == 0)))
+			{
+				long deadline = now + nanos;
+				// Expire on the first tick starting after the deadline
+				segment.put(slot, a, b, c, (int) hash, deadline, tick(deadline) + 1);
+				return op == Op.APPLY ? nanos : 0;
+			}
+			return remaining;
+		}
+	}
+
+	private long tick(long nanoTime)
+	{
+		return (nanoTime - origin) >>> TICK_SHIFT;
+	}
+
+	static long mix(long a, long b, long c)
+	{
+		long h = a * 0x9E3779B97F4A7C15L;
+		h = ((h ^ (h >>> 32)) ^ b) * 0xBF58476D1CE4E5B9L;
+		h = ((h ^ (h >>> 29)) ^ c) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	private enum Op
+	{
+		GET,
+		APPLY,
+		ACQUIRE
+	}
+
+	/**
+	 * An open-addressed table of cooldowns with its own timing wheel. Slots never move once filled, so they double as
+	 * the nodes of the wheel's doubly-linked bucket lists. Removed slots are left as tombstones until the next
+	 * rebuild.
+	 */
+	private static final class Segment
+	{
+
+		private static final byte	EMPTY		= 0;
+		private static final byte	LIVE		= 1;
+		private static final byte	TOMBSTONE	= 2;
+
+		private final int	mask;
+		private final int	maxLoad;
+		private final int[]	heads;
+		private long[]		keyA;
+		private long[]		keyB;
+		private long[]		keyC;
+		private long[]		deadlines;
+		private long[]		deadlineTicks;
+		private int[]		hashes;
+		private byte[]		states;
+		private int[]		next;
+		private int[]		prev;
+		private int[]		buckets;
+		private int			size;
+		private int			tombstones;
+		private long		currentTick;
+
+		private Segment(int capacity)
+		{
+			this.mask = capacity - 1;
+			this.maxLoad = (capacity * 3) / 4;
+			this.heads = new int[WHEEL_LEVELS * WHEEL_SIZE];
+			Arrays.fill(heads, -1);
+			allocate(capacity);
+		}
+
+		private void allocate(int capacity)
+		{
+			keyA = new long[capacity];
+			keyB = new long[capacity];
+			keyC = new long[capacity];
+			deadlines = new long[capacity];
+			deadlineTicks = new long[capacity];
+			hashes = new int[capacity];
+			states = new byte[capacity];
+			next = new int[capacity];
+			prev = new int[capacity];
+			buckets = new int[capacity];
+		}
+
+		private int find(long a, long b, long c, int hash)
+		{
+			for (int i = hash & mask;; i = (i + 1) & mask)
+			{
+				byte state = states[i];
+				if (state == EMPTY)
+				{
+					return -1;
+				}
+				if ((state == LIVE) && (hashes[i] == hash) && (keyA[i] == a) && (keyB[i] == b) && (keyC[i] == c))
+				{
+					return i;
+				}
+			}
+		}
+
+		private void put(int slot, long a, long b, long c, int hash, long deadline, long deadlineTick)
+		{
+			if (slot >= 0)
+			{
+				unlink(slot);
+			} else
+			{
+				if (size >= maxLoad)
+				{
+					evictOne();
+				}
+				if ((size + tombstones) >= maxLoad)
+				{
+					rebuild();
+				}
+				slot = hash & mask;
+				while (states[slot] == LIVE)
+				{
+					slot = (slot + 1) & mask;
+				}
+				if (states[slot] == TOMBSTONE)
+				{
+					tombstones--;
+				}
+				states[slot] = LIVE;
+				keyA[slot] = a;
+				keyB[slot] = b;
+				keyC[slot] = c;
+				hashes[slot] = hash;
+				size++;
+			}
+			deadlines[slot] = deadline;
+			deadlineTicks[slot] = deadlineTick;
+			link(slot, currentTick + 1);
+		}
+
+		private void remove(int slot)
+		{
+			states[slot] = TOMBSTONE;
+			buckets[slot] = -1;
+			size--;
+			tombstones++;
+		}
+
+		private void link(int slot, long minTick)
+		{
+			long	target	= Math.max(deadlineTicks[slot], minTick);
+			long	delta	= target - currentTick;
+			if (delta >= WHEEL_SPAN)
+			{
+				target = (currentTick + WHEEL_SPAN) - 1;
+				delta = WHEEL_SPAN - 1;
+			}
+			int level = 0;
+			while ((level < (WHEEL_LEVELS - 1)) && (delta >= (1L << (WHEEL_BITS * (level + 1)))))
+			{
+				level++;
+			}
+			int bucket = (level * WHEEL_SIZE) + (int) ((target >>> (WHEEL_BITS * level)) & (WHEEL_SIZE - 1));
+			int head = heads[bucket];
+			next[slot] = head;
+			prev[slot] = -1;
+			if (head >= 0)
+			{
+				prev[head] = slot;
+			}
+			heads[bucket] = slot;
+			buckets[slot] = bucket;
+		}
+
+		private void unlink(int slot)
+		{
+			int bucket = buckets[slot];
+			if (bucket < 0)
+			{
+				return;
+			}
+			if (prev[slot] >= 0)
+			{
+				next[prev[slot]] = next[slot];
+			} else
+			{
+				heads[bucket] = next[slot];
+			}
+			if (next[slot] >= 0)
+			{
+				prev[next[slot]] = prev[slot];
+			}
+			buckets[slot] = -1;
+		}
+
+		private int detach(int bucket)
+		{
+			int head = heads[bucket];
+			heads[bucket] = -1;
+			return head;
+		}
+
+		private void advance(long tick)
+		{
+			if (size == 0)
+			{
+				currentTick = Math.max(currentTick, tick);
+				return;
+			}
+			while (currentTick < tick)
+			{
+				currentTick++;
+				// Cascade higher levels first, so cooldowns moved down
+				// into this tick's bucket are expired right away
+				for (int level = WHEEL_LEVELS - 1; level > 0; level--)
+				{
+					if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0)
+					{
+						int slot = detach((level * WHEEL_SIZE) + (int) ((currentTick >>> (WHEEL_BITS * level)) & (WHEEL_SIZE - 1)));
+						while (slot >= 0)
+						{
+							int following = next[slot];
+							link(slot, currentTick);
+							slot = following;
+						}
+					}
+				}
+				int slot = detach((int) (currentTick & (WHEEL_SIZE - 1)));
+				while (slot >= 0)
+				{
+					int following = next[slot];
+					if (deadlineTicks[slot] <= currentTick)
+					{
+						remove(slot);
+					} else
+					{
+						link(slot, currentTick + 1);
+					}
+					slot = following;
+				}
+				if (size == 0)
+				{
+					currentTick = tick;
+				}
+			}
+		}
+
+		private void evictOne()
+		{
+			for (int level = 0; level < WHEEL_LEVELS; level++)
+			{
+				long position = currentTick >>> (WHEEL_BITS * level);
+				for (int i = 0; i < WHEEL_SIZE; i++)
+				{
+					int bucket = (level * WHEEL_SIZE) + (int) ((position + i) & (WHEEL_SIZE - 1));
+					int slot = heads[bucket];
+					if (slot >= 0)
+					{
+						unlink(slot);
+						remove(slot);
+						return;
+					}
+				}
+			}
+		}
+
+		private void rebuild()
+		{
+			long[]	oldA		= keyA;
+			long[]	oldB		= keyB;
+			long[]	oldC		= keyC;
+			long[]	oldDeadline	= deadlines;
+			long[]	oldTicks	= deadlineTicks;
+			int[]	oldHashes	= hashes;
+			byte[]	oldStates	= states;
+			allocate(oldStates.length);
+			Arrays.fill(heads, -1);
+			size = 0;
+			tombstones = 0;
+			for (int i = 0; i < oldStates.length; i++)
+			{
+				if (oldStates[i] == LIVE)
+				{
+					int slot = oldHashes[i] & mask;
+					while (states[slot] == LIVE)
+					{
+						slot = (slot + 1) & mask;
+					}
+					states[slot] = LIVE;
+					keyA[slot] = oldA[i];
+					keyB[slot] = oldB[i];
+					keyC[slot] = oldC[i];
+					hashes[slot] = oldHashes[i];
+					deadlines[slot] = oldDeadline[i];
+					deadlineTicks[slot] = oldTicks[i];
+					size++;
+					link(slot, currentTick + 1);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,402 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.command.cooldown;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * A {@link io.github.readonly.command.cooldown.CooldownStore CooldownStore} held in a memory-mapped file, shared by
+ * every process on the same machine that maps the same file.
+ * <p>
+ * The file holds a fixed-size, open-addressed table of slots, each made of a 64-bit fingerprint of the key and the
+ * deadline of the cooldown. Slots are only ever changed with atomic compare-and-set operations on the mapped memory,
+ * so processes never need an operating system lock to read a cooldown. Updates to keys sharing a group of 64 home
+ * slots are additionally serialized by a spin lock held in the file, so a cooldown can never be inserted twice.
+ * A lock held for longer than {@value #LOCK_TIMEOUT_MILLIS}ms is assumed to belong to a process that died, and is
+ * taken over.
+ * <p>
+ * Deadlines are taken from the wall clock, since the monotonic clock of one process means nothing to another, so
+ * changes to the system time shorten or lengthen active cooldowns. Expired slots are reused in place, and when every
+ * slot a key may use is live, the cooldown closest to expiring is dropped, so the file never grows past the size set
+ * when it was created.
+ * <p>
+ * Every process mapping the same file must use the same capacity.
+ */
+public final class MappedCooldownStore implements CooldownStore, Closeable
+{
+
+	/**
+	 * The number of slots held by a MappedCooldownStore created without a capacity.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/**
+	 * The time after which a lock is assumed to be held by a process that died.
+	 */
+	public static final long LOCK_TIMEOUT_MILLIS = 5_000;
+
+	private static final VarHandle	LONGS			= MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	private static final long		MAGIC			= 0x4A44544F6F6C4344L;
+	private static final int		MAX_CAPACITY	= 1 << 26;
+	private static final int		HEADER_BYTES	= 64;
+	private static final int		SLOT_SHIFT		= 4;
+	private static final int		STRIPE_SHIFT	= 6;
+	private static final int		MAX_PROBE		= 32;
+	private static final long		NANOS_PER_MILLI	= 1_000_000L;
+
+	private final Path				file;
+	private final FileChannel		channel;
+	private final MappedByteBuffer	buffer;
+	private final int				capacity;
+	private final int				mask;
+	private final int				slotBase;
+
+	/**
+	 * Maps a MappedCooldownStore of {@link #DEFAULT_CAPACITY} slots, creating the file if it does not exist.
+	 *
+	 * @param file
+	 *            The file to map
+	 *
+	 * @throws java.io.IOException
+	 *             If the file cannot be mapped, or was created with another capacity
+	 */
+	public MappedCooldownStore(Path file) throws IOException
+	{
+		this(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Maps a MappedCooldownStore, creating the file if it does not exist.
+	 *
+	 * @param file
+	 *            The file to map
+	 * @param capacity
+	 *            The number of slots, rounded up to a power of two of at least 64
+	 *
+	 * @throws java.io.IOException
+	 *             If the file cannot be mapped, or was created with another capacity
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the file is {@code null}, or the capacity is not positive or larger than {@code 2^26}
+	 */
+	public MappedCooldownStore(Path file, int capacity) throws IOException
+	{
+		Checks.notNull(file, "File");
+		Checks.check((capacity > 0) && (capacity <= MAX_CAPACITY), "Capacity must be between 1 and %d!", MAX_CAPACITY);
+		this.file = file;
+		this.capacity = Math.max(1 << STRIPE_SHIFT, Integer.highestOneBit((capacity * 2) - 1));
+		this.mask = this.capacity - 1;
+		this.slotBase = HEADER_BYTES + ((this.capacity >>> STRIPE_SHIFT) * Long.BYTES);
+		long size = slotBase + ((long) this.capacity << SLOT_SHIFT);
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			// The file lock only guards creating the table, slots are
+			// guarded by the locks held in the table itself
+			try (FileLock lock = channel.lock())
+			{
+				ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.nativeOrder());
+				if (channel.size() == 0)
+				{
+					channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+					header.putLong(MAGIC).putLong(this.capacity).flip();
+					channel.write(header, 0);
+				} else
+				{
+					channel.read(header, 0);
+					header.flip();
+					if ((header.remaining() < header.capacity()) || (header.getLong() != MAGIC))
+					{
+						throw new IOException(file + " is not a cooldown store");
+					}
+					long existing = header.getLong();
+					if ((existing != this.capacity) || (channel.size() < size))
+					{
+						throw new IOException(file + " was created with a capacity of " + existing + ", not " + this.capacity);
+					}
+				}
+			}
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the file this store is mapped from.
+	 *
+	 * @return The file
+	 */
+	public Path getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Gets the number of slots in this store.
+	 *
+	 * @return The capacity
+	 */
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	@Override
+	public long tryAcquire(long a, long b, long c, long nanos)
+	{
+		return update(fingerprint(a, b, c), nanos, false);
+	}
+
+	@Override
+	public long getRemaining(long a, long b, long c)
+	{
+		long	fingerprint	= fingerprint(a, b, c);
+		int		home		= home(fingerprint);
+		long	now			= System.currentTimeMillis();
+		for (int i = 0; i < MAX_PROBE; i++)
+		{
+			int		offset		= slotOffset(home + i);
+			long	deadline	= getLong(offset + Long.BYTES);
+			long	key			= getLong(offset);
+			// A slot taken over between the two reads may pair the old
+			// deadline with the new key. Taking it over changes the deadline
+			// (or leaves an equal one, which reports the same time), so read
+			// both again until the deadline holds across the key
+			for (long check = getLong(offset + Long.BYTES); check != deadline; check = getLong(offset + Long.BYTES))
+			{
+				Thread.onSpinWait();
+				deadline = check;
+				key = getLong(offset);
+			}
+			if (key == 0)
+			{
+				return 0;
+			}
+			if ((key == fingerprint) && (deadline >= 0))
+			{
+				return remaining(deadline, now);
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public void apply(long a, long b, long c, long nanos)
+	{
+		update(fingerprint(a, b, c), nanos, true);
+	}
+
+	/**
+	 * Does nothing, as expired slots are reused in place.
+	 */
+	@Override
+	public void clean()
+	{
+		// Nothing to remove
+	}
+
+	/**
+	 * Gets the number of cooldowns that have not expired, counted by scanning every slot.
+	 *
+	 * @return The number of cooldowns
+	 */
+	@Override
+	public int size()
+	{
+		long	now		= System.currentTimeMillis();
+		int		size	= 0;
+		for (int i = 0; i < capacity; i++)
+		{
+			if (getLong(slotOffset(i) + Long.BYTES) > now)
+			{
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Closes the file channel. The mapping itself is released once this store is garbage collected, so the store must
+	 * not be used after being closed.
+	 *
+	 * @throws java.io.IOException
+	 *             If the channel cannot be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	private long update(long fingerprint, long nanos, boolean replace)
+	{
+		int		home	= home(fingerprint);
+		int		lock	= HEADER_BYTES + ((home >>> STRIPE_SHIFT) * Long.BYTES);
+		long	stamp	= lock(lock);
+		try
+		{
+			for (;;)
+			{
+				long	now			= System.currentTimeMillis();
+				long	deadline	= now + Math.max(1, (nanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+				int		free		= -1;
+				long	freeValue	= 0;
+				int		victim		= -1;
+				long	victimValue	= Long.MAX_VALUE;
+				boolean	found		= false;
+				for (int i = 0; i < MAX_PROBE; i++)
+				{
+					int		offset	= slotOffset(home + i);
+					long	current	= getLong(offset + Long.BYTES);
+					long	key		= getLong(offset);
+					if (key == 0)
+					{
+						if ((current == 0) || isReclaimable(current, now))
+						{
+							if (free < 0)
+							{
+								free = offset;
+								freeValue = current;
+							}
+							break;
+						}
+						// Probe sequences cross stripes, so a writer holding
+						// another lock is claiming this slot. It is about to
+						// hold a key, so the probe sequence goes on past it
+						continue;
+					}
+					if ((key == fingerprint) && (current >= 0))
+					{
+						found = true;
+						if (!replace && (current > now))
+						{
+							return remaining(current, now);
+						}
+						// Fails if another process took over the slot, in
+						// which case the key is gone and is inserted again
+						if (LONGS.compareAndSet(buffer, offset + Long.BYTES, current, deadline))
+						{
+							return replace ? nanos : 0;
+						}
+						break;
+					}
+					if (isReclaimable(current, now))
+					{
+						if (free < 0)
+						{
+							free = offset;
+							freeValue = current;
+						}
+					} else if ((current >= 0) && (current < victimValue))
+					{
+						victim = offset;
+						victimValue = current;
+					}
+				}
+				if (found)
+				{
+					continue;
+				}
+				if (free < 0)
+				{
+					free = victim;
+					freeValue = victimValue;
+				}
+				// Mark the slot as being reclaimed with the negated time, so
+				// a process dying halfway does not leave it unusable for good
+				if ((free >= 0) && LONGS.compareAndSet(buffer, free + Long.BYTES, freeValue, -now))
+				{
+					LONGS.setVolatile(buffer, free, fingerprint);
+					LONGS.setVolatile(buffer, free + Long.BYTES, deadline);
+					return replace ? nanos : 0;
+				}
+				Thread.onSpinWait();
+			}
+		} finally
+		{
+			LONGS.compareAndSet(buffer, lock, stamp, 0L);
+		}
+	}
+
+	private long lock(int offset)
+	{
+		for (;;)
+		{
+			long	held	= getLong(offset);
+			long	now		= System.currentTimeMillis();
+			if (((held == 0) || ((now - held) > LOCK_TIMEOUT_MILLIS)) && LONGS.compareAndSet(buffer, offset, held, now))
+			{
+				return now;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	private long getLong(int offset)
+	{
+		return (long) LONGS.getVolatile(buffer, offset);
+	}
+
+	private int slotOffset(int slot)
+	{
+		return slotBase + ((slot & mask) << SLOT_SHIFT);
+	}
+
+	private int home(long fingerprint)
+	{
+		return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+	}
+
+	private static boolean isReclaimable(long deadline, long now)
+	{
+		return deadline >= 0 ? deadline <= now : (now + deadline) > LOCK_TIMEOUT_MILLIS;
+	}
+
+	private static long remaining(long deadline, long now)
+	{
+		return deadline > now ? (deadline - now) * NANOS_PER_MILLI : 0;
+	}
+
+	private static long fingerprint(long a, long b, long c)
+	{
+		long hash = InMemoryCooldownStore.mix(a, b, c);
+		// Zero marks an empty slot
+		return hash == 0 ? 1 : hash;
+	}
+}
@@ -24,6 +24,8 @@
 
 package io.github.readonly.command.ctx;
 
+import io.github.readonly.command.CommandMetrics;
+import io.github.readonly.command.cooldown.CooldownEngine;
 import io.github.readonly.command.event.MessageContextMenuEvent;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
@@ -54,15 +56,13 @@ public abstract class MessageContextMenu extends ContextMenu
 		// cooldown check, ignoring owner
 		if ((cooldown > 0) && !(event.isOwner()))
 		{
-			String	key			= getCooldownKey(event);
-			int		remaining	= event.getClient().getRemainingCooldown(key);
+			long	guildId		= event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+			long	channelId	= event.getChannel() == null ? 0 : event.getChannel().getIdLong();
+			int		remaining	= event.getClient().getCooldownEngine().tryAcquire(name, cooldownScope, event.getUser().getIdLong(), channelId, guildId, CooldownEngine.shardOf(event.getJDA()), cooldown);
 			if (remaining > 0)
 			{
 				terminate(event, getCooldownError(event, remaining, event.getClient()));
 				return;
-			} else
-			{
-				event.getClient().applyCooldown(key, cooldown);
 			}
 		}
 
@@ -150,6 +150,7 @@ public abstract class MessageContextMenu extends ContextMenu
 			execute(event);
 		} catch (Throwable t)
 		{
+			event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.MESSAGE_CONTEXT_MENU, this, name, CommandMetrics.Counter.EXCEPTION);
 			if (event.getClient().getListener() != null)
 			{
 				event.getClient().getListener().onMessageContextMenuException(event, this, t);
@@ -159,6 +160,7 @@ public abstract class MessageContextMenu extends ContextMenu
 			throw t;
 		}
 
+		event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.MESSAGE_CONTEXT_MENU, this, name, CommandMetrics.Counter.COMPLETED);
 		if (event.getClient().getListener() != null)
 		{
 			event.getClient().getListener().onCompletedMessageContextMenu(event, this);
@@ -182,6 +184,7 @@ public abstract class MessageContextMenu extends ContextMenu
 		{
 			event.reply(message).setEphemeral(true).queue();
 		}
+		event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.MESSAGE_CONTEXT_MENU, this, name, CommandMetrics.Counter.TERMINATED);
 		if (event.getClient().getListener() != null)
 		{
 			event.getClient().getListener().onTerminatedMessageContextMenu(event, this);
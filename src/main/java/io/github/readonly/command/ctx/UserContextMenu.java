@@ -24,6 +24,8 @@
 
 package io.github.readonly.command.ctx;
 
+import io.github.readonly.command.CommandMetrics;
+import io.github.readonly.command.cooldown.CooldownEngine;
 import io.github.readonly.command.event.MessageContextMenuEvent;
 import io.github.readonly.command.event.UserContextMenuEvent;
 import net.dv8tion.jda.api.Permission;
@@ -104,15 +106,13 @@ public abstract class UserContextMenu extends ContextMenu
 		// cooldown check, ignoring owner
 		if ((cooldown > 0) && !(event.isOwner()))
 		{
-			String	key			= getCooldownKey(event);
-			int		remaining	= event.getClient().getRemainingCooldown(key);
+			long	guildId		= event.getGuild() == null ? 0 : event.getGuild().getIdLong();
+			long	channelId	= event.getChannel() == null ? 0 : event.getChannel().getIdLong();
+			int		remaining	= event.getClient().getCooldownEngine().tryAcquire(name, cooldownScope, event.getUser().getIdLong(), channelId, guildId, CooldownEngine.shardOf(event.getJDA()), cooldown);
 			if (remaining > 0)
 			{
 				terminate(event, getCooldownError(event, remaining, event.getClient()));
 				return;
-			} else
-			{
-				event.getClient().applyCooldown(key, cooldown);
 			}
 		}
 
@@ -200,6 +200,7 @@ public abstract class UserContextMenu extends ContextMenu
 			execute(event);
 		} catch (Throwable t)
 		{
+			event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.USER_CONTEXT_MENU, this, name, CommandMetrics.Counter.EXCEPTION);
 			if (event.getClient().getListener() != null)
 			{
 				event.getClient().getListener().onUserContextMenuException(event, this, t);
@@ -209,6 +210,7 @@ public abstract class UserContextMenu extends ContextMenu
 			throw t;
 		}
 
+		event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.USER_CONTEXT_MENU, this, name, CommandMetrics.Counter.COMPLETED);
 		if (event.getClient().getListener() != null)
 		{
 			event.getClient().getListener().onCompletedUserContextMenu(event, this);
@@ -232,6 +234,7 @@ public abstract class UserContextMenu extends ContextMenu
 		{
 			event.reply(message).setEphemeral(true).queue();
 		}
+		event.getClient().getCommandMetrics().increment(CommandMetrics.Kind.USER_CONTEXT_MENU, this, name, CommandMetrics.Counter.TERMINATED);
 		if (event.getClient().getListener() != null)
 		{
 			event.getClient().getListener().onTerminatedUserContextMenu(event, this);
@@ -34,6 +34,7 @@ import io.github.readonly.api.ClientInterface;
 import io.github.readonly.command.Client;
 import io.github.readonly.command.ClientBuilder;
 import io.github.readonly.command.Command;
+import io.github.readonly.command.arg.ParsedArguments;
 import io.github.readonly.command.arg.parse.ArgumentIndex;
 import io.github.readonly.common.util.ResultLevel;
 import io.github.readonly.settings.GuildSettingsManager;
@@ -64,6 +65,7 @@ public class CommandEvent implements Event<MessageReceivedEvent>
 	private final MessageReceivedEvent	event;
 	private final String				prefix;
 	private ArgumentIndex				argumentIndex;
+	private ParsedArguments				parsedArguments	= ParsedArguments.EMPTY;
 	private final ClientInterface		client;
 	private Command						botCommand;
 
@@ -118,6 +120,22 @@ public class CommandEvent implements Event<MessageReceivedEvent>
 		this.argumentIndex = argumentIndex;
 	}
 
+	/**
+	 * Returns the values of the command's {@link io.github.readonly.command.arg.TypedArgument TypedArgument}s, bound
+	 * from the ArgumentIndex before the command is executed.
+	 *
+	 * @return Never-null ParsedArguments, empty if the command has no typed arguments
+	 */
+	public ParsedArguments getParsedArguments()
+	{
+		return parsedArguments;
+	}
+
+	public void setParsedArguments(ParsedArguments parsedArguments)
+	{
+		this.parsedArguments = parsedArguments;
+	}
+
 	/**
 	 * Returns the prefix used when this event was raised. Useful for figuring out what people invoked.
 	 *
@@ -1015,12 +1033,13 @@ public class CommandEvent implements Event<MessageReceivedEvent>
 	}
 
 	/**
-	 * Uses the {@link io.github.readonly.api.ClientInterface#getScheduleExecutor() client's executor} to run the provided
-	 * {@link java.lang.Runnable Runnable} asynchronously without blocking the thread this is called in.
+	 * Uses the {@link io.github.readonly.api.ClientInterface#getAsyncExecutor() client's async executor} to run the
+	 * provided {@link java.lang.Runnable Runnable} asynchronously without blocking the thread this is called in.
 	 * <p>
-	 * The ScheduledExecutorService this runs on can be configured using
+	 * The executor this runs on can be configured using
 	 * {@link ClientBuilder#setScheduleExecutor(java.util.concurrent.ScheduledExecutorService)
-	 * ClientBuilder#setScheduleExecutor(ScheduledExecutorService)}.
+	 * ClientBuilder#setScheduleExecutor(ScheduledExecutorService)}, or switched to virtual threads using
+	 * {@link ClientBuilder#useVirtualThreads(boolean) ClientBuilder#useVirtualThreads(boolean)}.
 	 *
 	 * @param runnable
 	 *            The runnable to run async
@@ -1028,7 +1047,7 @@ public class CommandEvent implements Event<MessageReceivedEvent>
 	public void async(Runnable runnable)
 	{
 		Checks.notNull(runnable, "Runnable");
-		client.getScheduleExecutor().submit(runnable);
+		client.getAsyncExecutor().submit(runnable);
 	}
 
 	// private methods
@@ -29,6 +29,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -58,18 +59,20 @@ public class EmbedMessageMenu extends Menu
 	private final BiFunction<Integer, Integer, String>	text;
 	private final Consumer<Message>						finalAction;
 	private Map<MessageEmbed, Guild>					guildMap;
+	private final List<MessageEmbed>					embeds;
 	private final JDA									botInstance;
 	private final boolean								wrapPageEnds	= true;
 
 	private Guild			currentGuild;
 	private MessageEmbed	currentEmbed;
 
-	protected EmbedMessageMenu(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, Map<MessageEmbed, Guild> guildMap, JDA botInstance)
+	protected EmbedMessageMenu(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, Map<MessageEmbed, Guild> guildMap, JDA botInstance)
 	{
-		super(waiter, users, roles, timeout, unit);
+		super(waiter, users, roles, timeout, unit, actionExecutor);
 		this.text = text;
 		this.finalAction = finalAction;
 		this.guildMap = guildMap;
+		this.embeds = new ArrayList<>(guildMap.keySet());
 		this.botInstance = botInstance;
 	}
 
@@ -156,7 +159,7 @@ public class EmbedMessageMenu extends Menu
 
 	private void paginationWithoutTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(MessageReactionAddEvent.class, event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), timeout, unit, () -> finalAction.accept(message));
+		waiter.waitForEvent(MessageReactionAddEvent.class, MESSAGE_ID, message.getIdLong(), event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), timeout, unit, () -> finalAction.accept(message), actionExecutor);
 	}
 
 	private boolean checkReaction(MessageReactionAddEvent event, long messageId)
@@ -212,6 +215,8 @@ public class EmbedMessageMenu extends Menu
 		case LEAVE:
 			botInstance.getGuildById(currentGuild.getId()).leave().queue();
 			guildMap.remove(currentEmbed, currentGuild);
+			embeds.remove(currentEmbed);
+			newPageNum = Math.min(newPageNum, embeds.size());
 			break;
 		case STOP:
 			finalAction.accept(message);
@@ -230,13 +235,7 @@ public class EmbedMessageMenu extends Menu
 	private MessageEditData renderPage(int pageNum)
 	{
 		MessageEditBuilder	mbuilder	= new MessageEditBuilder();
-		int					size		= this.guildMap.keySet().size();
-		List<MessageEmbed>	embedList	= new ArrayList<>(size);
-		for (MessageEmbed em : this.guildMap.keySet())
-		{
-			embedList.add(em);
-		}
-		MessageEmbed membed = embedList.get(pageNum - 1);
+		MessageEmbed		membed		= this.embeds.get(pageNum - 1);
 		this.currentGuild = null;
 		this.currentGuild = this.guildMap.get(membed);
 		this.currentEmbed = null;
@@ -245,7 +244,7 @@ public class EmbedMessageMenu extends Menu
 			{ membed });
 		if (this.text != null)
 		{
-			mbuilder.setContent(this.text.apply(Integer.valueOf(pageNum), Integer.valueOf(embedList.size())));
+			mbuilder.setContent(this.text.apply(Integer.valueOf(pageNum), Integer.valueOf(this.embeds.size())));
 		}
 		return mbuilder.build();
 	}
@@ -266,7 +265,7 @@ public class EmbedMessageMenu extends Menu
 			Checks.check(botInstance != null, "Must set the botInstance");
 			Checks.check(!guildMap.isEmpty(), "Must include at least one item to paginate");
 
-			return new EmbedMessageMenu(waiter, users, roles, timeout, unit, text, finalAction, guildMap, botInstance);
+			return new EmbedMessageMenu(waiter, users, roles, timeout, unit, actionExecutor, text, finalAction, guildMap, botInstance);
 		}
 
 		public Builder setJda(JDA botInstance)
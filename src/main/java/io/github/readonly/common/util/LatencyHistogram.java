@@ -0,0 +1,219 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.common.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies, in nanoseconds, using log-linear buckets in the style of HdrHistogram.
+ * <p>
+ * Values are grouped by their highest set bit, and every power of two is split into {@value #SUB_BUCKET_COUNT} linear
+ * sub-buckets, giving a relative error of about 6% over the whole range. Values at or above 2<sup>41</sup>
+ * nanoseconds (about 36 minutes) are counted in the last bucket. {@link #record(long) Recording} a value is a few
+ * arithmetic operations and an atomic increment, and never allocates.
+ * <p>
+ * Histograms are read through {@link #snapshot() snapshots}, which can be compared to get the latencies recorded in
+ * between two points in time.
+ */
+public class LatencyHistogram
+{
+
+	private static final int	SUB_BUCKET_BITS		= 4;
+	private static final int	SUB_BUCKET_COUNT	= 1 << SUB_BUCKET_BITS;
+	private static final int	MAX_EXPONENT		= 40;
+	private static final int	BUCKET_COUNT		= ((MAX_EXPONENT - SUB_BUCKET_BITS) + 2) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray	counts;
+	private final LongAdder			sum;
+
+	/**
+	 * Creates a new, empty LatencyHistogram.
+	 */
+	public LatencyHistogram()
+	{
+		this.counts = new AtomicLongArray(BUCKET_COUNT);
+		this.sum = new LongAdder();
+	}
+
+	/**
+	 * Records a latency. Negative values are recorded as {@code 0}.
+	 *
+	 * @param nanos
+	 *            The latency, in nanoseconds
+	 */
+	public void record(long nanos)
+	{
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(indexOf(value));
+		sum.add(value);
+	}
+
+	/**
+	 * Takes a snapshot of the latencies recorded so far.
+	 *
+	 * @return A new Snapshot
+	 */
+	public Snapshot snapshot()
+	{
+		long[] copy = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++)
+		{
+			copy[i] = counts.get(i);
+		}
+		return new Snapshot(copy, sum.sum());
+	}
+
+	private static int indexOf(long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT)
+		{
+			return BUCKET_COUNT - 1;
+		}
+		return ((((exponent - SUB_BUCKET_BITS) + 1) * SUB_BUCKET_COUNT) + (int) (value >>> (exponent - SUB_BUCKET_BITS))) - SUB_BUCKET_COUNT;
+	}
+
+	private static long highestValueOf(int index)
+	{
+		int bucket = index / SUB_BUCKET_COUNT;
+		if (bucket == 0)
+		{
+			return index;
+		}
+		long top = (index % SUB_BUCKET_COUNT) + SUB_BUCKET_COUNT;
+		return ((top + 1) << (bucket - 1)) - 1;
+	}
+
+	/**
+	 * A point-in-time copy of a {@link LatencyHistogram LatencyHistogram}.
+	 */
+	public static final class Snapshot
+	{
+
+		private final long[]	counts;
+		private final long		sum;
+		private final long		count;
+
+		private Snapshot(long[] counts, long sum)
+		{
+			long total = 0;
+			for (long c : counts)
+			{
+				total += c;
+			}
+			this.counts = counts;
+			this.sum = sum;
+			this.count = total;
+		}
+
+		/**
+		 * Gets the number of recorded latencies.
+		 *
+		 * @return The number of recorded latencies
+		 */
+		public long getCount()
+		{
+			return count;
+		}
+
+		/**
+		 * Gets the mean of the recorded latencies.
+		 *
+		 * @return The mean latency in nanoseconds, or {@code 0} if nothing was recorded
+		 */
+		public double getMean()
+		{
+			return count == 0 ? 0 : (double) sum / count;
+		}
+
+		/**
+		 * Gets the latency at or below which the provided percentage of recorded latencies fall.
+		 *
+		 * @param percentile
+		 *            The percentile, between {@code 0} and {@code 100}
+		 *
+		 * @return The highest latency, in nanoseconds, of the bucket holding the percentile, or {@code 0} if nothing
+		 *         was recorded
+		 */
+		public long getValueAtPercentile(double percentile)
+		{
+			if (count == 0)
+			{
+				return 0;
+			}
+			long	target	= Math.max(1, (long) Math.ceil((Math.min(100, Math.max(0, percentile)) / 100) * count));
+			long	seen	= 0;
+			for (int i = 0; i < counts.length; i++)
+			{
+				seen += counts[i];
+				if (seen >= target)
+				{
+					return highestValueOf(i);
+				}
+			}
+			return highestValueOf(counts.length - 1);
+		}
+
+		/**
+		 * Gets the highest recorded latency, rounded up to the end of its bucket.
+		 *
+		 * @return The highest latency in nanoseconds, or {@code 0} if nothing was recorded
+		 */
+		public long getMax()
+		{
+			for (int i = counts.length - 1; i >= 0; i--)
+			{
+				if (counts[i] > 0)
+				{
+					return highestValueOf(i);
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * Gets the latencies recorded since an earlier snapshot of the same histogram.
+		 *
+		 * @param previous
+		 *            The earlier snapshot
+		 *
+		 * @return A new Snapshot holding only the latencies recorded in between both snapshots
+		 */
+		public Snapshot minus(Snapshot previous)
+		{
+			long[] diff = new long[counts.length];
+			for (int i = 0; i < diff.length; i++)
+			{
+				diff[i] = Math.max(0, counts[i] - previous.counts[i]);
+			}
+			return new Snapshot(diff, Math.max(0, sum - previous.sum));
+		}
+	}
+}
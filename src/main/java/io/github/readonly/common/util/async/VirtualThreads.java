@@ -0,0 +1,98 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.common.util.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Creates executors backed by virtual threads when running on Java 21 or newer.
+ * <p>
+ * JDATools is compiled against Java 17, so virtual threads are looked up reflectively. On older runtimes a bounded
+ * pool of daemon platform threads is used instead.
+ */
+@UtilityClass
+public class VirtualThreads {
+
+	private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+	/**
+	 * Checks if the running JVM supports virtual threads.
+	 *
+	 * @return {@code true} if virtual threads are available
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates an executor starting a new virtual thread for every task, or a pool of {@code fallbackThreads} daemon
+	 * platform threads if virtual threads are not supported.
+	 *
+	 * @param name            the prefix of the names of created threads
+	 * @param fallbackThreads the number of platform threads to use if virtual threads are not supported
+	 * @return the executor
+	 */
+	public static ExecutorService newExecutor(String name, int fallbackThreads) {
+		if (isSupported()) {
+			try {
+				Object builder = OF_VIRTUAL.invoke(null);
+				builder = Class.forName("java.lang.Thread$Builder$OfVirtual").getMethod("name", String.class, long.class).invoke(builder, name, 0L);
+				ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+				return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// fall through to platform threads
+			}
+		}
+		if (fallbackThreads < 1) {
+			throw new IllegalArgumentException("Fallback thread count must be at least 1!");
+		}
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(fallbackThreads, fallbackThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+			r -> {
+				Thread thread = new Thread(r, name + count.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	private static Method findMethod(Class<?> clazz, String name) {
+		try {
+			return clazz.getMethod(name);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
@@ -24,19 +24,35 @@
 
 package io.github.readonly.common.waiter;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.github.readonly.common.util.LatencyHistogram;
+import io.github.readonly.common.waiter.TimeoutWheel.Timeout;
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
 import net.dv8tion.jda.api.events.session.ShutdownEvent;
 import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.hooks.SubscribeEvent;
@@ -56,17 +72,42 @@ import net.dv8tion.jda.internal.utils.Checks;
  * how exactly shutdown will be handled (see {@link EventWaiter#EventWaiter(ScheduledExecutorService, boolean)} for more
  * details).
  * <p>
+ * Waiters may be registered from any thread, and Events may be fired on any number of threads at once. Each waiter
+ * runs its action or its timeout action at most once, and can be cancelled through the
+ * {@link io.github.readonly.common.waiter.WaitHandle WaitHandle} returned when registering it. Waiters keyed by
+ * {@link #MESSAGE_ID} or {@link #COMPONENT_MESSAGE_ID} are tied to that message, and are cancelled when it is deleted.
+ * <p>
  * As a final note, if you intend to use the EventWaiter, it is highly recommended you <b>DO NOT</b> create multiple
  * EventWaiters! Doing this will cause unnecessary increases in memory usage.
  */
 public class EventWaiter implements EventListener
 {
 
-	private static final Logger							LOG	= LoggerFactory.getLogger(EventWaiter.class);
+	/**
+	 * Gets the ID of the message a message Event concerns. Keyed waiters using it are tied to that message.
+	 */
+	public static final ToLongFunction<GenericMessageEvent>						MESSAGE_ID				= GenericMessageEvent::getMessageIdLong;
+
+	/**
+	 * Gets the ID of the message a component interaction was made on. Keyed waiters using it are tied to that
+	 * message.
+	 */
+	public static final ToLongFunction<GenericComponentInteractionCreateEvent>	COMPONENT_MESSAGE_ID	= GenericComponentInteractionCreateEvent::getMessageIdLong;
+
+	private static final Bucket[]									NO_BUCKETS	= new Bucket[0];
+	private static final Logger										LOG			= LoggerFactory.getLogger(EventWaiter.class);
+	private final ConcurrentHashMap<Class<?>, Bucket>				buckets;
+	private volatile ConcurrentHashMap<Class<?>, Bucket[]>			dispatch;
 	@SuppressWarnings("rawtypes")
-	private final HashMap<Class<?>, Set<WaitingEvent>>	waitingEvents;
-	private final ScheduledExecutorService				threadpool;
-	private final boolean								shutdownAutomatically;
+	private final ConcurrentHashMap<Long, Set<WaitingEvent>>		messageWaiters;
+	private final ScheduledExecutorService							threadpool;
+	private final TimeoutWheel										timeouts;
+	private final boolean											shutdownAutomatically;
+	private final Executor											actionExecutor;
+	private final AtomicInteger										queuedActions;
+	private final LongAdder											completedActions;
+	private final LongAdder											rejectedActions;
+	private final LatencyHistogram									actionQueueLatency;
 
 	/**
 	 * Constructs an empty EventWaiter.
@@ -115,12 +156,51 @@ public class EventWaiter implements EventListener
 	 * @see io.github.readonly.common.waiter.EventWaiter#shutdown() EventWaiter#shutdown()
 	 */
 	public EventWaiter(ScheduledExecutorService threadpool, boolean shutdownAutomatically)
+	{
+		this(threadpool, shutdownAutomatically, null);
+	}
+
+	/**
+	 * Constructs an EventWaiter using the provided {@link java.util.concurrent.ScheduledExecutorService Executor} as
+	 * it's threadpool, and running the actions of waiters on the provided {@link java.util.concurrent.Executor
+	 * Executor}.
+	 * <p>
+	 * Events are still tested, and matched waiters removed, on the thread firing the Event, so every waiter still runs
+	 * at most once. Only the action is handed off, so slow actions such as rendering and editing a menu page do not
+	 * hold up other listeners on the same JDA event thread. An executor from
+	 * {@link io.github.readonly.common.util.async.VirtualThreads#newExecutor(String, int) VirtualThreads} is a good
+	 * fit. If the Executor rejects an action, it runs on the thread firing the Event instead.
+	 * <p>
+	 * Shutdown works as described in {@link #EventWaiter(ScheduledExecutorService, boolean)}. The action Executor is
+	 * never shut down by this EventWaiter.
+	 *
+	 * @param threadpool
+	 *            The ScheduledExecutorService to use for this EventWaiter's threadpool.
+	 * @param shutdownAutomatically
+	 *            Whether or not the {@code threadpool} will shutdown automatically when a
+	 *            {@link net.dv8tion.jda.api.events.session.ShutdownEvent ShutdownEvent} is fired.
+	 * @param actionExecutor
+	 *            The Executor to run actions on, or {@code null} to run them on the thread firing the Event.
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the threadpool provided is {@code null} or
+	 *             {@link java.util.concurrent.ScheduledExecutorService#isShutdown() is shutdown}
+	 */
+	public EventWaiter(ScheduledExecutorService threadpool, boolean shutdownAutomatically, Executor actionExecutor)
 	{
 		Checks.notNull(threadpool, "ScheduledExecutorService");
 		Checks.check(!threadpool.isShutdown(), "Cannot construct EventWaiter with a closed ScheduledExecutorService!");
 
-		this.waitingEvents = new HashMap<>();
+		this.buckets = new ConcurrentHashMap<>();
+		this.dispatch = new ConcurrentHashMap<>();
+		this.messageWaiters = new ConcurrentHashMap<>();
 		this.threadpool = threadpool;
+		this.timeouts = new TimeoutWheel(threadpool);
+		this.actionExecutor = actionExecutor;
+		this.queuedActions = new AtomicInteger();
+		this.completedActions = new LongAdder();
+		this.rejectedActions = new LongAdder();
+		this.actionQueueLatency = new LatencyHistogram();
 
 		// "Why is there no default constructor?"
 		//
@@ -143,6 +223,111 @@ public class EventWaiter implements EventListener
 		this.shutdownAutomatically = shutdownAutomatically;
 	}
 
+	/**
+	 * Gets the {@link io.github.readonly.common.waiter.TimeoutWheel TimeoutWheel} running the timeouts of this
+	 * EventWaiter on its threadpool.
+	 *
+	 * @return The TimeoutWheel of this EventWaiter
+	 */
+	public TimeoutWheel getTimeoutWheel()
+	{
+		return timeouts;
+	}
+
+	/**
+	 * Gets the number of waiters whose timeout has neither run nor been cancelled.
+	 *
+	 * @return The number of pending timeouts
+	 */
+	public int getPendingTimeoutCount()
+	{
+		return timeouts.getPendingCount();
+	}
+
+	/**
+	 * Gets the number of actions handed to an action Executor that have not started running yet.
+	 *
+	 * @return The number of queued actions
+	 */
+	public int getQueuedActionCount()
+	{
+		return queuedActions.get();
+	}
+
+	/**
+	 * Gets the number of actions that have run on an action Executor since this EventWaiter was created.
+	 *
+	 * @return The number of completed actions
+	 */
+	public long getCompletedActionCount()
+	{
+		return completedActions.sum();
+	}
+
+	/**
+	 * Gets the number of actions an action Executor rejected, which then ran on the thread firing the Event.
+	 *
+	 * @return The number of rejected actions
+	 */
+	public long getRejectedActionCount()
+	{
+		return rejectedActions.sum();
+	}
+
+	/**
+	 * Runs an action on the provided action Executor, counted in the action statistics of this EventWaiter like the
+	 * actions of its waiters. If the Executor rejects the action, it runs on the calling thread instead.
+	 *
+	 * @param executor
+	 *            The Executor to run the action on, or {@code null} to run it on the calling thread
+	 * @param action
+	 *            The action to run
+	 */
+	public void runAction(Executor executor, Runnable action)
+	{
+		Checks.notNull(action, "Action");
+		if (executor == null)
+		{
+			action.run();
+			return;
+		}
+		final long queued = System.nanoTime();
+		queuedActions.incrementAndGet();
+		try
+		{
+			executor.execute(() ->
+			{
+				queuedActions.decrementAndGet();
+				actionQueueLatency.record(System.nanoTime() - queued);
+				try
+				{
+					action.run();
+				} catch (Throwable t)
+				{
+					LOG.error("Failed to run action", t);
+				} finally
+				{
+					completedActions.increment();
+				}
+			});
+		} catch (RejectedExecutionException ex)
+		{
+			queuedActions.decrementAndGet();
+			rejectedActions.increment();
+			action.run();
+		}
+	}
+
+	/**
+	 * Gets the histogram of how long actions waited in an action Executor before they started running.
+	 *
+	 * @return The action queue latency histogram, in nanoseconds
+	 */
+	public LatencyHistogram getActionQueueLatency()
+	{
+		return actionQueueLatency;
+	}
+
 	/**
 	 * Gets whether the EventWaiter's internal ScheduledExecutorService
 	 * {@link java.util.concurrent.ScheduledExecutorService#isShutdown() is shutdown}.
@@ -170,6 +355,8 @@ public class EventWaiter implements EventListener
 	 * @param action
 	 *            The Consumer to perform an action when the condition Predicate returns {@code true}. Never null.
 	 *
+	 * @return A WaitHandle that can cancel the waiter
+	 *
 	 * @throws IllegalArgumentException
 	 *             One of two reasons:
 	 *             <ul>
@@ -177,9 +364,9 @@ public class EventWaiter implements EventListener
 	 *             <li>2) The internal threadpool is shut down, meaning that no more tasks can be submitted.</li>
 	 *             </ul>
 	 */
-	public <T extends GenericEvent> void waitForEvent(Class<T> classType, Predicate<T> condition, Consumer<T> action)
+	public <T extends GenericEvent> WaitHandle waitForEvent(Class<T> classType, Predicate<T> condition, Consumer<T> action)
 	{
-		waitForEvent(classType, condition, action, -1, null, null);
+		return waitForEvent(classType, condition, action, -1, null, null);
 	}
 
 	/**
@@ -210,6 +397,50 @@ public class EventWaiter implements EventListener
 	 *            The Runnable to run if the time runs out before a correct Event is thrown, or {@code null} if there is
 	 *            no action on timeout.
 	 *
+	 * @return A WaitHandle that can cancel the waiter
+	 *
+	 * @throws IllegalArgumentException
+	 *             One of two reasons:
+	 *             <ul>
+	 *             <li>1) Either the {@code classType}, {@code condition}, or {@code action} was {@code null}.</li>
+	 *             <li>2) The internal threadpool is shut down, meaning that no more tasks can be submitted.</li>
+	 *             </ul>
+	 */
+	@SuppressWarnings("rawtypes")
+	public <T extends GenericEvent> WaitHandle waitForEvent(Class<T> classType, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction)
+	{
+		return register(classType, condition, action, timeout, unit, timeoutAction, null, actionExecutor);
+	}
+
+	/**
+	 * Waits a predetermined amount of time for an {@link net.dv8tion.jda.api.events.Event Event} that returns
+	 * {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}, running the action on
+	 * the provided {@link java.util.concurrent.Executor Executor}.
+	 * <p>
+	 * This behaves the same as {@link #waitForEvent(Class, Predicate, Consumer, long, TimeUnit, Runnable)}, except
+	 * that the action runs as described in {@link #EventWaiter(ScheduledExecutorService, boolean, Executor)}.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type are thrown. Never null.
+	 * @param action
+	 *            The Consumer to perform an action when the condition Predicate returns {@code true}. Never null.
+	 * @param timeout
+	 *            The maximum amount of time to wait for, or {@code -1} if there is no timeout.
+	 * @param unit
+	 *            The {@link java.util.concurrent.TimeUnit TimeUnit} measurement of the timeout, or {@code null} if
+	 *            there is no timeout.
+	 * @param timeoutAction
+	 *            The Runnable to run if the time runs out before a correct Event is thrown, or {@code null} if there is
+	 *            no action on timeout.
+	 * @param executor
+	 *            The Executor to run the action on, or {@code null} to use the default of this EventWaiter.
+	 *
+	 * @return A WaitHandle that can cancel the waiter
+	 *
 	 * @throws IllegalArgumentException
 	 *             One of two reasons:
 	 *             <ul>
@@ -217,33 +448,306 @@ public class EventWaiter implements EventListener
 	 *             <li>2) The internal threadpool is shut down, meaning that no more tasks can be submitted.</li>
 	 *             </ul>
 	 */
+	public <T extends GenericEvent> WaitHandle waitForEvent(Class<T> classType, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction, Executor executor)
+	{
+		return register(classType, condition, action, timeout, unit, timeoutAction, null, executor == null ? actionExecutor : executor);
+	}
+
 	@SuppressWarnings("rawtypes")
-	public <T extends GenericEvent> void waitForEvent(Class<T> classType, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction)
+	private <T extends GenericEvent> WaitingEvent register(Class<T> classType, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction, Runnable cancelAction, Executor executor)
 	{
 		Checks.check(!isShutdown(), "Attempted to register a WaitingEvent while the EventWaiter's threadpool was already shut down!");
 		Checks.notNull(classType, "The provided class type");
 		Checks.notNull(condition, "The provided condition predicate");
 		Checks.notNull(action, "The provided action consumer");
 
-		WaitingEvent		we	= new WaitingEvent<>(condition, action);
-		Set<WaitingEvent>	set	= waitingEvents.computeIfAbsent(classType, c -> ConcurrentHashMap.newKeySet());
+		WaitingEvent		we	= new WaitingEvent<>(condition, action, timeoutAction, cancelAction, executor);
+		Set<WaitingEvent>	set	= bucket(classType).waiters;
+		we.remover = () -> set.remove(we);
 		set.add(we);
-		if ((timeout > 0) && (unit != null))
+		schedule(we, timeout, unit);
+		return we;
+	}
+
+	/**
+	 * Waits an indefinite amount of time for an {@link net.dv8tion.jda.api.events.Event Event} with the provided key
+	 * that returns {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}.
+	 * <p>
+	 * Keyed waiters are indexed by their key, so an Event is only tested against the waiters registered under the key
+	 * it has, rather than against every waiter for its type. Waiters sharing a key extractor share an index, so the
+	 * extractor should be a constant, such as {@link #MESSAGE_ID}. Waiters keyed by {@link #MESSAGE_ID} or
+	 * {@link #COMPONENT_MESSAGE_ID} are cancelled when the message with their key is deleted.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param keyExtractor
+	 *            The function getting the key of an Event, such as the ID of the message it concerns. Never null.
+	 * @param key
+	 *            The key an Event must have to be tested.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type and key are thrown. Never null.
+	 * @param action
+	 *            The Consumer to perform an action when the condition Predicate returns {@code true}. Never null.
+	 *
+	 * @return A WaitHandle that can cancel the waiter
+	 *
+	 * @throws IllegalArgumentException
+	 *             One of two reasons:
+	 *             <ul>
+	 *             <li>1) Either the {@code classType}, {@code keyExtractor}, {@code condition}, or {@code action} was
+	 *             {@code null}.</li>
+	 *             <li>2) The internal threadpool is shut down, meaning that no more tasks can be submitted.</li>
+	 *             </ul>
+	 */
+	public <T extends GenericEvent> WaitHandle waitForEvent(Class<T> classType, ToLongFunction<? super T> keyExtractor, long key, Predicate<T> condition, Consumer<T> action)
+	{
+		return waitForEvent(classType, keyExtractor, key, condition, action, -1, null, null);
+	}
+
+	/**
+	 * Waits a predetermined amount of time for an {@link net.dv8tion.jda.api.events.Event Event} with the provided key
+	 * that returns {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}.
+	 * <p>
+	 * This behaves the same as {@link #waitForEvent(Class, Predicate, Consumer, long, TimeUnit, Runnable)}, except
+	 * that only Events with the provided key are tested, as described in
+	 * {@link #waitForEvent(Class, ToLongFunction, long, Predicate, Consumer)}.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param keyExtractor
+	 *            The function getting the key of an Event, such as the ID of the message it concerns. Never null.
+	 * @param key
+	 *            The key an Event must have to be tested.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type and key are thrown. Never null.
+	 * @param action
+	 *            The Consumer to perform an action when the condition Predicate returns {@code true}. Never null.
+	 * @param timeout
+	 *            The maximum amount of time to wait for, or {@code -1} if there is no timeout.
+	 * @param unit
+	 *            The {@link java.util.concurrent.TimeUnit TimeUnit} measurement of the timeout, or {@code null} if
+	 *            there is no timeout.
+	 * @param timeoutAction
+	 *            The Runnable to run if the time runs out before a correct Event is thrown, or {@code null} if there is
+	 *            no action on timeout.
+	 *
+	 * @return A WaitHandle that can cancel the waiter
+	 *
+	 * @throws IllegalArgumentException
+	 *             One of two reasons:
+	 *             <ul>
+	 *             <li>1) Either the {@code classType}, {@code keyExtractor}, {@code condition}, or {@code action} was
+	 *             {@code null}.</li>
+	 *             <li>2) The internal threadpool is shut down, meaning that no more tasks can be submitted.</li>
+	 *             </ul>
+	 */
+	@SuppressWarnings("rawtypes")
+	public <T extends GenericEvent> WaitHandle waitForEvent(Class<T> classType, ToLongFunction<? super T> keyExtractor, long key, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction)
+	{
+		return register(classType, keyExtractor, key, condition, action, timeout, unit, timeoutAction, null, actionExecutor);
+	}
+
+	/**
+	 * Waits a predetermined amount of time for an {@link net.dv8tion.jda.api.events.Event Event} with the provided key
+	 * that returns {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}, running
+	 * the action on the provided {@link java.util.concurrent.Executor Executor}.
+	 * <p>
+	 * This behaves the same as
+	 * {@link #waitForEvent(Class, ToLongFunction, long, Predicate, Consumer, long, TimeUnit, Runnable)}, except that the
+	 * action runs as described in {@link #EventWaiter(ScheduledExecutorService, boolean, Executor)}.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param keyExtractor
+	 *            The function getting the key of an Event, such as the ID of the message it concerns. Never null.
+	 * @param key
+	 *            The key an Event must have to be tested.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type and key are thrown. Never null.
+	 * @param action
+	 *            The Consumer to perform an action when the condition Predicate returns {@code true}. Never null.
+	 * @param timeout
+	 *            The maximum amount of time to wait for, or {@code -1} if there is no timeout.
+	 * @param unit
+	 *            The {@link java.util.concurrent.TimeUnit TimeUnit} measurement of the timeout, or {@code null} if
+	 *            there is no timeout.
+	 * @param timeoutAction
+	 *            The Runnable to run if the time runs out before a correct Event is thrown, or {@code null} if there is
+	 *            no action on timeout.
+	 * @param executor
+	 *            The Executor to run the action on, or {@code null} to use the default of this EventWaiter.
+	 *
+	 * @return A WaitHandle that can cancel the waiter
+	 *
+	 * @throws IllegalArgumentException
+	 *             One of two reasons:
+	 *             <ul>
+	 *             <li>1) Either the {@code classType}, {@code keyExtractor}, {@code condition}, or {@code action} was
+	 *             {@code null}.</li>
+	 *             <li>2) The internal threadpool is shut down, meaning that no more tasks can be submitted.</li>
+	 *             </ul>
+	 */
+	public <T extends GenericEvent> WaitHandle waitForEvent(Class<T> classType, ToLongFunction<? super T> keyExtractor, long key, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction, Executor executor)
+	{
+		return register(classType, keyExtractor, key, condition, action, timeout, unit, timeoutAction, null, executor == null ? actionExecutor : executor);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private <T extends GenericEvent> WaitingEvent register(Class<T> classType, ToLongFunction<? super T> keyExtractor, long key, Predicate<T> condition, Consumer<T> action, long timeout, TimeUnit unit, Runnable timeoutAction, Runnable cancelAction, Executor executor)
+	{
+		Checks.check(!isShutdown(), "Attempted to register a WaitingEvent while the EventWaiter's threadpool was already shut down!");
+		Checks.notNull(classType, "The provided class type");
+		Checks.notNull(keyExtractor, "The provided key extractor");
+		Checks.notNull(condition, "The provided condition predicate");
+		Checks.notNull(action, "The provided action consumer");
+
+		WaitingEvent	we		= new WaitingEvent<>(condition, action, timeoutAction, cancelAction, executor);
+		Bucket			bucket	= bucket(classType);
+		if ((keyExtractor == MESSAGE_ID) || (keyExtractor == COMPONENT_MESSAGE_ID))
 		{
-			threadpool.schedule(() ->
+			we.remover = () ->
 			{
-				try
-				{
-					if (set.remove(we) && (timeoutAction != null))
-					{
-						timeoutAction.run();
-					}
-				} catch (Exception ex)
-				{
-					LOG.error("Failed to run timeoutAction", ex);
-				}
-			}, timeout, unit);
+				bucket.remove(keyExtractor, key, we);
+				untie(key, we);
+			};
+			tie(key, we);
+		} else
+		{
+			we.remover = () -> bucket.remove(keyExtractor, key, we);
+		}
+		bucket.add(keyExtractor, key, we);
+		schedule(we, timeout, unit);
+		return we;
+	}
+
+	/**
+	 * Waits an indefinite amount of time for an {@link net.dv8tion.jda.api.events.Event Event} that returns
+	 * {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}.
+	 * <p>
+	 * This behaves the same as {@link #waitForEvent(Class, Predicate, Consumer)}, except that the Event is provided
+	 * through a {@link java.util.concurrent.CompletableFuture CompletableFuture}. Completing or cancelling the future
+	 * removes the waiter.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type are thrown. Never null.
+	 *
+	 * @return A CompletableFuture completed with the first Event passing the condition
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the {@code classType} or {@code condition} was {@code null}, or if the internal threadpool is shut
+	 *             down
+	 */
+	public <T extends GenericEvent> CompletableFuture<T> waitFor(Class<T> classType, Predicate<T> condition)
+	{
+		return waitFor(classType, condition, -1, null);
+	}
+
+	/**
+	 * Waits a predetermined amount of time for an {@link net.dv8tion.jda.api.events.Event Event} that returns
+	 * {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}.
+	 * <p>
+	 * The returned {@link java.util.concurrent.CompletableFuture CompletableFuture} is completed exceptionally with a
+	 * {@link java.util.concurrent.TimeoutException TimeoutException} if the time runs out, so
+	 * {@link java.util.concurrent.CompletableFuture#exceptionally(java.util.function.Function) exceptionally} can
+	 * provide a value on timeout instead. Completing or cancelling the future removes the waiter and its timeout.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type are thrown. Never null.
+	 * @param timeout
+	 *            The maximum amount of time to wait for, or {@code -1} if there is no timeout.
+	 * @param unit
+	 *            The {@link java.util.concurrent.TimeUnit TimeUnit} measurement of the timeout, or {@code null} if
+	 *            there is no timeout.
+	 *
+	 * @return A CompletableFuture completed with the first Event passing the condition
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the {@code classType} or {@code condition} was {@code null}, or if the internal threadpool is shut
+	 *             down
+	 */
+	public <T extends GenericEvent> CompletableFuture<T> waitFor(Class<T> classType, Predicate<T> condition, long timeout, TimeUnit unit)
+	{
+		CompletableFuture<T> future = new CompletableFuture<>();
+		bind(future, register(classType, condition, future::complete, timeout, unit, () -> future.completeExceptionally(timedOut(classType)), () -> future.cancel(false), actionExecutor));
+		return future;
+	}
+
+	/**
+	 * Waits a predetermined amount of time for an {@link net.dv8tion.jda.api.events.Event Event} with the provided key
+	 * that returns {@code true} when tested with the provided {@link java.util.function.Predicate Predicate}.
+	 * <p>
+	 * This behaves the same as {@link #waitFor(Class, Predicate, long, TimeUnit)}, except that only Events with the
+	 * provided key are tested, as described in {@link #waitForEvent(Class, ToLongFunction, long, Predicate, Consumer)}.
+	 * A future tied to a message that gets deleted is cancelled.
+	 *
+	 * @param <T>
+	 *            The type of Event to wait for.
+	 * @param classType
+	 *            The {@link java.lang.Class} of the Event to wait for. Never null.
+	 * @param keyExtractor
+	 *            The function getting the key of an Event, such as the ID of the message it concerns. Never null.
+	 * @param key
+	 *            The key an Event must have to be tested.
+	 * @param condition
+	 *            The Predicate to test when Events of the provided type and key are thrown. Never null.
+	 * @param timeout
+	 *            The maximum amount of time to wait for, or {@code -1} if there is no timeout.
+	 * @param unit
+	 *            The {@link java.util.concurrent.TimeUnit TimeUnit} measurement of the timeout, or {@code null} if
+	 *            there is no timeout.
+	 *
+	 * @return A CompletableFuture completed with the first Event passing the condition
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the {@code classType}, {@code keyExtractor} or {@code condition} was {@code null}, or if the
+	 *             internal threadpool is shut down
+	 */
+	public <T extends GenericEvent> CompletableFuture<T> waitFor(Class<T> classType, ToLongFunction<? super T> keyExtractor, long key, Predicate<T> condition, long timeout, TimeUnit unit)
+	{
+		CompletableFuture<T> future = new CompletableFuture<>();
+		bind(future, register(classType, keyExtractor, key, condition, future::complete, timeout, unit, () -> future.completeExceptionally(timedOut(classType)), () -> future.cancel(false), actionExecutor));
+		return future;
+	}
+
+	/**
+	 * Cancels every waiter tied to the message with the provided ID, as is done when the message is deleted.
+	 *
+	 * @param messageId
+	 *            The ID of the message
+	 *
+	 * @return The number of waiters cancelled
+	 */
+	@SuppressWarnings("rawtypes")
+	public int cancelAll(long messageId)
+	{
+		Set<WaitingEvent> set = messageWaiters.remove(messageId);
+		if (set == null)
+		{
+			return 0;
 		}
+		int cancelled = 0;
+		for (WaitingEvent we : set)
+		{
+			if (we.cancel())
+			{
+				cancelled++;
+			}
+		}
+		return cancelled;
 	}
 
 	public <T extends GenericEvent> void runEvent(long timeout, TimeUnit unit, Runnable timeoutAction)
@@ -251,7 +755,7 @@ public class EventWaiter implements EventListener
 		Checks.check(!isShutdown(), "Attempted to register a WaitingEvent while the EventWaiter's threadpool was already shut down!");
 		if ((timeout > 0) && (unit != null))
 		{
-			threadpool.schedule(() ->
+			timeouts.schedule(() ->
 			{
 				try
 				{
@@ -267,34 +771,38 @@ public class EventWaiter implements EventListener
 		}
 	}
 
-	@SuppressWarnings(
-		{ "rawtypes", "unchecked" })
 	@Override
 	@SubscribeEvent
 	public final void onEvent(GenericEvent event)
 	{
-		Class c = event.getClass();
-
-		// Runs at least once for the fired Event, at most
-		// once for each superclass (excluding Object) because
-		// Class#getSuperclass() returns null when the superclass
-		// is primitive, void, or (in this case) Object.
-		while (c != null)
+		// Read once, so a dispatch list computed against a stale set of
+		// buckets is never cached where later Events would find it
+		final ConcurrentHashMap<Class<?>, Bucket[]>	cache		= dispatch;
+		Bucket[]									covering	= cache.get(event.getClass());
+		if (covering == null)
 		{
-			final Set<WaitingEvent> set = waitingEvents.get(c);
-			if (set != null)
+			covering = cache.computeIfAbsent(event.getClass(), this::covering);
+		}
+		for (Bucket bucket : covering)
+		{
+			bucket.attempt(event);
+		}
+		if (!messageWaiters.isEmpty())
+		{
+			if (event instanceof MessageDeleteEvent)
 			{
-				// WaitingEvent#attempt invocations that return true have passed
-				// their condition tests
-				// and executed the action. We remove the ones that have
-				// successfully ran (those that returns true)
-				set.removeIf(wEvent -> wEvent.attempt(event));
-			}
-			if ((event instanceof ShutdownEvent) && shutdownAutomatically)
+				cancelAll(((MessageDeleteEvent) event).getMessageIdLong());
+			} else if (event instanceof MessageBulkDeleteEvent)
 			{
-				threadpool.shutdown();
+				for (String id : ((MessageBulkDeleteEvent) event).getMessageIds())
+				{
+					cancelAll(Long.parseUnsignedLong(id));
+				}
 			}
-			c = c.getSuperclass();
+		}
+		if (shutdownAutomatically && (event instanceof ShutdownEvent))
+		{
+			threadpool.shutdown();
 		}
 	}
 
@@ -317,25 +825,265 @@ public class EventWaiter implements EventListener
 		threadpool.shutdown();
 	}
 
-	private class WaitingEvent<T extends GenericEvent>
+	@SuppressWarnings("rawtypes")
+	private void schedule(WaitingEvent we, long timeout, TimeUnit unit)
+	{
+		if ((timeout > 0) && (unit != null))
+		{
+			we.setTimeout(timeouts.schedule(we::expire, timeout, unit));
+		}
+	}
+
+	private static void bind(CompletableFuture<?> future, WaitHandle handle)
+	{
+		// Completed by the waiter, this does nothing. Completed or cancelled
+		// by anything else, this removes the waiter and its timeout.
+		future.whenComplete((v, t) -> handle.cancel());
+	}
+
+	private static TimeoutException timedOut(Class<?> classType)
 	{
-		final Predicate<T>	condition;
-		final Consumer<T>	action;
+		return new TimeoutException("Timed out waiting for " + classType.getSimpleName());
+	}
+
+	@SuppressWarnings("rawtypes")
+	private void tie(long messageId, WaitingEvent we)
+	{
+		messageWaiters.compute(messageId, (k, set) ->
+		{
+			if (set == null)
+			{
+				set = ConcurrentHashMap.newKeySet();
+			}
+			set.add(we);
+			return set;
+		});
+	}
+
+	@SuppressWarnings("rawtypes")
+	private void untie(long messageId, WaitingEvent we)
+	{
+		messageWaiters.computeIfPresent(messageId, (k, set) ->
+		{
+			set.remove(we);
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	private Bucket bucket(Class<?> classType)
+	{
+		Bucket bucket = buckets.get(classType);
+		if (bucket == null)
+		{
+			bucket = buckets.computeIfAbsent(classType, c -> new Bucket());
+			// The new bucket may cover Event classes that already have a
+			// cached dispatch list, so every list is computed again
+			dispatch = new ConcurrentHashMap<>();
+		}
+		return bucket;
+	}
+
+	private Bucket[] covering(Class<?> eventClass)
+	{
+		// At most once for each superclass (excluding Object) because
+		// Class#getSuperclass() returns null when the superclass
+		// is primitive, void, or (in this case) Object.
+		List<Bucket> list = new ArrayList<>();
+		for (Class<?> c = eventClass; c != null; c = c.getSuperclass())
+		{
+			Bucket bucket = buckets.get(c);
+			if (bucket != null)
+			{
+				list.add(bucket);
+			}
+		}
+		return list.isEmpty() ? NO_BUCKETS : list.toArray(NO_BUCKETS);
+	}
+
+	/**
+	 * The waiters for one type of Event. Unkeyed waiters are held in a single set, while keyed waiters are grouped by
+	 * key extractor and then by key.
+	 * <p>
+	 * Buckets are never removed once created, so a cached dispatch list never goes stale by losing one.
+	 */
+	@SuppressWarnings(
+		{ "rawtypes", "unchecked" })
+	private static final class Bucket
+	{
+
+		private final Set<WaitingEvent>																waiters		= ConcurrentHashMap.newKeySet();
+		private final ConcurrentHashMap<ToLongFunction, ConcurrentHashMap<Long, Set<WaitingEvent>>>	extractors	= new ConcurrentHashMap<>();
+
+		void add(ToLongFunction extractor, long key, WaitingEvent we)
+		{
+			ConcurrentHashMap<Long, Set<WaitingEvent>> keys = extractors.computeIfAbsent(extractor, e -> new ConcurrentHashMap<>());
+			// Added inside compute, so the set cannot be dropped as empty in
+			// between being found and being added to
+			keys.compute(key, (k, set) ->
+			{
+				if (set == null)
+				{
+					set = ConcurrentHashMap.newKeySet();
+				}
+				set.add(we);
+				return set;
+			});
+		}
+
+		void remove(ToLongFunction extractor, long key, WaitingEvent we)
+		{
+			ConcurrentHashMap<Long, Set<WaitingEvent>>	keys	= extractors.get(extractor);
+			Set<WaitingEvent>							set		= keys == null ? null : keys.get(key);
+			if ((set != null) && set.remove(we))
+			{
+				prune(keys, key);
+			}
+		}
+
+		void attempt(GenericEvent event)
+		{
+			if (!waiters.isEmpty())
+			{
+				// WaitingEvent#attempt invocations that return true have passed
+				// their condition tests and executed the action, or were
+				// already completed elsewhere. Either way they are removed.
+				waiters.removeIf(wEvent -> wEvent.attempt(event));
+			}
+			if (extractors.isEmpty())
+			{
+				return;
+			}
+			for (Map.Entry<ToLongFunction, ConcurrentHashMap<Long, Set<WaitingEvent>>> entry : extractors.entrySet())
+			{
+				long				key	= entry.getKey().applyAsLong(event);
+				Set<WaitingEvent>	set	= entry.getValue().get(key);
+				if (set != null)
+				{
+					set.removeIf(wEvent -> wEvent.attempt(event));
+					prune(entry.getValue(), key);
+				}
+			}
+		}
+
+		private static void prune(ConcurrentHashMap<Long, Set<WaitingEvent>> keys, long key)
+		{
+			keys.computeIfPresent(key, (k, set) -> set.isEmpty() ? null : set);
+		}
+	}
+
+	private class WaitingEvent<T extends GenericEvent> implements WaitHandle
+	{
+		final Predicate<T>		condition;
+		final Consumer<T>		action;
+		final Runnable			timeoutAction;
+		final Runnable			cancelAction;
+		final Executor			executor;
+		final AtomicBoolean		done;
+		// Set before the waiter is added anywhere it can be completed from
+		Runnable				remover;
+		volatile Timeout		timeout;
 
-		WaitingEvent(Predicate<T> condition, Consumer<T> action)
+		WaitingEvent(Predicate<T> condition, Consumer<T> action, Runnable timeoutAction, Runnable cancelAction, Executor executor)
 		{
 			this.condition = condition;
 			this.action = action;
+			this.timeoutAction = timeoutAction;
+			this.cancelAction = cancelAction;
+			this.executor = executor;
+			this.done = new AtomicBoolean();
+		}
+
+		void setTimeout(Timeout timeout)
+		{
+			this.timeout = timeout;
+			// Completed before the timeout was set, so it was not cancelled
+			if (done.get())
+			{
+				timeout.cancel();
+			}
+		}
+
+		@Override
+		public boolean cancel()
+		{
+			if (!claim())
+			{
+				return false;
+			}
+			remover.run();
+			if (cancelAction != null)
+			{
+				cancelAction.run();
+			}
+			return true;
+		}
+
+		@Override
+		public boolean isDone()
+		{
+			return done.get();
 		}
 
 		boolean attempt(T event)
 		{
-			if (condition.test(event))
+			if (done.get())
 			{
-				action.accept(event);
 				return true;
 			}
-			return false;
+			if (condition.test(event) && claim())
+			{
+				remover.run();
+				run(event);
+				return true;
+			}
+			return done.get();
+		}
+
+		private void run(T event)
+		{
+			if (executor == null)
+			{
+				action.accept(event);
+				return;
+			}
+			runAction(executor, () -> action.accept(event));
+		}
+
+		void expire()
+		{
+			if (!done.compareAndSet(false, true))
+			{
+				return;
+			}
+			remover.run();
+			try
+			{
+				if (timeoutAction != null)
+				{
+					timeoutAction.run();
+				}
+			} catch (Exception ex)
+			{
+				LOG.error("Failed to run timeoutAction", ex);
+			}
+		}
+
+		/**
+		 * Claims this waiter, so neither its action nor its timeout action can run afterwards, and releases its
+		 * timeout eagerly rather than leaving it on the wheel until due.
+		 */
+		private boolean claim()
+		{
+			if (!done.compareAndSet(false, true))
+			{
+				return false;
+			}
+			Timeout t = timeout;
+			if (t != null)
+			{
+				t.cancel();
+			}
+			return true;
 		}
 	}
 }
@@ -0,0 +1,392 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.common.waiter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * A hashed timing wheel running timeouts on a {@link java.util.concurrent.ScheduledExecutorService
+ * ScheduledExecutorService}.
+ * <p>
+ * Time is split into ticks, and every timeout is placed in the slot of the wheel for the tick it expires on. A single
+ * periodic task on the executor advances the wheel one slot per tick and runs the timeouts that are due in that slot.
+ * {@link #schedule(Runnable, long, TimeUnit) Scheduling} and {@link Timeout#cancel() cancelling} a timeout are both
+ * constant time and lock-free, unlike {@link java.util.concurrent.ScheduledExecutorService#schedule(Runnable, long,
+ * TimeUnit) ScheduledExecutorService#schedule}, which keeps one task per timeout in a heap until it runs, even if it
+ * is no longer needed.
+ * <p>
+ * Timeouts run on the executor, at most one tick after they are due. The wheel stops advancing once the executor is
+ * shut down, and timeouts still pending at that point never run.
+ */
+public class TimeoutWheel
+{
+
+	/**
+	 * The default duration of a tick, in milliseconds.
+	 */
+	public static final long	DEFAULT_TICK_MILLIS	= 100;
+
+	/**
+	 * The default number of slots in the wheel.
+	 */
+	public static final int		DEFAULT_WHEEL_SIZE	= 512;
+
+	private static final Logger LOG = LoggerFactory.getLogger(TimeoutWheel.class);
+
+	private final long					tickNanos;
+	private final Slot[]				wheel;
+	private final int					mask;
+	private final long					startTime;
+	private final Queue<Timeout>		added;
+	private final Queue<Timeout>		cancelled;
+	private final AtomicInteger			pending;
+	private final LongAdder				expiredCount;
+	private final LongAdder				cancelledCount;
+	// Only accessed by the periodic task, which never runs concurrently with itself
+	private long						tick;
+
+	/**
+	 * Creates a TimeoutWheel with the {@link #DEFAULT_TICK_MILLIS default tick duration} and
+	 * {@link #DEFAULT_WHEEL_SIZE default size}.
+	 *
+	 * @param executor
+	 *            The ScheduledExecutorService to advance the wheel and run timeouts on
+	 */
+	public TimeoutWheel(ScheduledExecutorService executor)
+	{
+		this(executor, DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+	}
+
+	/**
+	 * Creates a TimeoutWheel.
+	 *
+	 * @param executor
+	 *            The ScheduledExecutorService to advance the wheel and run timeouts on
+	 * @param tickDuration
+	 *            The duration of a tick, which is the precision of timeouts
+	 * @param unit
+	 *            The TimeUnit of the tick duration
+	 * @param wheelSize
+	 *            The number of slots in the wheel, rounded up to a power of two. Timeouts further away than one turn
+	 *            of the wheel share slots with nearer ones, and are skipped until they are due.
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the executor or unit is {@code null}, or if the tick duration or wheel size is not positive
+	 */
+	public TimeoutWheel(ScheduledExecutorService executor, long tickDuration, TimeUnit unit, int wheelSize)
+	{
+		Checks.notNull(executor, "Executor");
+		Checks.notNull(unit, "Unit");
+		Checks.positive(tickDuration, "Tick duration");
+		Checks.check((wheelSize > 0) && (wheelSize <= (1 << 30)), "Wheel size must be between 1 and 2^30");
+		this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+		int size = Integer.highestOneBit(wheelSize);
+		if (size < wheelSize)
+		{
+			size <<= 1;
+		}
+		this.wheel = new Slot[size];
+		for (int i = 0; i < size; i++)
+		{
+			wheel[i] = new Slot();
+		}
+		this.mask = size - 1;
+		this.added = new ConcurrentLinkedQueue<>();
+		this.cancelled = new ConcurrentLinkedQueue<>();
+		this.pending = new AtomicInteger();
+		this.expiredCount = new LongAdder();
+		this.cancelledCount = new LongAdder();
+		this.startTime = System.nanoTime();
+		this.tick = 0;
+		executor.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Schedules a task to run once the provided delay has elapsed.
+	 *
+	 * @param task
+	 *            The task to run
+	 * @param delay
+	 *            The delay to run the task after
+	 * @param unit
+	 *            The TimeUnit of the delay
+	 *
+	 * @return The Timeout, which can be used to cancel the task
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit)
+	{
+		Checks.notNull(task, "Task");
+		Checks.notNull(unit, "Unit");
+		long	deadline	= (System.nanoTime() - startTime) + Math.max(0, unit.toNanos(delay));
+		// Rounded up, so a timeout never runs before it is due
+		Timeout	timeout		= new Timeout(this, task, ((deadline + tickNanos) - 1) / tickNanos);
+		pending.incrementAndGet();
+		added.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Gets the number of timeouts that are scheduled and have neither run nor been cancelled.
+	 *
+	 * @return The number of pending timeouts
+	 */
+	public int getPendingCount()
+	{
+		return pending.get();
+	}
+
+	/**
+	 * Gets the number of timeouts that have run since this wheel was created.
+	 *
+	 * @return The number of expired timeouts
+	 */
+	public long getExpiredCount()
+	{
+		return expiredCount.sum();
+	}
+
+	/**
+	 * Gets the number of timeouts that have been cancelled since this wheel was created.
+	 *
+	 * @return The number of cancelled timeouts
+	 */
+	public long getCancelledCount()
+	{
+		return cancelledCount.sum();
+	}
+
+	/**
+	 * Gets the duration of a tick, which is the precision of timeouts.
+	 *
+	 * @return The tick duration, in nanoseconds
+	 */
+	public long getTickNanos()
+	{
+		return tickNanos;
+	}
+
+	private void advance()
+	{
+		// An exception thrown out of here would stop the wheel for good
+		try
+		{
+			long target = (System.nanoTime() - startTime) / tickNanos;
+			// Runs more than once if the executor fell behind
+			while (tick <= target)
+			{
+				transferAdded();
+				removeCancelled();
+				expire(wheel[(int) (tick & mask)]);
+				tick++;
+			}
+		} catch (Throwable t)
+		{
+			LOG.error("TimeoutWheel failed to advance", t);
+		}
+	}
+
+	private void transferAdded()
+	{
+		Timeout timeout;
+		while ((timeout = added.poll()) != null)
+		{
+			if (timeout.state == Timeout.PENDING)
+			{
+				// Already due timeouts go in the current slot, which is expired next
+				wheel[(int) (Math.max(timeout.deadlineTick, tick) & mask)].add(timeout);
+			}
+		}
+	}
+
+	private void removeCancelled()
+	{
+		Timeout timeout;
+		while ((timeout = cancelled.poll()) != null)
+		{
+			if (timeout.slot != null)
+			{
+				timeout.slot.remove(timeout);
+			}
+		}
+	}
+
+	private void expire(Slot slot)
+	{
+		Timeout timeout = slot.head;
+		while (timeout != null)
+		{
+			Timeout next = timeout.next;
+			if (timeout.state != Timeout.PENDING)
+			{
+				slot.remove(timeout);
+			} else if (timeout.deadlineTick <= tick)
+			{
+				slot.remove(timeout);
+				timeout.expire();
+			}
+			timeout = next;
+		}
+	}
+
+	/**
+	 * A task scheduled on a {@link TimeoutWheel TimeoutWheel}.
+	 */
+	public static final class Timeout
+	{
+
+		private static final int										PENDING		= 0;
+		private static final int										CANCELLED	= 1;
+		private static final int										EXPIRED		= 2;
+		private static final AtomicIntegerFieldUpdater<Timeout>	STATE		= AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+		private final TimeoutWheel	wheel;
+		private final long			deadlineTick;
+		private volatile Runnable	task;
+		private volatile int		state;
+		// Only accessed by the periodic task of the wheel
+		private Slot				slot;
+		private Timeout				prev;
+		private Timeout				next;
+
+		private Timeout(TimeoutWheel wheel, Runnable task, long deadlineTick)
+		{
+			this.wheel = wheel;
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+			this.state = PENDING;
+		}
+
+		/**
+		 * Cancels this Timeout, so its task never runs. The task is released right away, and this Timeout is removed
+		 * from the wheel on its next tick.
+		 *
+		 * @return {@code true} if this call cancelled it, {@code false} if it had already run or been cancelled
+		 */
+		public boolean cancel()
+		{
+			if (!STATE.compareAndSet(this, PENDING, CANCELLED))
+			{
+				return false;
+			}
+			task = null;
+			wheel.pending.decrementAndGet();
+			wheel.cancelledCount.increment();
+			wheel.cancelled.add(this);
+			return true;
+		}
+
+		/**
+		 * Checks if this Timeout has been cancelled.
+		 *
+		 * @return {@code true} if this Timeout has been cancelled
+		 */
+		public boolean isCancelled()
+		{
+			return state == CANCELLED;
+		}
+
+		/**
+		 * Checks if the task of this Timeout has run.
+		 *
+		 * @return {@code true} if this Timeout has expired
+		 */
+		public boolean isExpired()
+		{
+			return state == EXPIRED;
+		}
+
+		private void expire()
+		{
+			if (!STATE.compareAndSet(this, PENDING, EXPIRED))
+			{
+				return;
+			}
+			Runnable run = task;
+			task = null;
+			wheel.pending.decrementAndGet();
+			wheel.expiredCount.increment();
+			try
+			{
+				run.run();
+			} catch (Throwable t)
+			{
+				LOG.error("A timeout threw an exception", t);
+			}
+		}
+	}
+
+	private static final class Slot
+	{
+
+		private Timeout	head;
+		private Timeout	tail;
+
+		private void add(Timeout timeout)
+		{
+			timeout.slot = this;
+			timeout.prev = tail;
+			if (tail == null)
+			{
+				head = timeout;
+			} else
+			{
+				tail.next = timeout;
+			}
+			tail = timeout;
+		}
+
+		private void remove(Timeout timeout)
+		{
+			if (timeout.prev == null)
+			{
+				head = timeout.next;
+			} else
+			{
+				timeout.prev.next = timeout.next;
+			}
+			if (timeout.next == null)
+			{
+				tail = timeout.prev;
+			} else
+			{
+				timeout.next.prev = timeout.prev;
+			}
+			timeout.slot = null;
+			timeout.prev = null;
+			timeout.next = null;
+		}
+	}
+}
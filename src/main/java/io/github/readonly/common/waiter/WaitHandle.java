@@ -0,0 +1,49 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.common.waiter;
+
+/**
+ * A handle on a waiter registered with an {@link io.github.readonly.common.waiter.EventWaiter EventWaiter}, used to
+ * cancel it before its action or timeout action has run.
+ */
+public interface WaitHandle
+{
+
+	/**
+	 * Cancels the waiter, removing it from the EventWaiter and releasing its timeout. Neither its action nor its
+	 * timeout action will run afterwards.
+	 *
+	 * @return {@code true} if the waiter was cancelled, {@code false} if it had already run, timed out, or been
+	 *         cancelled
+	 */
+	boolean cancel();
+
+	/**
+	 * Checks if the waiter has run, timed out, or been cancelled.
+	 *
+	 * @return {@code true} if the waiter is no longer waiting
+	 */
+	boolean isDone();
+}
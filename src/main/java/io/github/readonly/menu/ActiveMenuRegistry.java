@@ -0,0 +1,281 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.util.concurrent.TimeUnit;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * A concurrent set of the IDs of messages displaying an active component-driven {@link Menu Menu}.
+ * <p>
+ * IDs are held as primitive {@code long}s in open-addressed tables split over a fixed number of independently locked
+ * segments, so adding, removing and checking an ID are constant time and never box. Every ID carries an expiry time,
+ * after which it no longer counts as active, so menus that never finish cleanly still leave the registry. When a
+ * segment is full, expired IDs are dropped, and if none have expired the segment grows. An ID is never dropped before it
+ * expires, since its menu would then lose its buttons while still running.
+ */
+final class ActiveMenuRegistry
+{
+
+	/**
+	 * The default number of IDs held before the registry grows.
+	 */
+	static final int DEFAULT_CAPACITY = 1 << 16;
+
+	private static final int	SEGMENT_BITS	= 4;
+	private static final int	SEGMENT_COUNT	= 1 << SEGMENT_BITS;
+	private static final long	NEVER			= Long.MAX_VALUE;
+
+	private final Segment[] segments;
+
+	/**
+	 * Creates a new, empty ActiveMenuRegistry.
+	 *
+	 * @param capacity
+	 *            The number of IDs held before the registry grows
+	 */
+	ActiveMenuRegistry(int capacity)
+	{
+		Checks.positive(capacity, "Capacity");
+		int limit = Math.max(1, ((capacity + SEGMENT_COUNT) - 1) / SEGMENT_COUNT);
+		this.segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; i++)
+		{
+			segments[i] = new Segment(limit);
+		}
+	}
+
+	/**
+	 * Adds the ID of a message displaying an active menu, or renews its expiry if it is already present.
+	 *
+	 * @param messageId
+	 *            The ID of the message
+	 * @param timeout
+	 *            How long the menu stays active for, or a non-positive value if it does not expire
+	 * @param unit
+	 *            The TimeUnit of the timeout, or {@code null} if it does not expire
+	 * @param graceMillis
+	 *            How many milliseconds the ID stays past the timeout. Timeouts run late by up to the precision of
+	 *            whatever schedules them, and the ID must still be present while the menu can handle a click.
+	 */
+	void add(long messageId, long timeout, TimeUnit unit, long graceMillis)
+	{
+		long expiresAt = (timeout > 0) && (unit != null) ? System.currentTimeMillis() + unit.toMillis(timeout) + Math.max(0, graceMillis) : NEVER;
+		segmentFor(messageId).put(messageId, expiresAt);
+	}
+
+	/**
+	 * Checks if the message with the provided ID is displaying an active menu.
+	 *
+	 * @param messageId
+	 *            The ID of the message
+	 *
+	 * @return {@code true} if the ID is present and has not expired
+	 */
+	boolean contains(long messageId)
+	{
+		return segmentFor(messageId).contains(messageId, System.currentTimeMillis());
+	}
+
+	/**
+	 * Removes the ID of a message whose menu has finished.
+	 *
+	 * @param messageId
+	 *            The ID of the message
+	 *
+	 * @return {@code true} if the ID was present
+	 */
+	boolean remove(long messageId)
+	{
+		return segmentFor(messageId).remove(messageId);
+	}
+
+	/**
+	 * Gets the number of IDs held, including any that have expired but were not dropped yet.
+	 *
+	 * @return The number of IDs held
+	 */
+	int size()
+	{
+		int size = 0;
+		for (Segment segment : segments)
+		{
+			size += segment.size();
+		}
+		return size;
+	}
+
+	private Segment segmentFor(long messageId)
+	{
+		return segments[hash(messageId) >>> (32 - SEGMENT_BITS)];
+	}
+
+	private static int hash(long messageId)
+	{
+		long h = messageId * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static final class Segment
+	{
+
+		// Discord IDs are never 0, so it marks an empty slot
+		private long[]	keys;
+		private long[]	expiries;
+		private int		mask;
+		private int		limit;
+		private int		size;
+
+		private Segment(int limit)
+		{
+			this.limit = limit;
+			this.size = 0;
+			allocate(limit);
+		}
+
+		private void allocate(int limit)
+		{
+			int tableSize = Integer.highestOneBit(Math.max(2, (limit * 4) / 3) * 2);
+			this.keys = new long[tableSize];
+			this.expiries = new long[tableSize];
+			this.mask = tableSize - 1;
+		}
+
+		private synchronized void put(long key, long expiresAt)
+		{
+			int index = indexOf(key);
+			if (keys[index] == key)
+			{
+				expiries[index] = expiresAt;
+				return;
+			}
+			if (size >= limit)
+			{
+				makeRoom();
+				index = indexOf(key);
+			}
+			keys[index] = key;
+			expiries[index] = expiresAt;
+			size++;
+		}
+
+		private synchronized boolean contains(long key, long now)
+		{
+			int index = indexOf(key);
+			return (keys[index] == key) && (expiries[index] > now);
+		}
+
+		private synchronized boolean remove(long key)
+		{
+			int index = indexOf(key);
+			if (keys[index] != key)
+			{
+				return false;
+			}
+			delete(index);
+			return true;
+		}
+
+		private synchronized int size()
+		{
+			return size;
+		}
+
+		/**
+		 * Finds the slot holding the key, or the empty slot ending its probe sequence.
+		 */
+		private int indexOf(long key)
+		{
+			int index = hash(key) & mask;
+			while ((keys[index] != 0) && (keys[index] != key))
+			{
+				index = (index + 1) & mask;
+			}
+			return index;
+		}
+
+		private void makeRoom()
+		{
+			long now = System.currentTimeMillis();
+			for (int i = 0; i <= mask; i++)
+			{
+				// Deleting shifts a later entry into this slot, so it is checked again
+				while ((keys[i] != 0) && (expiries[i] <= now))
+				{
+					delete(i);
+				}
+			}
+			if (size >= limit)
+			{
+				grow();
+			}
+		}
+
+		/**
+		 * Doubles the limit and rehashes every entry into a table sized for it.
+		 */
+		private void grow()
+		{
+			long[] oldKeys = keys;
+			long[] oldExpiries = expiries;
+			limit *= 2;
+			allocate(limit);
+			for (int i = 0; i < oldKeys.length; i++)
+			{
+				if (oldKeys[i] != 0)
+				{
+					int index = indexOf(oldKeys[i]);
+					keys[index] = oldKeys[i];
+					expiries[index] = oldExpiries[i];
+				}
+			}
+		}
+
+		/**
+		 * Empties a slot, shifting back later entries of the same probe sequence so none of them become unreachable.
+		 */
+		private void delete(int index)
+		{
+			int hole = index;
+			int next = (hole + 1) & mask;
+			while (keys[next] != 0)
+			{
+				int home = hash(keys[next]) & mask;
+				// Moves the entry unless its home slot lies cyclically in (hole, next]
+				if (((next - home) & mask) >= ((next - hole) & mask))
+				{
+					keys[hole] = keys[next];
+					expiries[hole] = expiries[next];
+					hole = next;
+				}
+				next = (next + 1) & mask;
+			}
+			keys[hole] = 0;
+			expiries[hole] = 0;
+			size--;
+		}
+	}
+}
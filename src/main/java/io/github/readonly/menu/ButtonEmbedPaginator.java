@@ -27,9 +27,13 @@ package io.github.readonly.menu;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -38,13 +42,16 @@ import org.slf4j.LoggerFactory;
 
 import io.github.readonly.common.waiter.EventWaiter;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
@@ -64,7 +71,9 @@ import net.dv8tion.jda.internal.utils.Checks;
  */
 public class ButtonEmbedPaginator extends Menu
 {
-	private static final List<String> paginators = new ArrayList<>();
+	private static final ActiveMenuRegistry	paginators			= new ActiveMenuRegistry(ActiveMenuRegistry.DEFAULT_CAPACITY);
+	private static final EventListener		staleClickListener	= new StaleClickListener();
+	private static final Set<JDA>			staleClickWatched	= Collections.newSetFromMap(new WeakHashMap<>());
 
 	private final BiFunction<Integer, Integer, String>	text;
 	private final Consumer<Message>						finalAction;
@@ -73,6 +82,7 @@ public class ButtonEmbedPaginator extends Menu
 	private final int									bulkSkipNumber;
 	private final boolean								wrapPageEnds;
 	private final ButtonStyle							style;
+	private final Map<Long, EditCoalescer>				coalescers;
 
 	public static final Emoji	BIG_LEFT	= Emoji.fromUnicode("\u23EA");
 	public static final Emoji	LEFT		= Emoji.fromUnicode("\u25C0");
@@ -80,9 +90,9 @@ public class ButtonEmbedPaginator extends Menu
 	public static final Emoji	RIGHT		= Emoji.fromUnicode("\u25B6");
 	public static final Emoji	BIG_RIGHT	= Emoji.fromUnicode("\u23E9");
 
-	protected ButtonEmbedPaginator(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, boolean waitOnSinglePage, List<MessageEmbed> embeds, int bulkSkipNumber, boolean wrapPageEnds, ButtonStyle style)
+	protected ButtonEmbedPaginator(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, boolean waitOnSinglePage, List<MessageEmbed> embeds, int bulkSkipNumber, boolean wrapPageEnds, ButtonStyle style)
 	{
-		super(waiter, users, roles, timeout, unit);
+		super(waiter, users, roles, timeout, unit, actionExecutor);
 		this.text = text;
 		this.finalAction = finalAction;
 		this.waitOnSinglePage = waitOnSinglePage;
@@ -90,6 +100,7 @@ public class ButtonEmbedPaginator extends Menu
 		this.bulkSkipNumber = bulkSkipNumber;
 		this.wrapPageEnds = wrapPageEnds;
 		this.style = style;
+		this.coalescers = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -234,21 +245,37 @@ public class ButtonEmbedPaginator extends Menu
 
 	private void pagination(Message message, int pageNum)
 	{
-		// store this for later
-		paginators.add(message.getId());
+		// store this for later, renewing the expiry on every page turn. The waiter's timeout can run up to a tick late,
+		// so the entry is kept two ticks longer, and a click the waiter still handles is never also answered as stale
+		long tickMillis = TimeUnit.NANOSECONDS.toMillis(waiter.getTimeoutWheel().getTickNanos());
+		paginators.add(message.getIdLong(), timeout, unit, 2 * Math.max(1, tickMillis));
+		watchStaleClicks(message.getJDA());
 
-		waiter.waitForEvent(ButtonInteractionEvent.class, event -> checkButton(event, message.getIdLong()), event -> handleButtonInteraction(event, message, pageNum), timeout, unit, () -> finalAction.accept(message));
+		waiter.waitForEvent(ButtonInteractionEvent.class, COMPONENT_MESSAGE_ID, message.getIdLong(), event -> checkButton(event, message.getIdLong()), event -> handleButtonInteraction(event, message, pageNum), timeout, unit, () -> finish(message), actionExecutor);
 	}
 
-	private boolean checkButton(ButtonInteractionEvent event, long messageId)
+	/**
+	 * Registers, once per {@link JDA JDA}, the listener answering clicks on the buttons of paginators that are no longer
+	 * active. The waiters of active paginators are keyed by their message, so clicks on a timed out or stopped paginator
+	 * never reach them.
+	 *
+	 * @param jda
+	 *            The JDA instance the paginator is displayed on
+	 */
+	private static void watchStaleClicks(JDA jda)
 	{
-		if (event.getComponentId().startsWith("bep:") && !paginators.contains(event.getMessageId()))
+		synchronized (staleClickWatched)
 		{
-			event.reply("This paginator is no longer active. The buttons will be removed. Please make a new one!").setEphemeral(true).queue();
-			event.getMessage().editMessageComponents().queue();
-			return false;
+			if (!staleClickWatched.add(jda))
+			{
+				return;
+			}
 		}
+		jda.addEventListener(staleClickListener);
+	}
 
+	private boolean checkButton(ButtonInteractionEvent event, long messageId)
+	{
 		if (event.getMessageIdLong() != messageId)
 		{
 			return false;
@@ -326,12 +353,32 @@ public class ButtonEmbedPaginator extends Menu
 			}
 		} else if (emoji.equals(STOP))
 		{
-			finalAction.accept(message);
+			finish(message);
 			return;
 		}
 
 		int n = newPageNum;
-		event.deferEdit().queue(interactionHook -> message.editMessage(renderPage(n)).setActionRow(buildButtons()).queue(m -> pagination(m, n)));
+		event.deferEdit().queue();
+		// Wait for the next click straight away, and only render and send this
+		// page if no later click replaces it first
+		pagination(message, n);
+		coalescer(message).edit(() -> message.editMessage(renderPage(n)).setActionRow(buildButtons()));
+	}
+
+	private EditCoalescer coalescer(Message message)
+	{
+		return coalescers.computeIfAbsent(message.getIdLong(), id -> new EditCoalescer());
+	}
+
+	private void finish(Message message)
+	{
+		paginators.remove(message.getIdLong());
+		EditCoalescer coalescer = coalescers.remove(message.getIdLong());
+		if (coalescer != null)
+		{
+			coalescer.close();
+		}
+		finalAction.accept(message);
 	}
 
 	private MessageEditData renderPage(int pageNum)
@@ -358,7 +405,7 @@ public class ButtonEmbedPaginator extends Menu
 		private boolean									wrapPageEnds		= false;
 		private ButtonStyle								style				= ButtonStyle.SECONDARY;
 
-		private final List<MessageEmbed> embeds = new LinkedList<>();
+		private final List<MessageEmbed> embeds = new ArrayList<>();
 
 		/**
 		 * Builds the {@link ButtonEmbedPaginator} with this Builder.
@@ -378,7 +425,7 @@ public class ButtonEmbedPaginator extends Menu
 			Checks.check(waiter != null, "Must set an EventWaiter");
 			Checks.check(!embeds.isEmpty(), "Must include at least one item to paginate");
 
-			return new ButtonEmbedPaginator(waiter, users, roles, timeout, unit, text, finalAction, waitOnSinglePage, embeds, bulkSkipNumber, wrapPageEnds, style);
+			return new ButtonEmbedPaginator(waiter, users, roles, timeout, unit, actionExecutor, text, finalAction, waitOnSinglePage, embeds, bulkSkipNumber, wrapPageEnds, style);
 		}
 
 		/**
@@ -600,4 +647,27 @@ public class ButtonEmbedPaginator extends Menu
 			return this;
 		}
 	}
+
+	/**
+	 * Checks every button click on a paginator against the registry of active paginators, and tells the user when the
+	 * paginator clicked has stopped, removing its buttons.
+	 */
+	private static final class StaleClickListener implements EventListener
+	{
+
+		@Override
+		public void onEvent(GenericEvent event)
+		{
+			if (!(event instanceof ButtonInteractionEvent))
+			{
+				return;
+			}
+			ButtonInteractionEvent click = (ButtonInteractionEvent) event;
+			if (click.getComponentId().startsWith("bep:") && !paginators.contains(click.getMessageIdLong()))
+			{
+				click.reply("This paginator is no longer active. The buttons will be removed. Please make a new one!").setEphemeral(true).queue();
+				click.getMessage().editMessageComponents().queue();
+			}
+		}
+	}
 }
@@ -28,6 +28,7 @@ import java.awt.Color;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -62,9 +63,9 @@ public class ButtonMenu extends Menu
 	private final Consumer<Emoji>	action;
 	private final Consumer<Message>	finalAction;
 
-	ButtonMenu(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Color color, String text, String description, List<String> choices, Consumer<Emoji> action, Consumer<Message> finalAction)
+	ButtonMenu(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor, Color color, String text, String description, List<String> choices, Consumer<Emoji> action, Consumer<Message> finalAction)
 	{
-		super(waiter, users, roles, timeout, unit);
+		super(waiter, users, roles, timeout, unit, actionExecutor);
 		this.color = color;
 		this.text = text;
 		this.description = description;
@@ -134,15 +135,10 @@ public class ButtonMenu extends Menu
 					// This is the last reaction added.
 					r.queue(v ->
 					{
-						waiter.waitForEvent(MessageReactionAddEvent.class, event ->
+						// Keyed by the message, so only reactions on the
+						// ButtonMenu currently being displayed are tested.
+						waiter.waitForEvent(MessageReactionAddEvent.class, MESSAGE_ID, m.getIdLong(), event ->
 						{
-							// If the message is not the same as the ButtonMenu
-							// currently being displayed.
-							if (!event.getMessageId().equals(m.getId()))
-							{
-								return false;
-							}
-
 							// If the reaction is an Emote we get the Snowflake,
 							// otherwise we get the unicode value.
 							String re = event.getReaction().getEmoji().getName();
@@ -168,7 +164,7 @@ public class ButtonMenu extends Menu
 							// ReactionEmote
 							action.accept(event.getReaction().getEmoji());
 							finalAction.accept(m);
-						}, timeout, unit, () -> finalAction.accept(m));
+						}, timeout, unit, () -> finalAction.accept(m), actionExecutor);
 					});
 				}
 			}
@@ -229,7 +225,7 @@ public class ButtonMenu extends Menu
 			Checks.check(action != null, "Must provide an action consumer");
 			Checks.check((text != null) || (description != null), "Either text or description must be set");
 
-			return new ButtonMenu(waiter, users, roles, timeout, unit, color, text, description, choices, action, finalAction);
+			return new ButtonMenu(waiter, users, roles, timeout, unit, actionExecutor, color, text, description, choices, action, finalAction);
 		}
 
 		/**
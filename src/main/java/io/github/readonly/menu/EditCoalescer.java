@@ -0,0 +1,147 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import net.dv8tion.jda.api.entities.MessageReaction;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.exceptions.PermissionException;
+import net.dv8tion.jda.api.requests.RestAction;
+
+/**
+ * Coalesces the edits a {@link Menu Menu} makes to one of its messages, so that rapid interactions never pile up
+ * requests behind each other.
+ * <p>
+ * At most one edit is in flight at a time. Edits submitted while one is in flight replace each other, and only the
+ * latest is sent once the in-flight edit completes, so the message skips straight to the newest state. Removals of
+ * the same reaction by the same user are sent only once while one is still in flight, and nothing is sent once the
+ * menu has {@linkplain #close() finished}.
+ */
+final class EditCoalescer
+{
+
+	private final Set<String>					removals	= new HashSet<>();
+	private Supplier<? extends RestAction<?>>	pending		= null;
+	private boolean								inFlight	= false;
+	private boolean								closed		= false;
+
+	/**
+	 * Sends an edit, or holds it until the edit in flight completes, replacing any edit already held.
+	 *
+	 * @param edit
+	 *            A Supplier creating the RestAction that edits the message
+	 */
+	void edit(Supplier<? extends RestAction<?>> edit)
+	{
+		synchronized (this)
+		{
+			if (closed)
+			{
+				return;
+			}
+			if (inFlight)
+			{
+				pending = edit;
+				return;
+			}
+			inFlight = true;
+		}
+		send(edit);
+	}
+
+	/**
+	 * Removes a reaction added by a user, unless a removal of the same reaction by the same user is already in flight.
+	 *
+	 * @param reaction
+	 *            The reaction to remove
+	 * @param user
+	 *            The user whose reaction is removed
+	 */
+	void removeReaction(MessageReaction reaction, User user)
+	{
+		final String key = reaction.getEmoji().getAsReactionCode() + ':' + user.getIdLong();
+		synchronized (this)
+		{
+			if (closed || !removals.add(key))
+			{
+				return;
+			}
+		}
+		Runnable done = () ->
+		{
+			synchronized (this)
+			{
+				removals.remove(key);
+			}
+		};
+		try
+		{
+			reaction.removeReaction(user).queue(v -> done.run(), t -> done.run());
+		} catch (PermissionException ignored)
+		{
+			done.run();
+		}
+	}
+
+	/**
+	 * Drops any held edit, and stops sending anything further.
+	 */
+	synchronized void close()
+	{
+		closed = true;
+		pending = null;
+	}
+
+	private void send(Supplier<? extends RestAction<?>> edit)
+	{
+		try
+		{
+			edit.get().queue(v -> next(), t -> next());
+		} catch (RuntimeException e)
+		{
+			next();
+			throw e;
+		}
+	}
+
+	private void next()
+	{
+		Supplier<? extends RestAction<?>> edit;
+		synchronized (this)
+		{
+			edit = pending;
+			pending = null;
+			if (edit == null)
+			{
+				inFlight = false;
+				return;
+			}
+		}
+		send(edit);
+	}
+}
@@ -24,11 +24,14 @@
 
 package io.github.readonly.menu;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -42,10 +45,8 @@ import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
-import net.dv8tion.jda.api.events.message.GenericMessageEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
-import net.dv8tion.jda.api.exceptions.PermissionException;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
@@ -73,12 +74,15 @@ public class EmbedPaginator extends Menu
 	private final BiFunction<Integer, Integer, String>	text;
 	private final Consumer<Message>						finalAction;
 	private final boolean								waitOnSinglePage;
-	private final List<MessageEmbed>					embeds;
+	private final PageWindow<MessageEmbed>				window;
 	private final int									bulkSkipNumber;
 	private final boolean								wrapPageEnds;
 	private final String								leftText;
 	private final String								rightText;
 	private final boolean								allowTextInput;
+	private final RenderCache<MessageEmbed>				renderCache;
+	private final Executor								preRenderExecutor;
+	private final Map<Long, EditCoalescer>				coalescers;
 
 	public static final String	BIG_LEFT	= "\u23EA";
 	public static final String	LEFT		= "\u25C0";
@@ -86,18 +90,21 @@ public class EmbedPaginator extends Menu
 	public static final String	RIGHT		= "\u25B6";
 	public static final String	BIG_RIGHT	= "\u23E9";
 
-	protected EmbedPaginator(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, boolean waitOnSinglePage, List<MessageEmbed> embeds, int bulkSkipNumber, boolean wrapPageEnds, String leftText, String rightText, boolean allowTextInput)
+	protected EmbedPaginator(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, boolean waitOnSinglePage, PageSource<MessageEmbed> source, int bulkSkipNumber, boolean wrapPageEnds, String leftText, String rightText, boolean allowTextInput, boolean deterministic, Executor preRenderExecutor)
 	{
-		super(waiter, users, roles, timeout, unit);
+		super(waiter, users, roles, timeout, unit, actionExecutor);
 		this.text = text;
 		this.finalAction = finalAction;
 		this.waitOnSinglePage = waitOnSinglePage;
-		this.embeds = embeds;
+		this.window = new PageWindow<>(source, 1, PageWindow.DEFAULT_PREFETCH);
 		this.bulkSkipNumber = bulkSkipNumber;
 		this.wrapPageEnds = wrapPageEnds;
 		this.leftText = leftText;
 		this.rightText = rightText;
 		this.allowTextInput = allowTextInput;
+		this.renderCache = deterministic ? new RenderCache<>(RenderCache.DEFAULT_CAPACITY, this::render) : null;
+		this.preRenderExecutor = preRenderExecutor;
+		this.coalescers = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -160,12 +167,11 @@ public class EmbedPaginator extends Menu
 		if (pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > embeds.size())
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = embeds.size();
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(channel.sendMessage(MessageCreateData.fromEditData(msg)), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(channel.sendMessage(MessageCreateData.fromEditData(renderPage(page))), page.getNumber()));
 	}
 
 	/**
@@ -181,12 +187,11 @@ public class EmbedPaginator extends Menu
 		if(pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > embeds.size())
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = embeds.size();
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(hook.editOriginal(msg), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(hook.editOriginal(renderPage(page)), page.getNumber()));
 	}
 
 	/**
@@ -205,19 +210,18 @@ public class EmbedPaginator extends Menu
 		if (pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > embeds.size())
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = embeds.size();
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(message.editMessage(msg), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(message.editMessage(renderPage(page)), page.getNumber()));
 	}
 
 	private void initialize(RestAction<Message> action, int pageNum)
 	{
 		action.queue(m ->
 		{
-			if (embeds.size() > 1)
+			if (window.getPageCount() > 1)
 			{
 				if (bulkSkipNumber > 1)
 				{
@@ -242,6 +246,7 @@ public class EmbedPaginator extends Menu
 
 	private void pagination(Message message, int pageNum)
 	{
+		preRender(pageNum);
 		if (allowTextInput || ((leftText != null) && (rightText != null)))
 		{
 			paginationWithTextInput(message, pageNum);
@@ -253,80 +258,62 @@ public class EmbedPaginator extends Menu
 
 	private void paginationWithTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(GenericMessageEvent.class, event ->
+		waitForReactionOrText(message, event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), mre ->
 		{
-			if (event instanceof MessageReactionAddEvent)
+			String rawContent = mre.getMessage().getContentRaw().trim();
+			if ((leftText != null) && (rightText != null))
 			{
-				return checkReaction((MessageReactionAddEvent) event, message.getIdLong());
-			} else if (event instanceof MessageReceivedEvent)
-			{
-				MessageReceivedEvent mre = (MessageReceivedEvent) event;
-				if (!mre.getChannel().equals(message.getChannel()))
-				{
-					return false;
-				}
-				String rawContent = mre.getMessage().getContentRaw().trim();
-				if ((leftText != null) && (rightText != null))
+				if (rawContent.equalsIgnoreCase(leftText) || rawContent.equalsIgnoreCase(rightText))
 				{
-					if (rawContent.equalsIgnoreCase(leftText) || rawContent.equalsIgnoreCase(rightText))
-					{
-						return isValidUser(mre.getAuthor(), mre.isFromGuild() ? mre.getGuild() : null);
-					}
+					return true;
 				}
+			}
 
-				if (allowTextInput)
+			if (allowTextInput)
+			{
+				try
 				{
-					try
-					{
-						int i = Integer.parseInt(rawContent);
+					int i = Integer.parseInt(rawContent);
 
-						if ((1 <= i) && (i <= embeds.size()) && (i != pageNum))
-						{
-							return isValidUser(mre.getAuthor(), mre.isFromGuild() ? mre.getGuild() : null);
-						}
-					} catch (NumberFormatException ignored)
+					if ((1 <= i) && (i <= window.getPageCount()) && (i != pageNum))
 					{
+						return true;
 					}
+				} catch (NumberFormatException ignored)
+				{
 				}
 			}
 			return false;
-		}, event ->
+		}, mre ->
 		{
-			if (event instanceof MessageReactionAddEvent)
+			String rawContent = mre.getMessage().getContentRaw().trim();
+
+			int			pages	= window.getPageCount();
+			final int	targetPage;
+
+			if ((leftText != null) && rawContent.equalsIgnoreCase(leftText) && ((1 < pageNum) || wrapPageEnds))
 			{
-				handleMessageReactionAddAction((MessageReactionAddEvent) event, message, pageNum);
+				targetPage = ((pageNum - 1) < 1) && wrapPageEnds ? pages : pageNum - 1;
+			} else if ((rightText != null) && rawContent.equalsIgnoreCase(rightText) && ((pageNum < pages) || wrapPageEnds))
+			{
+				targetPage = ((pageNum + 1) > pages) && wrapPageEnds ? 1 : pageNum + 1;
 			} else
 			{
-				MessageReceivedEvent	mre			= (MessageReceivedEvent) event;
-				String					rawContent	= mre.getMessage().getContentRaw().trim();
-
-				int			pages	= embeds.size();
-				final int	targetPage;
-
-				if ((leftText != null) && rawContent.equalsIgnoreCase(leftText) && ((1 < pageNum) || wrapPageEnds))
-				{
-					targetPage = ((pageNum - 1) < 1) && wrapPageEnds ? pages : pageNum - 1;
-				} else if ((rightText != null) && rawContent.equalsIgnoreCase(rightText) && ((pageNum < pages) || wrapPageEnds))
-				{
-					targetPage = ((pageNum + 1) > pages) && wrapPageEnds ? 1 : pageNum + 1;
-				} else
-				{
-					targetPage = Integer.parseInt(rawContent);
-				}
-
-				message.editMessage(renderPage(targetPage)).queue(m -> pagination(m, targetPage));
-				mre.getMessage().delete().queue(v ->
-				{
-				}, t ->
-				{
-				});
+				targetPage = Integer.parseInt(rawContent);
 			}
-		}, timeout, unit, () -> finalAction.accept(message));
+
+			turnPage(message, pageNum, targetPage);
+			mre.getMessage().delete().queue(v ->
+			{
+			}, t ->
+			{
+			});
+		}, () -> finish(message));
 	}
 
 	private void paginationWithoutTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(MessageReactionAddEvent.class, event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), timeout, unit, () -> finalAction.accept(message));
+		waiter.waitForEvent(MessageReactionAddEvent.class, MESSAGE_ID, message.getIdLong(), event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), timeout, unit, () -> finish(message), actionExecutor);
 	}
 
 	private boolean checkReaction(MessageReactionAddEvent event, long messageId)
@@ -352,7 +339,7 @@ public class EmbedPaginator extends Menu
 	private void handleMessageReactionAddAction(MessageReactionAddEvent event, Message message, int pageNum)
 	{
 		int	newPageNum	= pageNum;
-		int	pages		= embeds.size();
+		int	pages		= window.getPageCount();
 		switch (event.getReaction().getEmoji().getName())
 		{
 		case LEFT:
@@ -402,29 +389,80 @@ public class EmbedPaginator extends Menu
 			}
 			break;
 		case STOP:
-			finalAction.accept(message);
+			finish(message);
 			return;
 		}
 
-		try
+		coalescer(message).removeReaction(event.getReaction(), event.getUser());
+		turnPage(message, pageNum, newPageNum);
+	}
+
+	private void turnPage(Message message, int pageNum, int targetPage)
+	{
+		window.get(targetPage).whenComplete((page, t) ->
 		{
-			event.getReaction().removeReaction(event.getUser()).queue();
-		} catch (PermissionException ignored)
+			if (page == null)
+			{
+				// The page couldn't be fetched, stay on the current one
+				pagination(message, pageNum);
+				return;
+			}
+			// Wait for the next interaction straight away, and only render and
+			// send this page if no later page replaces it first
+			pagination(message, page.getNumber());
+			coalescer(message).edit(() -> message.editMessage(renderPage(page)));
+		});
+	}
+
+	private EditCoalescer coalescer(Message message)
+	{
+		return coalescers.computeIfAbsent(message.getIdLong(), id -> new EditCoalescer());
+	}
+
+	private void finish(Message message)
+	{
+		EditCoalescer coalescer = coalescers.remove(message.getIdLong());
+		if (coalescer != null)
 		{
+			coalescer.close();
 		}
+		finalAction.accept(message);
+	}
 
-		int n = newPageNum;
-		message.editMessage(renderPage(newPageNum)).queue(m -> pagination(m, n));
+	private MessageEditData renderPage(PageWindow.Page<MessageEmbed> page)
+	{
+		int pages = window.getPageCount();
+		return renderCache != null ? renderCache.get(page, pages) : render(page, pages);
 	}
 
-	private MessageEditData renderPage(int pageNum)
+	private void preRender(int pageNum)
 	{
-		MessageEditBuilder	mbuilder	= new MessageEditBuilder();
-		MessageEmbed		membed		= this.embeds.get(pageNum - 1);
-		mbuilder.setEmbeds(membed);
+		if ((renderCache == null) || (preRenderExecutor == null))
+		{
+			return;
+		}
+		int pages = window.getPageCount();
+		preRenderPage(pageNum > 1 ? pageNum - 1 : wrapPageEnds ? pages : 0);
+		preRenderPage(pageNum < pages ? pageNum + 1 : wrapPageEnds ? 1 : 0);
+	}
+
+	private void preRenderPage(int pageNum)
+	{
+		if (pageNum < 1)
+		{
+			return;
+		}
+		// Neighbours were already prefetched when the current page was fetched
+		window.get(pageNum, false).thenAcceptAsync(this::renderPage, preRenderExecutor);
+	}
+
+	private MessageEditData render(PageWindow.Page<MessageEmbed> page, int pages)
+	{
+		MessageEditBuilder mbuilder = new MessageEditBuilder();
+		mbuilder.setEmbeds(page.getItems());
 		if (text != null)
 		{
-			mbuilder.setContent(text.apply(pageNum, embeds.size()));
+			mbuilder.setContent(text.apply(page.getNumber(), pages));
 		}
 		return mbuilder.build();
 	}
@@ -446,8 +484,11 @@ public class EmbedPaginator extends Menu
 		private String									leftText			= null;
 		private String									rightText			= null;
 		private boolean									allowTextInput		= false;
+		private boolean									deterministic		= true;
+		private Executor								preRenderExecutor	= null;
 
-		private final List<MessageEmbed> embeds = new LinkedList<>();
+		private final List<MessageEmbed>	embeds	= new ArrayList<>();
+		private PageSource<MessageEmbed>	source	= null;
 
 		/**
 		 * Builds the {@link io.github.readonly.menu.EmbedPaginator EmbedPaginator}
@@ -460,16 +501,17 @@ public class EmbedPaginator extends Menu
 		 *             <ul>
 		 *             <li>No {@link io.github.readonly.common.waiter.EventWaiter
 		 *             EventWaiter} was set.</li>
-		 *             <li>No items were set to paginate.</li>
+		 *             <li>No items or {@link io.github.readonly.menu.PageSource
+		 *             PageSource} were set to paginate.</li>
 		 *             </ul>
 		 */
 		@Override
 		public EmbedPaginator build()
 		{
 			Checks.check(waiter != null, "Must set an EventWaiter");
-			Checks.check(!embeds.isEmpty(), "Must include at least one item to paginate");
+			Checks.check((source != null) || !embeds.isEmpty(), "Must include at least one item to paginate");
 
-			return new EmbedPaginator(waiter, users, roles, timeout, unit, text, finalAction, waitOnSinglePage, embeds, bulkSkipNumber, wrapPageEnds, leftText, rightText, allowTextInput);
+			return new EmbedPaginator(waiter, users, roles, timeout, unit, actionExecutor, text, finalAction, waitOnSinglePage, source != null ? source : PageSource.of(embeds), bulkSkipNumber, wrapPageEnds, leftText, rightText, allowTextInput, deterministic, preRenderExecutor);
 		}
 
 		/**
@@ -684,6 +726,26 @@ public class EmbedPaginator extends Menu
 			return this;
 		}
 
+		/**
+		 * Sets the {@link io.github.readonly.menu.PageSource PageSource} to
+		 * fetch the {@link MessageEmbed MessageEmbeds} to paginate from, one
+		 * embed per page.
+		 * <br>
+		 * Only the displayed embed and its neighbours are fetched. When set,
+		 * any items added to this builder are ignored.
+		 *
+		 * @param source
+		 *            The PageSource to fetch embeds from, or {@code null} to
+		 *            paginate the items added to this builder
+		 *
+		 * @return This builder
+		 */
+		public Builder setPageSource(PageSource<MessageEmbed> source)
+		{
+			this.source = source;
+			return this;
+		}
+
 		/**
 		 * Sets the {@link io.github.readonly.menu.EmbedPaginator EmbedPaginator}'s
 		 * bulk-skip function to
@@ -776,5 +838,46 @@ public class EmbedPaginator extends Menu
 			}
 			return this;
 		}
+
+		/**
+		 * Sets whether the color and text of a page are always the same for
+		 * the same page number and total page count.
+		 * <br>
+		 * When deterministic, which is the default, the EmbedPaginator keeps a small
+		 * cache of rendered pages and reuses them when a page is shown again.
+		 * Set this to {@code false} if the function provided to
+		 * {@link #setText(BiFunction)} can return different results for the
+		 * same page, so every page is rendered anew each time it is shown.
+		 *
+		 * @param deterministic
+		 *            {@code true} if pages may be cached once rendered
+		 *
+		 * @return This builder
+		 */
+		public Builder setDeterministic(boolean deterministic)
+		{
+			this.deterministic = deterministic;
+			return this;
+		}
+
+		/**
+		 * Sets the {@link java.util.concurrent.Executor Executor} used to
+		 * render the pages either side of the displayed page ahead of time,
+		 * so the next page can be shown as soon as it is requested.
+		 * <br>
+		 * Pages are only rendered ahead of time if the EmbedPaginator is
+		 * {@link #setDeterministic(boolean) deterministic}.
+		 *
+		 * @param executor
+		 *            The Executor to render pages on, or {@code null} to only
+		 *            render pages when they are requested
+		 *
+		 * @return This builder
+		 */
+		public Builder setPreRenderExecutor(Executor executor)
+		{
+			this.preRenderExecutor = executor;
+			return this;
+		}
 	}
 }
@@ -26,19 +26,35 @@ package io.github.readonly.menu;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 import javax.annotation.Nullable;
 
 import io.github.readonly.common.waiter.EventWaiter;
+import io.github.readonly.common.waiter.WaitHandle;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.MessageReaction;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 
 /**
@@ -65,19 +81,52 @@ import net.dv8tion.jda.api.interactions.InteractionHook;
  */
 public abstract class Menu
 {
+	/**
+	 * Gets the ID of the message a message Event concerns, used to key {@link EventWaiter EventWaiter} registrations
+	 * by the message a Menu is displayed as. Waiters keyed by it are cancelled when the message is deleted.
+	 */
+	protected static final ToLongFunction<GenericMessageEvent>						MESSAGE_ID				= EventWaiter.MESSAGE_ID;
+
+	/**
+	 * Gets the ID of the message a component interaction was made on, used to key {@link EventWaiter EventWaiter}
+	 * registrations by the message a Menu is displayed as. Waiters keyed by it are cancelled when the message is
+	 * deleted.
+	 */
+	protected static final ToLongFunction<GenericComponentInteractionCreateEvent>	COMPONENT_MESSAGE_ID	= EventWaiter.COMPONENT_MESSAGE_ID;
+
+	/**
+	 * Gets the ID of the channel a message was sent in, used to key {@link EventWaiter EventWaiter} registrations
+	 * waiting for text input in the channel a Menu is displayed in.
+	 */
+	protected static final ToLongFunction<MessageReceivedEvent>						CHANNEL_ID				= event -> event.getChannel().getIdLong();
+
+	/**
+	 * Gets a key combining the channel a message was sent in and its author, as produced by
+	 * {@link #channelAuthorKey(long, long)}. Distinct pairs may share a key, so conditions of waiters keyed by it must
+	 * still check both IDs.
+	 */
+	protected static final ToLongFunction<MessageReceivedEvent>						CHANNEL_AUTHOR			= event -> channelAuthorKey(event.getChannel().getIdLong(), event.getAuthor().getIdLong());
+
 	protected final EventWaiter	waiter;
 	protected Set<User>			users;
 	protected Set<Role>			roles;
 	protected final long		timeout;
 	protected final TimeUnit	unit;
+	protected final Executor	actionExecutor;
 
 	protected Menu(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit)
+	{
+		this(waiter, users, roles, timeout, unit, null);
+	}
+
+	protected Menu(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor)
 	{
 		this.waiter = waiter;
 		this.users = users;
 		this.roles = roles;
 		this.timeout = timeout;
 		this.unit = unit;
+		this.actionExecutor = actionExecutor;
 	}
 
 	/**
@@ -168,6 +217,156 @@ public abstract class Menu
 		return guild.getMember(user).getRoles().stream().anyMatch(roles::contains);
 	}
 
+	/**
+	 * Waits for either a reaction on the provided {@link Message Message} or text input from a valid
+	 * {@link User User} in its channel, running exactly one of the provided actions, or the timeout action if neither
+	 * arrives in time. <p>
+	 *
+	 * The reaction waiter is keyed by the message, and text input waiters are keyed by the channel, so the
+	 * {@link EventWaiter EventWaiter} never tests messages sent elsewhere. When this Menu only allows specific Users and
+	 * no Roles, one text input waiter is keyed by the channel and each User instead, so messages from anyone else are
+	 * never tested at all. Otherwise the allowed Users and Roles are resolved to IDs once, so each message is checked
+	 * with set lookups rather than a scan of the roles. <p>
+	 *
+	 * If the message is deleted, every waiter is cancelled and none of the actions run.
+	 *
+	 * @param message
+	 *                          The Message this Menu is displayed as
+	 * @param reactionCondition
+	 *                          The condition a reaction on the message must meet
+	 * @param reactionAction
+	 *                          The action to run for a reaction meeting the condition
+	 * @param textCondition
+	 *                          The condition the content of a message from a valid User must meet
+	 * @param textAction
+	 *                          The action to run for a message meeting the condition
+	 * @param timeoutAction
+	 *                          The action to run if nothing meets its condition in time
+	 */
+	protected void waitForReactionOrText(Message message, Predicate<MessageReactionAddEvent> reactionCondition, Consumer<MessageReactionAddEvent> reactionAction, Predicate<MessageReceivedEvent> textCondition, Consumer<MessageReceivedEvent> textAction, Runnable timeoutAction)
+	{
+		final long			channelId	= message.getChannel().getIdLong();
+		AtomicBoolean		done		= new AtomicBoolean();
+		List<WaitHandle>	handles		= new CopyOnWriteArrayList<>();
+		// The reaction future is cancelled when the message is deleted,
+		// which must also end the text input waiters keyed by the channel
+		CompletableFuture<MessageReactionAddEvent> reaction = waiter.waitFor(MessageReactionAddEvent.class, MESSAGE_ID, message.getIdLong(), reactionCondition, timeout, unit);
+		// Only the first waiter to finish runs, the others are cancelled
+		Runnable timeoutOnce = () ->
+		{
+			if (done.compareAndSet(false, true))
+			{
+				reaction.cancel(false);
+				handles.forEach(WaitHandle::cancel);
+				timeoutAction.run();
+			}
+		};
+		Consumer<MessageReceivedEvent> textOnce = event ->
+		{
+			if (done.compareAndSet(false, true))
+			{
+				reaction.cancel(false);
+				handles.forEach(WaitHandle::cancel);
+				textAction.accept(event);
+			}
+		};
+		BiConsumer<MessageReactionAddEvent, Throwable> reactionOnce = (event, t) ->
+		{
+			if (!done.compareAndSet(false, true))
+			{
+				return;
+			}
+			handles.forEach(WaitHandle::cancel);
+			if (event != null)
+			{
+				reactionAction.accept(event);
+			} else if (!(t instanceof CancellationException))
+			{
+				timeoutAction.run();
+			}
+			// Otherwise the message was deleted, and there is nothing left to finish
+		};
+		// Handed over like the actions of the waiters, so a rejecting executor runs it inline instead of dropping it
+		reaction.whenComplete((event, t) -> waiter.runAction(actionExecutor, () -> reactionOnce.accept(event, t)));
+
+		if (!users.isEmpty() && roles.isEmpty())
+		{
+			for (User user : users)
+			{
+				final long userId = user.getIdLong();
+				handles.add(waiter.waitForEvent(MessageReceivedEvent.class, CHANNEL_AUTHOR, channelAuthorKey(channelId, userId), event -> (event.getChannel().getIdLong() == channelId) && (event.getAuthor().getIdLong() == userId) && !event.getAuthor().isBot() && textCondition.test(event), textOnce, timeout, unit, timeoutOnce, actionExecutor));
+			}
+		} else
+		{
+			Predicate<MessageReceivedEvent> validUser = compileValidUser();
+			handles.add(waiter.waitForEvent(MessageReceivedEvent.class, CHANNEL_ID, channelId, event -> validUser.test(event) && textCondition.test(event), textOnce, timeout, unit, timeoutOnce, actionExecutor));
+		}
+
+		// Finished while the text input waiters were still being registered
+		if (done.get())
+		{
+			handles.forEach(WaitHandle::cancel);
+		}
+	}
+
+	/**
+	 * Combines the ID of a channel and the ID of a message author into the key used by {@link #CHANNEL_AUTHOR}.
+	 *
+	 * @param channelId
+	 *                  The ID of the channel
+	 * @param userId
+	 *                  The ID of the author
+	 *
+	 * @return The combined key
+	 */
+	protected static long channelAuthorKey(long channelId, long userId)
+	{
+		return (channelId * 0x9E3779B97F4A7C15L) ^ userId;
+	}
+
+	/**
+	 * Compiles {@link #isValidUser(User, Guild)} for the current Users and Roles of this Menu into a Predicate on the
+	 * author of a received message, resolving both to sets of IDs once.
+	 *
+	 * @return The compiled Predicate
+	 */
+	private Predicate<MessageReceivedEvent> compileValidUser()
+	{
+		if (users.isEmpty() && roles.isEmpty())
+		{
+			return event -> !event.getAuthor().isBot();
+		}
+		Set<Long>	userIds	= new HashSet<>();
+		Set<Long>	roleIds	= new HashSet<>();
+		users.forEach(user -> userIds.add(user.getIdLong()));
+		roles.forEach(role -> roleIds.add(role.getIdLong()));
+		return event ->
+		{
+			User author = event.getAuthor();
+			if (author.isBot())
+			{
+				return false;
+			}
+			if (userIds.contains(author.getIdLong()))
+			{
+				return true;
+			}
+			Member member = event.isFromGuild() ? event.getMember() : null;
+			if ((member == null) || roleIds.isEmpty())
+			{
+				return false;
+			}
+			for (Role role : member.getRoles())
+			{
+				if (roleIds.contains(role.getIdLong()))
+				{
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
 	/**
 	 * An extendable frame for a chain-method builder that constructs a specified type of
 	 * {@link io.github.readonly.menu.Menu Menu}. <p>
@@ -201,6 +400,7 @@ public abstract class Menu
 		protected Set<Role>		roles	= new HashSet<>();
 		protected long			timeout	= 1;
 		protected TimeUnit		unit	= TimeUnit.MINUTES;
+		protected Executor		actionExecutor;
 
 		/**
 		 * Builds the {@link io.github.readonly.menu.Menu Menu} corresponding to this
@@ -312,5 +512,24 @@ public abstract class Menu
 			this.unit = unit;
 			return (T) this;
 		}
+
+		/**
+		 * Sets the {@link java.util.concurrent.Executor Executor} that the {@link io.github.readonly.menu.Menu Menu}
+		 * handles input on, such as turning pages.
+		 *
+		 * <p> Input is still matched on the JDA event thread, but handling it is handed to the Executor, so rendering
+		 * and editing the Menu does not hold up other listeners. When not set, the default of the
+		 * {@link io.github.readonly.common.waiter.EventWaiter EventWaiter} is used.
+		 *
+		 * @param actionExecutor
+		 *                       The Executor to handle input on, or {@code null} to use the EventWaiter's default
+		 *
+		 * @return This builder
+		 */
+		public final T setActionExecutor(Executor actionExecutor)
+		{
+			this.actionExecutor = actionExecutor;
+			return (T) this;
+		}
 	}
 }
@@ -0,0 +1,154 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * A source of the items displayed by a paginating {@link Menu Menu}, fetched one page at a time.
+ * <p>
+ * Menus backed by a PageSource only request the page being displayed and a small window of its neighbours, and only
+ * keep a few pages in memory at once, so very large item sets (such as database-backed leaderboards or logs) never
+ * have to be loaded into the heap up front.
+ * <p>
+ * The total number of items may either be known exactly or estimated. When it is only an estimate, the menu corrects
+ * its page count as pages are fetched: a short page marks the end of the items, and a full last page allows the menu
+ * to move past the estimate.
+ *
+ * @param <T>
+ *            The type of item provided by this source
+ */
+public interface PageSource<T>
+{
+
+	/**
+	 * Fetches the items of one page.
+	 *
+	 * @param page
+	 *            The number of the page to fetch, starting at 1
+	 * @param pageSize
+	 *            The maximum number of items on a page
+	 *
+	 * @return A CompletableFuture completed with the items of the page. Fewer than {@code pageSize} items means the page
+	 *         is the last one.
+	 */
+	CompletableFuture<List<T>> fetch(int page, int pageSize);
+
+	/**
+	 * Gets the known or estimated total number of items.
+	 *
+	 * @return The total number of items
+	 */
+	int getTotalItems();
+
+	/**
+	 * Checks whether the {@link #getTotalItems() total number of items} is exact, or only an estimate.
+	 *
+	 * @return {@code true} if the total number of items is exact
+	 */
+	default boolean isTotalExact()
+	{
+		return true;
+	}
+
+	/**
+	 * Creates a PageSource over the provided items, already held in memory.
+	 *
+	 * @param <T>
+	 *            The type of item provided by the source
+	 * @param items
+	 *            The items to paginate, copied into the source
+	 *
+	 * @return A PageSource completing every fetch immediately
+	 */
+	static <T> PageSource<T> of(List<? extends T> items)
+	{
+		Checks.notNull(items, "Items");
+		final List<T> copy = Collections.unmodifiableList(new ArrayList<>(items));
+		return new PageSource<T>()
+		{
+			@Override
+			public CompletableFuture<List<T>> fetch(int page, int pageSize)
+			{
+				int	start	= Math.min(copy.size(), (page - 1) * pageSize);
+				int	end		= Math.min(copy.size(), start + pageSize);
+				return CompletableFuture.completedFuture(copy.subList(start, end));
+			}
+
+			@Override
+			public int getTotalItems()
+			{
+				return copy.size();
+			}
+		};
+	}
+
+	/**
+	 * Creates a PageSource fetching its pages with the provided {@link java.util.function.BiFunction BiFunction}.
+	 *
+	 * @param <T>
+	 *            The type of item provided by the source
+	 * @param totalItems
+	 *            The known or estimated total number of items
+	 * @param exact
+	 *            {@code true} if the total number of items is exact, {@code false} if it is only an estimate
+	 * @param fetcher
+	 *            A BiFunction taking the page number (starting at 1) and the page size, and fetching the items of the
+	 *            page
+	 *
+	 * @return A PageSource backed by the fetcher
+	 */
+	static <T> PageSource<T> of(int totalItems, boolean exact, BiFunction<Integer, Integer, CompletableFuture<List<T>>> fetcher)
+	{
+		Checks.notNegative(totalItems, "Total items");
+		Checks.notNull(fetcher, "Fetcher");
+		return new PageSource<T>()
+		{
+			@Override
+			public CompletableFuture<List<T>> fetch(int page, int pageSize)
+			{
+				return fetcher.apply(page, pageSize);
+			}
+
+			@Override
+			public int getTotalItems()
+			{
+				return totalItems;
+			}
+
+			@Override
+			public boolean isTotalExact()
+			{
+				return exact;
+			}
+		};
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small window over the pages of a {@link PageSource PageSource}, used by a paginating {@link Menu Menu}.
+ * <p>
+ * Pages are fetched lazily, the first time they are requested, and the pages either side of a requested page are
+ * fetched ahead of time so turning the page usually does not wait on the source. Only the most recently used pages are
+ * retained; concurrent requests for a page still being fetched share the same fetch.
+ *
+ * @param <T>
+ *            The type of item on a page
+ */
+final class PageWindow<T>
+{
+
+	/**
+	 * The default number of pages fetched ahead of time on either side of a requested page.
+	 */
+	static final int DEFAULT_PREFETCH = 1;
+
+	private static final Logger LOG = LoggerFactory.getLogger(PageWindow.class);
+
+	private final PageSource<T>								source;
+	private final int										pageSize;
+	private final int										prefetch;
+	private final Map<Integer, CompletableFuture<List<T>>>	pages;
+	private volatile int									pageCount;
+
+	/**
+	 * Creates a new PageWindow.
+	 *
+	 * @param source
+	 *            The PageSource to fetch pages from
+	 * @param pageSize
+	 *            The maximum number of items on a page
+	 * @param prefetch
+	 *            The number of pages fetched ahead of time on either side of a requested page
+	 */
+	PageWindow(PageSource<T> source, int pageSize, int prefetch)
+	{
+		this.source = source;
+		this.pageSize = pageSize;
+		this.prefetch = prefetch;
+		this.pageCount = Math.max(1, (int) Math.ceil((double) source.getTotalItems() / pageSize));
+		// The requested page, its prefetched neighbours and the page it was turned from
+		final int capacity = (2 * prefetch) + 2;
+		this.pages = new LinkedHashMap<Integer, CompletableFuture<List<T>>>(capacity * 2, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<List<T>>> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the current number of pages. If the source's total is only an estimate, this is corrected as pages are
+	 * fetched.
+	 *
+	 * @return The number of pages, at least 1
+	 */
+	int getPageCount()
+	{
+		return pageCount;
+	}
+
+	/**
+	 * Gets a page, fetching it if it is not retained, and starts fetching its neighbours.
+	 * <p>
+	 * If the requested page turns out to be past the last page, the last page is provided instead.
+	 *
+	 * @param page
+	 *            The number of the page, starting at 1
+	 *
+	 * @return A CompletableFuture completed with the page, or completed exceptionally if the source failed to fetch it
+	 */
+	CompletableFuture<Page<T>> get(int page)
+	{
+		return get(page, true);
+	}
+
+	/**
+	 * Gets a page, fetching it if it is not retained.
+	 * <p>
+	 * If the requested page turns out to be past the last page, the last page is provided instead.
+	 *
+	 * @param page
+	 *            The number of the page, starting at 1
+	 * @param withNeighbours
+	 *            {@code true} to also start fetching the neighbours of the page
+	 *
+	 * @return A CompletableFuture completed with the page, or completed exceptionally if the source failed to fetch it
+	 */
+	CompletableFuture<Page<T>> get(int page, boolean withNeighbours)
+	{
+		return load(page).thenCompose(items ->
+		{
+			int count = pageCount;
+			if (page > count)
+			{
+				// The estimated total was too high and this page was past the end
+				return get(count, withNeighbours);
+			}
+			for (int i = 1; withNeighbours && (i <= prefetch); i++)
+			{
+				if ((page + i) <= count)
+				{
+					load(page + i);
+				}
+				if ((page - i) >= 1)
+				{
+					load(page - i);
+				}
+			}
+			return CompletableFuture.completedFuture(new Page<>(page, items));
+		});
+	}
+
+	private CompletableFuture<List<T>> load(int page)
+	{
+		final CompletableFuture<List<T>> future;
+		synchronized (pages)
+		{
+			CompletableFuture<List<T>> retained = pages.get(page);
+			if (retained != null)
+			{
+				return retained;
+			}
+			future = new CompletableFuture<>();
+			pages.put(page, future);
+		}
+		CompletableFuture<List<T>> fetched;
+		try
+		{
+			fetched = source.fetch(page, pageSize);
+		} catch (RuntimeException e)
+		{
+			fetched = CompletableFuture.failedFuture(e);
+		}
+		fetched.whenComplete((items, t) ->
+		{
+			if ((t != null) || (items == null))
+			{
+				// Don't retain a failure, the next request fetches the page again
+				synchronized (pages)
+				{
+					pages.remove(page, future);
+				}
+				LOG.error("Failed to fetch page {} from a PageSource", page, t);
+				future.completeExceptionally(t != null ? t : new NullPointerException("PageSource provided no items for page " + page));
+				return;
+			}
+			if (!source.isTotalExact())
+			{
+				correctPageCount(page, items.size());
+			}
+			future.complete(items);
+		});
+		return future;
+	}
+
+	private synchronized void correctPageCount(int page, int size)
+	{
+		if (size == 0)
+		{
+			// An empty page is past the end
+			pageCount = Math.max(1, Math.min(pageCount, page - 1));
+		} else if (size < pageSize)
+		{
+			// A short page is the last one
+			pageCount = page;
+		} else if (page >= pageCount)
+		{
+			// A full last page means there may be more past the estimate
+			pageCount = page + 1;
+		}
+	}
+
+	/**
+	 * A page fetched from a {@link PageSource PageSource}.
+	 *
+	 * @param <T>
+	 *            The type of item on the page
+	 */
+	static final class Page<T>
+	{
+
+		private final int		number;
+		private final List<T>	items;
+
+		private Page(int number, List<T> items)
+		{
+			this.number = number;
+			this.items = items;
+		}
+
+		/**
+		 * Gets the number of this page, starting at 1.
+		 *
+		 * @return The page number
+		 */
+		int getNumber()
+		{
+			return number;
+		}
+
+		/**
+		 * Gets the items on this page.
+		 *
+		 * @return The items
+		 */
+		List<T> getItems()
+		{
+			return items;
+		}
+	}
+}
@@ -25,10 +25,13 @@
 package io.github.readonly.menu;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -42,10 +45,8 @@ import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
-import net.dv8tion.jda.api.events.message.GenericMessageEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
-import net.dv8tion.jda.api.exceptions.PermissionException;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
@@ -86,8 +87,7 @@ public class Paginator extends Menu
 	private final int									itemsPerPage;
 	private final boolean								showPageNumbers;
 	private final boolean								numberItems;
-	private final List<String>							strings;
-	private final int									pages;
+	private final PageWindow<String>					window;
 	private final Consumer<Message>						finalAction;
 	private final boolean								waitOnSinglePage;
 	private final int									bulkSkipNumber;
@@ -95,6 +95,9 @@ public class Paginator extends Menu
 	private final String								leftText;
 	private final String								rightText;
 	private final boolean								allowTextInput;
+	private final RenderCache<String>					renderCache;
+	private final Executor								preRenderExecutor;
+	private final Map<Long, EditCoalescer>				coalescers;
 
 	public static final String	BIG_LEFT	= "\u23EA";
 	public static final String	LEFT		= "\u25C0";
@@ -102,17 +105,16 @@ public class Paginator extends Menu
 	public static final String	RIGHT		= "\u25B6";
 	public static final String	BIG_RIGHT	= "\u23E9";
 
-	Paginator(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, BiFunction<Integer, Integer, Color> color, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, int columns, int itemsPerPage, boolean showPageNumbers, boolean numberItems, List<String> items, boolean waitOnSinglePage, int bulkSkipNumber, boolean wrapPageEnds, String leftText, String rightText, boolean allowTextInput)
+	Paginator(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor, BiFunction<Integer, Integer, Color> color, BiFunction<Integer, Integer, String> text, Consumer<Message> finalAction, int columns, int itemsPerPage, boolean showPageNumbers, boolean numberItems, PageSource<String> source, boolean waitOnSinglePage, int bulkSkipNumber, boolean wrapPageEnds, String leftText, String rightText, boolean allowTextInput, boolean deterministic, Executor preRenderExecutor)
 	{
-		super(waiter, users, roles, timeout, unit);
+		super(waiter, users, roles, timeout, unit, actionExecutor);
 		this.color = color;
 		this.text = text;
 		this.columns = columns;
 		this.itemsPerPage = itemsPerPage;
 		this.showPageNumbers = showPageNumbers;
 		this.numberItems = numberItems;
-		this.strings = items;
-		this.pages = (int) Math.ceil((double) strings.size() / itemsPerPage);
+		this.window = new PageWindow<>(source, itemsPerPage, PageWindow.DEFAULT_PREFETCH);
 		this.finalAction = finalAction;
 		this.waitOnSinglePage = waitOnSinglePage;
 		this.bulkSkipNumber = bulkSkipNumber;
@@ -120,6 +122,9 @@ public class Paginator extends Menu
 		this.leftText = leftText;
 		this.rightText = rightText;
 		this.allowTextInput = allowTextInput;
+		this.renderCache = deterministic ? new RenderCache<>(RenderCache.DEFAULT_CAPACITY, this::render) : null;
+		this.preRenderExecutor = preRenderExecutor;
+		this.coalescers = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -193,12 +198,11 @@ public class Paginator extends Menu
 		if (pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > pages)
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = pages;
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(channel.sendMessage(MessageCreateData.fromEditData(msg)), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(channel.sendMessage(MessageCreateData.fromEditData(renderPage(page))), page.getNumber()));
 	}
 
 	/**
@@ -217,12 +221,11 @@ public class Paginator extends Menu
 		if (pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > pages)
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = pages;
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(message.editMessage(msg), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(message.editMessage(renderPage(page)), page.getNumber()));
 	}
 
 	/**
@@ -238,19 +241,18 @@ public class Paginator extends Menu
 		if(pageNum<1)
 		{
 			pageNum = 1;
-		} else if (pageNum>pages)
+		} else if (pageNum>window.getPageCount())
 		{
-			pageNum = pages;
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(hook.editOriginal(msg), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(hook.editOriginal(renderPage(page)), page.getNumber()));
 	}
 
 	private void initialize(RestAction<Message> action, int pageNum)
 	{
 		action.queue(m ->
 		{
-			if (pages > 1)
+			if (window.getPageCount() > 1)
 			{
 				if (bulkSkipNumber > 1)
 				{
@@ -277,6 +279,7 @@ public class Paginator extends Menu
 
 	private void pagination(Message message, int pageNum)
 	{
+		preRender(pageNum);
 		if (allowTextInput || ((leftText != null) && (rightText != null)))
 		{
 			paginationWithTextInput(message, pageNum);
@@ -288,91 +291,73 @@ public class Paginator extends Menu
 
 	private void paginationWithTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(GenericMessageEvent.class, event ->
+		waitForReactionOrText(message, event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), mre ->
 		{
-			if (event instanceof MessageReactionAddEvent)
+			String rawContent = mre.getMessage().getContentRaw().trim();
+			if ((leftText != null) && (rightText != null))
 			{
-				return checkReaction((MessageReactionAddEvent) event, message.getIdLong());
-			} else if (event instanceof MessageReceivedEvent)
-			{
-				MessageReceivedEvent mre = (MessageReceivedEvent) event;
-				// Wrong channel
-				if (!mre.getChannel().equals(message.getChannel()))
-				{
-					return false;
-				}
-				String rawContent = mre.getMessage().getContentRaw().trim();
-				if ((leftText != null) && (rightText != null))
+				if (rawContent.equalsIgnoreCase(leftText) || rawContent.equalsIgnoreCase(rightText))
 				{
-					if (rawContent.equalsIgnoreCase(leftText) || rawContent.equalsIgnoreCase(rightText))
-					{
-						return isValidUser(mre.getAuthor(), mre.isFromGuild() ? mre.getGuild() : null);
-					}
+					return true;
 				}
+			}
 
-				if (allowTextInput)
+			if (allowTextInput)
+			{
+				try
 				{
-					try
-					{
-						int i = Integer.parseInt(rawContent);
-						// Minimum 1, Maximum the number of pages, never the
-						// current page number
-						if ((1 <= i) && (i <= pages) && (i != pageNum))
-						{
-							return isValidUser(mre.getAuthor(), mre.isFromGuild() ? mre.getGuild() : null);
-						}
-					} catch (NumberFormatException ignored)
+					int i = Integer.parseInt(rawContent);
+					// Minimum 1, Maximum the number of pages, never the
+					// current page number
+					if ((1 <= i) && (i <= window.getPageCount()) && (i != pageNum))
 					{
+						return true;
 					}
+				} catch (NumberFormatException ignored)
+				{
 				}
 			}
 			// Default return false
 			return false;
-		}, event ->
+		}, mre ->
 		{
-			if (event instanceof MessageReactionAddEvent)
+			String	rawContent	= mre.getMessage().getContentRaw().trim();
+			int		pages		= window.getPageCount();
+
+			final int targetPage;
+
+			if ((leftText != null) && rawContent.equalsIgnoreCase(leftText) && ((1 < pageNum) || wrapPageEnds))
 			{
-				handleMessageReactionAddAction((MessageReactionAddEvent) event, message, pageNum);
+				targetPage = ((pageNum - 1) < 1) && wrapPageEnds ? pages : pageNum - 1;
+			} else if ((rightText != null) && rawContent.equalsIgnoreCase(rightText) && ((pageNum < pages) || wrapPageEnds))
+			{
+				targetPage = ((pageNum + 1) > pages) && wrapPageEnds ? 1 : pageNum + 1;
 			} else
 			{
-				MessageReceivedEvent	mre			= ((MessageReceivedEvent) event);
-				String					rawContent	= mre.getMessage().getContentRaw().trim();
-
-				final int targetPage;
-
-				if ((leftText != null) && rawContent.equalsIgnoreCase(leftText) && ((1 < pageNum) || wrapPageEnds))
-				{
-					targetPage = ((pageNum - 1) < 1) && wrapPageEnds ? pages : pageNum - 1;
-				} else if ((rightText != null) && rawContent.equalsIgnoreCase(rightText) && ((pageNum < pages) || wrapPageEnds))
-				{
-					targetPage = ((pageNum + 1) > pages) && wrapPageEnds ? 1 : pageNum + 1;
-				} else
-				{
-					// This will run without fail because we know the above
-					// conditions don't apply but our logic
-					// when checking the event in the block above this action
-					// block has guaranteed this is the only
-					// option at this point
-					targetPage = Integer.parseInt(rawContent);
-				}
-
-				message.editMessage(renderPage(targetPage)).queue(m -> pagination(m, targetPage));
-				mre.getMessage().delete().queue(v ->
-				{
-				}, t ->
-				{
-				}); // delete the calling message so it doesn't get spammy
+				// This will run without fail because we know the above
+				// conditions don't apply but our logic
+				// when checking the event in the block above this action
+				// block has guaranteed this is the only
+				// option at this point
+				targetPage = Integer.parseInt(rawContent);
 			}
-		}, timeout, unit, () -> finalAction.accept(message));
+
+			turnPage(message, pageNum, targetPage);
+			mre.getMessage().delete().queue(v ->
+			{
+			}, t ->
+			{
+			}); // delete the calling message so it doesn't get spammy
+		}, () -> finish(message));
 	}
 
 	private void paginationWithoutTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(MessageReactionAddEvent.class, event -> checkReaction(event, message.getIdLong()), // Check
+		waiter.waitForEvent(MessageReactionAddEvent.class, MESSAGE_ID, message.getIdLong(), event -> checkReaction(event, message.getIdLong()), // Check
 			// Reaction
 			event -> handleMessageReactionAddAction(event, message, pageNum), // Handle
 			// Reaction
-			timeout, unit, () -> finalAction.accept(message));
+			timeout, unit, () -> finish(message), actionExecutor);
 	}
 
 	// Private method that checks MessageReactionAddEvents
@@ -402,7 +387,8 @@ public class Paginator extends Menu
 	// Private method that handles MessageReactionAddEvents
 	private void handleMessageReactionAddAction(MessageReactionAddEvent event, Message message, int pageNum)
 	{
-		int newPageNum = pageNum;
+		int	newPageNum	= pageNum;
+		int	pages		= window.getPageCount();
 		switch (event.getReaction().getEmoji().getName())
 		{
 		case LEFT:
@@ -452,33 +438,87 @@ public class Paginator extends Menu
 			}
 			break;
 		case STOP:
-			finalAction.accept(message);
+			finish(message);
 			return;
 		}
 
-		try
+		coalescer(message).removeReaction(event.getReaction(), event.getUser());
+		turnPage(message, pageNum, newPageNum);
+	}
+
+	private void turnPage(Message message, int pageNum, int targetPage)
+	{
+		window.get(targetPage).whenComplete((page, t) ->
 		{
-			event.getReaction().removeReaction(event.getUser()).queue();
-		} catch (PermissionException ignored)
+			if (page == null)
+			{
+				// The page couldn't be fetched, stay on the current one
+				pagination(message, pageNum);
+				return;
+			}
+			// Wait for the next interaction straight away, and only render and
+			// send this page if no later page replaces it first
+			pagination(message, page.getNumber());
+			coalescer(message).edit(() -> message.editMessage(renderPage(page)));
+		});
+	}
+
+	private EditCoalescer coalescer(Message message)
+	{
+		return coalescers.computeIfAbsent(message.getIdLong(), id -> new EditCoalescer());
+	}
+
+	private void finish(Message message)
+	{
+		EditCoalescer coalescer = coalescers.remove(message.getIdLong());
+		if (coalescer != null)
 		{
+			coalescer.close();
 		}
+		finalAction.accept(message);
+	}
 
-		int n = newPageNum;
-		message.editMessage(renderPage(newPageNum)).queue(m -> pagination(m, n));
+	private MessageEditData renderPage(PageWindow.Page<String> page)
+	{
+		int pages = window.getPageCount();
+		return renderCache != null ? renderCache.get(page, pages) : render(page, pages);
 	}
 
-	private MessageEditData renderPage(int pageNum)
+	private void preRender(int pageNum)
+	{
+		if ((renderCache == null) || (preRenderExecutor == null))
+		{
+			return;
+		}
+		int pages = window.getPageCount();
+		preRenderPage(pageNum > 1 ? pageNum - 1 : wrapPageEnds ? pages : 0);
+		preRenderPage(pageNum < pages ? pageNum + 1 : wrapPageEnds ? 1 : 0);
+	}
+
+	private void preRenderPage(int pageNum)
+	{
+		if (pageNum < 1)
+		{
+			return;
+		}
+		// Neighbours were already prefetched when the current page was fetched
+		window.get(pageNum, false).thenAcceptAsync(this::renderPage, preRenderExecutor);
+	}
+
+	private MessageEditData render(PageWindow.Page<String> page, int pages)
 	{
 		MessageEditBuilder	mbuilder	= new MessageEditBuilder();
 		EmbedBuilder		ebuilder	= new EmbedBuilder();
+		List<String>		items		= page.getItems();
+		int					pageNum		= page.getNumber();
 		int					start		= (pageNum - 1) * itemsPerPage;
-		int					end			= Math.min(strings.size(), pageNum * itemsPerPage);
+		int					end			= start + items.size();
 		if (columns == 1)
 		{
 			StringBuilder sbuilder = new StringBuilder();
 			for (int i = start; i < end; i++)
 			{
-				sbuilder.append("\n").append(numberItems ? "`" + (i + 1) + ".` " : "").append(strings.get(i));
+				sbuilder.append("\n").append(numberItems ? "`" + (i + 1) + ".` " : "").append(items.get(i - start));
 			}
 			ebuilder.setDescription(sbuilder.toString());
 		} else
@@ -489,7 +529,7 @@ public class Paginator extends Menu
 				StringBuilder strbuilder = new StringBuilder();
 				for (int i = start + (k * per); (i < end) && (i < (start + ((k + 1) * per))); i++)
 				{
-					strbuilder.append("\n").append(numberItems ? (i + 1) + ". " : "").append(strings.get(i));
+					strbuilder.append("\n").append(numberItems ? (i + 1) + ". " : "").append(items.get(i - start));
 				}
 				ebuilder.addField("", strbuilder.toString(), true);
 			}
@@ -529,8 +569,11 @@ public class Paginator extends Menu
 		private String									textToLeft			= null;
 		private String									textToRight			= null;
 		private boolean									allowTextInput		= false;
+		private boolean									deterministic		= true;
+		private Executor								preRenderExecutor	= null;
 
-		private final List<String> strings = new LinkedList<>();
+		private final List<String>	strings	= new ArrayList<>();
+		private PageSource<String>	source	= null;
 
 		/**
 		 * Builds the {@link io.github.readonly.menu.Paginator Paginator}
@@ -543,16 +586,17 @@ public class Paginator extends Menu
 		 *             <ul>
 		 *             <li>No {@link io.github.readonly.common.waiter.EventWaiter
 		 *             EventWaiter} was set.</li>
-		 *             <li>No items were set to paginate.</li>
+		 *             <li>No items or {@link io.github.readonly.menu.PageSource
+		 *             PageSource} were set to paginate.</li>
 		 *             </ul>
 		 */
 		@Override
 		public Paginator build()
 		{
 			Checks.check(waiter != null, "Must set an EventWaiter");
-			Checks.check(!strings.isEmpty(), "Must include at least one item to paginate");
+			Checks.check((source != null) || !strings.isEmpty(), "Must include at least one item to paginate");
 
-			return new Paginator(waiter, users, roles, timeout, unit, color, text, finalAction, columns, itemsPerPage, showPageNumbers, numberItems, strings, waitOnSinglePage, bulkSkipNumber, wrapPageEnds, textToLeft, textToRight, allowTextInput);
+			return new Paginator(waiter, users, roles, timeout, unit, actionExecutor, color, text, finalAction, columns, itemsPerPage, showPageNumbers, numberItems, source != null ? source : PageSource.of(strings), waitOnSinglePage, bulkSkipNumber, wrapPageEnds, textToLeft, textToRight, allowTextInput, deterministic, preRenderExecutor);
 		}
 
 		/**
@@ -796,6 +840,27 @@ public class Paginator extends Menu
 			return strings;
 		}
 
+		/**
+		 * Sets the {@link io.github.readonly.menu.PageSource PageSource} to
+		 * fetch the items to paginate from, one page at a time.
+		 * <br>
+		 * Only the displayed page and its neighbours are fetched, so this
+		 * should be preferred over setting the items directly when there are
+		 * a very large number of them. When set, any items added to this
+		 * builder are ignored.
+		 *
+		 * @param source
+		 *            The PageSource to fetch items from, or {@code null} to
+		 *            paginate the items added to this builder
+		 *
+		 * @return This builder
+		 */
+		public Builder setPageSource(PageSource<String> source)
+		{
+			this.source = source;
+			return this;
+		}
+
 		/**
 		 * Sets the {@link io.github.readonly.menu.Paginator Paginator}'s bulk-skip
 		 * function to skip multiple pages using alternate forward and backwards
@@ -887,5 +952,47 @@ public class Paginator extends Menu
 			}
 			return this;
 		}
+
+		/**
+		 * Sets whether the color and text of a page are always the same for
+		 * the same page number and total page count.
+		 * <br>
+		 * When deterministic, which is the default, the Paginator keeps a small
+		 * cache of rendered pages and reuses them when a page is shown again.
+		 * Set this to {@code false} if the functions provided to
+		 * {@link #setColor(BiFunction)} or {@link #setText(BiFunction)} can
+		 * return different results for the same page, so every page is
+		 * rendered anew each time it is shown.
+		 *
+		 * @param deterministic
+		 *            {@code true} if pages may be cached once rendered
+		 *
+		 * @return This builder
+		 */
+		public Builder setDeterministic(boolean deterministic)
+		{
+			this.deterministic = deterministic;
+			return this;
+		}
+
+		/**
+		 * Sets the {@link java.util.concurrent.Executor Executor} used to
+		 * render the pages either side of the displayed page ahead of time,
+		 * so the next page can be shown as soon as it is requested.
+		 * <br>
+		 * Pages are only rendered ahead of time if the Paginator is
+		 * {@link #setDeterministic(boolean) deterministic}.
+		 *
+		 * @param executor
+		 *            The Executor to render pages on, or {@code null} to only
+		 *            render pages when they are requested
+		 *
+		 * @return This builder
+		 */
+		public Builder setPreRenderExecutor(Executor executor)
+		{
+			this.preRenderExecutor = executor;
+			return this;
+		}
 	}
 }
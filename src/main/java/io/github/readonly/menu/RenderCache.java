@@ -0,0 +1,125 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+
+/**
+ * A small least-recently-used cache of the rendered pages of a paginating {@link Menu Menu}.
+ * <p>
+ * A rendered page is reused only while it was rendered from equal items and the same total page count, so pages whose
+ * items changed in the {@link PageSource PageSource} or affected by a corrected page count are rendered again. Items
+ * are compared with {@link Object#equals(Object) equals} rather than by identity, since a {@link PageWindow PageWindow}
+ * retains fewer pages than this cache and fetches evicted pages again as new lists. Comparing a page of items is still
+ * far cheaper than rendering it. This cache should only be used when rendering a page always gives the same result for
+ * equal items and page numbers.
+ *
+ * @param <T>
+ *            The type of item on a page
+ */
+final class RenderCache<T>
+{
+
+	/**
+	 * The default number of rendered pages retained.
+	 */
+	static final int DEFAULT_CAPACITY = 6;
+
+	private final BiFunction<PageWindow.Page<T>, Integer, MessageEditData>	renderer;
+	private final Map<Integer, Rendered>									rendered;
+
+	/**
+	 * Creates a new, empty RenderCache.
+	 *
+	 * @param capacity
+	 *            The number of rendered pages retained
+	 * @param renderer
+	 *            A BiFunction rendering a page, given the page and the total page count
+	 */
+	RenderCache(int capacity, BiFunction<PageWindow.Page<T>, Integer, MessageEditData> renderer)
+	{
+		this.renderer = renderer;
+		this.rendered = new LinkedHashMap<Integer, Rendered>(capacity * 2, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Rendered> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets a rendered page, rendering it if it is not retained or is stale.
+	 *
+	 * @param page
+	 *            The page to render
+	 * @param pages
+	 *            The total page count
+	 *
+	 * @return The rendered page
+	 */
+	MessageEditData get(PageWindow.Page<T> page, int pages)
+	{
+		synchronized (rendered)
+		{
+			Rendered cached = rendered.get(page.getNumber());
+			if ((cached != null) && (cached.pages == pages) && cached.items.equals(page.getItems()))
+			{
+				return cached.data;
+			}
+		}
+		// Rendered outside the lock, two threads rendering the same page at once
+		// just produce the same result
+		MessageEditData data = renderer.apply(page, pages);
+		synchronized (rendered)
+		{
+			// Copied, so a source changing its list afterwards can't make a stale render look current
+			rendered.put(page.getNumber(), new Rendered(new ArrayList<>(page.getItems()), pages, data));
+		}
+		return data;
+	}
+
+	private static final class Rendered
+	{
+
+		private final List<?>			items;
+		private final int				pages;
+		private final MessageEditData	data;
+
+		private Rendered(List<?> items, int pages, MessageEditData data)
+		{
+			this.items = items;
+			this.pages = pages;
+			this.data = data;
+		}
+	}
+}
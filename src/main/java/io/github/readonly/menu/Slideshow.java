@@ -25,10 +25,13 @@
 package io.github.readonly.menu;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -42,10 +45,8 @@ import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
-import net.dv8tion.jda.api.events.message.GenericMessageEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
-import net.dv8tion.jda.api.exceptions.PermissionException;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
@@ -73,7 +74,7 @@ public class Slideshow extends Menu
 	private final BiFunction<Integer, Integer, String>	text;
 	private final BiFunction<Integer, Integer, String>	description;
 	private final boolean								showPageNumbers;
-	private final List<String>							urls;
+	private final PageWindow<String>					window;
 	private final Consumer<Message>						finalAction;
 	private final boolean								waitOnSinglePage;
 	private final int									bulkSkipNumber;
@@ -81,6 +82,7 @@ public class Slideshow extends Menu
 	private final String								leftText;
 	private final String								rightText;
 	private final boolean								allowTextInput;
+	private final Map<Long, EditCoalescer>				coalescers;
 
 	public static final String	BIG_LEFT	= "\u23EA";
 	public static final String	LEFT		= "\u25C0";
@@ -88,14 +90,14 @@ public class Slideshow extends Menu
 	public static final String	RIGHT		= "\u25B6";
 	public static final String	BIG_RIGHT	= "\u23E9";
 
-	Slideshow(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, BiFunction<Integer, Integer, Color> color, BiFunction<Integer, Integer, String> text, BiFunction<Integer, Integer, String> description, Consumer<Message> finalAction, boolean showPageNumbers, List<String> items, boolean waitOnSinglePage, int bulkSkipNumber, boolean wrapPageEnds, String leftText, String rightText, boolean allowTextInput)
+	Slideshow(EventWaiter waiter, Set<User> users, Set<Role> roles, long timeout, TimeUnit unit, Executor actionExecutor, BiFunction<Integer, Integer, Color> color, BiFunction<Integer, Integer, String> text, BiFunction<Integer, Integer, String> description, Consumer<Message> finalAction, boolean showPageNumbers, PageSource<String> source, boolean waitOnSinglePage, int bulkSkipNumber, boolean wrapPageEnds, String leftText, String rightText, boolean allowTextInput)
 	{
-		super(waiter, users, roles, timeout, unit);
+		super(waiter, users, roles, timeout, unit, actionExecutor);
 		this.color = color;
 		this.text = text;
 		this.description = description;
 		this.showPageNumbers = showPageNumbers;
-		this.urls = items;
+		this.window = new PageWindow<>(source, 1, PageWindow.DEFAULT_PREFETCH);
 		this.finalAction = finalAction;
 		this.waitOnSinglePage = waitOnSinglePage;
 		this.bulkSkipNumber = bulkSkipNumber;
@@ -103,6 +105,7 @@ public class Slideshow extends Menu
 		this.leftText = leftText;
 		this.rightText = rightText;
 		this.allowTextInput = allowTextInput;
+		this.coalescers = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -158,12 +161,11 @@ public class Slideshow extends Menu
 		if (pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > urls.size())
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = urls.size();
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(channel.sendMessage(MessageCreateData.fromEditData(msg)), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(channel.sendMessage(MessageCreateData.fromEditData(renderPage(page))), page.getNumber()));
 	}
 
 	/**
@@ -182,19 +184,18 @@ public class Slideshow extends Menu
 		if (pageNum < 1)
 		{
 			pageNum = 1;
-		} else if (pageNum > urls.size())
+		} else if (pageNum > window.getPageCount())
 		{
-			pageNum = urls.size();
+			pageNum = window.getPageCount();
 		}
-		MessageEditData msg = renderPage(pageNum);
-		initialize(message.editMessage(msg), pageNum);
+		window.get(pageNum).thenAccept(page -> initialize(message.editMessage(renderPage(page)), page.getNumber()));
 	}
 
 	private void initialize(RestAction<Message> action, int pageNum)
 	{
 		action.queue(m ->
 		{
-			if (urls.size() > 1)
+			if (window.getPageCount() > 1)
 			{
 				if (bulkSkipNumber > 1)
 				{
@@ -230,88 +231,69 @@ public class Slideshow extends Menu
 
 	private void paginationWithTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(GenericMessageEvent.class, event ->
+		waitForReactionOrText(message, event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), mre ->
 		{
-			if (event instanceof MessageReactionAddEvent)
+			String rawContent = mre.getMessage().getContentRaw().trim();
+			if ((leftText != null) && (rightText != null))
 			{
-				return checkReaction((MessageReactionAddEvent) event, message.getIdLong());
-			} else if (event instanceof MessageReceivedEvent)
-			{
-				MessageReceivedEvent mre = (MessageReceivedEvent) event;
-				// Wrong channel
-				if (!mre.getChannel().equals(message.getChannel()))
-				{
-					return false;
-				}
-				String rawContent = mre.getMessage().getContentRaw().trim();
-				if ((leftText != null) && (rightText != null))
+				if (rawContent.equalsIgnoreCase(leftText) || rawContent.equalsIgnoreCase(rightText))
 				{
-					if (rawContent.equalsIgnoreCase(leftText) || rawContent.equalsIgnoreCase(rightText))
-					{
-						return isValidUser(mre.getAuthor(), mre.isFromGuild() ? mre.getGuild() : null);
-					}
+					return true;
 				}
+			}
 
-				if (allowTextInput)
+			if (allowTextInput)
+			{
+				try
 				{
-					try
-					{
-						int i = Integer.parseInt(rawContent);
-						// Minimum 1, Maximum the number of pages, never the
-						// current page number
-						if ((1 <= i) && (i <= urls.size()) && (i != pageNum))
-						{
-							return isValidUser(mre.getAuthor(), mre.isFromGuild() ? mre.getGuild() : null);
-						}
-					} catch (NumberFormatException ignored)
+					int i = Integer.parseInt(rawContent);
+					// Minimum 1, Maximum the number of pages, never the
+					// current page number
+					if ((1 <= i) && (i <= window.getPageCount()) && (i != pageNum))
 					{
+						return true;
 					}
+				} catch (NumberFormatException ignored)
+				{
 				}
 			}
 			// Default return false
 			return false;
-		}, event ->
+		}, mre ->
 		{
-			if (event instanceof MessageReactionAddEvent)
+			String rawContent = mre.getMessage().getContentRaw().trim();
+
+			int			pages	= window.getPageCount();
+			final int	targetPage;
+
+			if ((leftText != null) && rawContent.equalsIgnoreCase(leftText) && ((1 < pageNum) || wrapPageEnds))
+			{
+				targetPage = ((pageNum - 1) < 1) && wrapPageEnds ? pages : pageNum - 1;
+			} else if ((rightText != null) && rawContent.equalsIgnoreCase(rightText) && ((pageNum < pages) || wrapPageEnds))
 			{
-				handleMessageReactionAddAction((MessageReactionAddEvent) event, message, pageNum);
+				targetPage = ((pageNum + 1) > pages) && wrapPageEnds ? 1 : pageNum + 1;
 			} else
 			{
-				MessageReceivedEvent	mre			= ((MessageReceivedEvent) event);
-				String					rawContent	= mre.getMessage().getContentRaw().trim();
-
-				int			pages	= urls.size();
-				final int	targetPage;
-
-				if ((leftText != null) && rawContent.equalsIgnoreCase(leftText) && ((1 < pageNum) || wrapPageEnds))
-				{
-					targetPage = ((pageNum - 1) < 1) && wrapPageEnds ? pages : pageNum - 1;
-				} else if ((rightText != null) && rawContent.equalsIgnoreCase(rightText) && ((pageNum < pages) || wrapPageEnds))
-				{
-					targetPage = ((pageNum + 1) > pages) && wrapPageEnds ? 1 : pageNum + 1;
-				} else
-				{
-					// This will run without fail because we know the above
-					// conditions don't apply but our logic
-					// when checking the event in the block above this action
-					// block has guaranteed this is the only
-					// option at this point
-					targetPage = Integer.parseInt(rawContent);
-				}
-
-				message.editMessage(renderPage(targetPage)).queue(m -> pagination(m, targetPage));
-				mre.getMessage().delete().queue(v ->
-				{
-				}, t ->
-				{
-				}); // delete the calling message so it doesn't get spammy
+				// This will run without fail because we know the above
+				// conditions don't apply but our logic
+				// when checking the event in the block above this action
+				// block has guaranteed this is the only
+				// option at this point
+				targetPage = Integer.parseInt(rawContent);
 			}
-		}, timeout, unit, () -> finalAction.accept(message));
+
+			turnPage(message, pageNum, targetPage);
+			mre.getMessage().delete().queue(v ->
+			{
+			}, t ->
+			{
+			}); // delete the calling message so it doesn't get spammy
+		}, () -> finish(message));
 	}
 
 	private void paginationWithoutTextInput(Message message, int pageNum)
 	{
-		waiter.waitForEvent(MessageReactionAddEvent.class, event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), timeout, unit, () -> finalAction.accept(message));
+		waiter.waitForEvent(MessageReactionAddEvent.class, MESSAGE_ID, message.getIdLong(), event -> checkReaction(event, message.getIdLong()), event -> handleMessageReactionAddAction(event, message, pageNum), timeout, unit, () -> finish(message), actionExecutor);
 	}
 
 	// Private method that checks MessageReactionAddEvents
@@ -342,7 +324,7 @@ public class Slideshow extends Menu
 	private void handleMessageReactionAddAction(MessageReactionAddEvent event, Message message, int pageNum)
 	{
 		int	newPageNum	= pageNum;
-		int	pages		= urls.size();
+		int	pages		= window.getPageCount();
 		switch (event.getReaction().getEmoji().getName())
 		{
 		case LEFT:
@@ -392,36 +374,63 @@ public class Slideshow extends Menu
 			}
 			break;
 		case STOP:
-			finalAction.accept(message);
+			finish(message);
 			return;
 		}
 
-		try
+		coalescer(message).removeReaction(event.getReaction(), event.getUser());
+		turnPage(message, pageNum, newPageNum);
+	}
+
+	private void turnPage(Message message, int pageNum, int targetPage)
+	{
+		window.get(targetPage).whenComplete((page, t) ->
 		{
-			event.getReaction().removeReaction(event.getUser()).queue();
-		} catch (PermissionException ignored)
+			if (page == null)
+			{
+				// The page couldn't be fetched, stay on the current one
+				pagination(message, pageNum);
+				return;
+			}
+			// Wait for the next interaction straight away, and only render and
+			// send this page if no later page replaces it first
+			pagination(message, page.getNumber());
+			coalescer(message).edit(() -> message.editMessage(renderPage(page)));
+		});
+	}
+
+	private EditCoalescer coalescer(Message message)
+	{
+		return coalescers.computeIfAbsent(message.getIdLong(), id -> new EditCoalescer());
+	}
+
+	private void finish(Message message)
+	{
+		EditCoalescer coalescer = coalescers.remove(message.getIdLong());
+		if (coalescer != null)
 		{
+			coalescer.close();
 		}
-
-		int n = newPageNum;
-		message.editMessage(renderPage(newPageNum)).queue(m -> pagination(m, n));
+		finalAction.accept(message);
 	}
 
-	private MessageEditData renderPage(int pageNum)
+	private MessageEditData renderPage(PageWindow.Page<String> page)
 	{
 		MessageEditBuilder	mbuilder	= new MessageEditBuilder();
 		EmbedBuilder		ebuilder	= new EmbedBuilder();
-		ebuilder.setImage(urls.get(pageNum - 1));
-		ebuilder.setColor(color.apply(pageNum, urls.size()));
-		ebuilder.setDescription(description.apply(pageNum, urls.size()));
+		int					pageNum		= page.getNumber();
+		int					pages		= window.getPageCount();
+		ebuilder.setImage(page.getItems().isEmpty() ? null : page.getItems().get(0));
+		ebuilder.setColor(color.apply(pageNum, pages));
+		ebuilder.setDescription(description.apply(pageNum, pages));
 		if (showPageNumbers)
 		{
-			ebuilder.setFooter("Image " + pageNum + "/" + urls.size(), null);
+			ebuilder.setFooter("Image " + pageNum + "/" + pages, null);
 		}
 		mbuilder.setEmbeds(ebuilder.build());
 		if (text != null)
 		{
-			mbuilder.setContent(text.apply(pageNum, urls.size()));
+			mbuilder.setContent(text.apply(pageNum, pages));
 		}
 		return mbuilder.build();
 	}
@@ -446,7 +455,8 @@ public class Slideshow extends Menu
 		private String									textToRight			= null;
 		private boolean									allowTextInput		= false;
 
-		private final List<String> strings = new LinkedList<>();
+		private final List<String>	strings	= new ArrayList<>();
+		private PageSource<String>	source	= null;
 
 		/**
 		 * Builds the {@link io.github.readonly.menu.Slideshow Slideshow}
@@ -459,16 +469,17 @@ public class Slideshow extends Menu
 		 *             <ul>
 		 *             <li>No {@link io.github.readonly.common.waiter.EventWaiter
 		 *             EventWaiter} was set.</li>
-		 *             <li>No items were set to paginate.</li>
+		 *             <li>No items or {@link io.github.readonly.menu.PageSource
+		 *             PageSource} were set to paginate.</li>
 		 *             </ul>
 		 */
 		@Override
 		public Slideshow build()
 		{
 			Checks.check(waiter != null, "Must set an EventWaiter");
-			Checks.check(!strings.isEmpty(), "Must include at least one item to paginate");
+			Checks.check((source != null) || !strings.isEmpty(), "Must include at least one item to paginate");
 
-			return new Slideshow(waiter, users, roles, timeout, unit, color, text, description, finalAction, showPageNumbers, strings, waitOnSinglePage, bulkSkipNumber, wrapPageEnds, textToLeft, textToRight, allowTextInput);
+			return new Slideshow(waiter, users, roles, timeout, unit, actionExecutor, color, text, description, finalAction, showPageNumbers, source != null ? source : PageSource.of(strings), waitOnSinglePage, bulkSkipNumber, wrapPageEnds, textToLeft, textToRight, allowTextInput);
 		}
 
 		/**
@@ -676,6 +687,25 @@ public class Slideshow extends Menu
 			return this;
 		}
 
+		/**
+		 * Sets the {@link io.github.readonly.menu.PageSource PageSource} to
+		 * fetch the urls to paginate from, one image per page.
+		 * <br>
+		 * Only the displayed image and its neighbours are fetched. When set,
+		 * any urls added to this builder are ignored.
+		 *
+		 * @param source
+		 *            The PageSource to fetch urls from, or {@code null} to
+		 *            paginate the urls added to this builder
+		 *
+		 * @return This builder
+		 */
+		public Builder setPageSource(PageSource<String> source)
+		{
+			this.source = source;
+			return this;
+		}
+
 		/**
 		 * Sets the {@link io.github.readonly.menu.Slideshow Slideshow}'s bulk-skip
 		 * function to skip multiple pages using alternate forward and backwards
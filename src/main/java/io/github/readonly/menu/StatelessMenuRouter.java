@@ -0,0 +1,228 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.SubscribeEvent;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * Routes button clicks to the {@link StatelessPaginator StatelessPaginators} registered with it.
+ * <p>
+ * A stateless menu keeps nothing in memory while it is displayed: everything needed to handle a click (the type of
+ * menu, the page to show, the user allowed to click and the menu's payload) is encoded in the ID of the button itself,
+ * and signed with this router's secret so it can't be forged or tampered with. Clicks stay valid for as long as the
+ * message exists, across restarts, as long as the same secret is used and a menu of the same type is registered.
+ * <p>
+ * A router must be registered as an event listener of every JDA instance whose messages it should handle:
+ *
+ * <pre><code>
+ * StatelessMenuRouter router = new StatelessMenuRouter(secret);
+ * jda.addEventListener(router);
+ * </code></pre>
+ */
+public class StatelessMenuRouter implements EventListener
+{
+
+	/**
+	 * The prefix of the IDs of buttons belonging to a stateless menu.
+	 */
+	static final String PREFIX = "sbep:";
+
+	private static final String	ALGORITHM			= "HmacSHA256";
+	private static final int	SIGNATURE_BYTES		= 12;
+	private static final String	INACTIVE_MESSAGE	= "This menu is no longer available. The buttons will be removed. Please make a new one!";
+
+	private final SecretKeySpec						key;
+	private final ThreadLocal<Mac>					macs;
+	private final Map<String, StatelessPaginator>	menus;
+
+	/**
+	 * Creates a new StatelessMenuRouter signing button IDs with the provided secret.
+	 *
+	 * @param secret
+	 *            The secret to sign button IDs with, at least 16 bytes long. Buttons signed with a different secret are
+	 *            ignored, so this must be kept the same across restarts for older menus to stay usable.
+	 */
+	public StatelessMenuRouter(byte[] secret)
+	{
+		Checks.notNull(secret, "Secret");
+		Checks.check(secret.length >= 16, "Secret must be at least 16 bytes long");
+		this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+		this.macs = ThreadLocal.withInitial(this::newMac);
+		this.menus = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Removes the menu registered under the provided type. Clicks on its buttons are then answered with a notice that
+	 * the menu is no longer available.
+	 *
+	 * @param type
+	 *            The type of the menu
+	 *
+	 * @return {@code true} if a menu was registered under the type
+	 */
+	public boolean unregister(String type)
+	{
+		return menus.remove(type) != null;
+	}
+
+	/**
+	 * Checks whether a menu is registered under the provided type.
+	 *
+	 * @param type
+	 *            The type of the menu
+	 *
+	 * @return {@code true} if a menu is registered under the type
+	 */
+	public boolean isRegistered(String type)
+	{
+		return menus.containsKey(type);
+	}
+
+	@Override
+	@SubscribeEvent
+	public final void onEvent(GenericEvent event)
+	{
+		if (!(event instanceof ButtonInteractionEvent))
+		{
+			return;
+		}
+		ButtonInteractionEvent	bie	= (ButtonInteractionEvent) event;
+		String					id	= bie.getComponentId();
+		if (!id.startsWith(PREFIX))
+		{
+			return;
+		}
+		int split = id.lastIndexOf(':');
+		if ((split < PREFIX.length()) || !verify(id.substring(0, split), id.substring(split + 1)))
+		{
+			// Not signed by us, don't act on it
+			return;
+		}
+		// type : action : page : owner : payload
+		String[] parts = id.substring(PREFIX.length(), split).split(":", 5);
+		if ((parts.length != 5) || (parts[1].length() != 1))
+		{
+			return;
+		}
+		StatelessPaginator menu = menus.get(parts[0]);
+		if (menu == null)
+		{
+			bie.reply(INACTIVE_MESSAGE).setEphemeral(true).queue();
+			bie.getMessage().editMessageComponents().queue();
+			return;
+		}
+		try
+		{
+			menu.handle(bie, parts[1].charAt(0), Integer.parseInt(parts[2], 36), Long.parseLong(parts[3], 36), parts[4]);
+		} catch (NumberFormatException ignored)
+		{
+		}
+	}
+
+	/**
+	 * Registers a menu under its type.
+	 *
+	 * @param menu
+	 *            The menu to register
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If a menu is already registered under the same type
+	 */
+	void register(StatelessPaginator menu)
+	{
+		if (menus.putIfAbsent(menu.getType(), menu) != null)
+		{
+			throw new IllegalArgumentException("A stateless menu is already registered with the type: " + menu.getType());
+		}
+	}
+
+	/**
+	 * Encodes and signs the ID of a button of a stateless menu.
+	 *
+	 * @param type
+	 *            The type of the menu
+	 * @param action
+	 *            The action of the button, unique within the menu
+	 * @param page
+	 *            The page the button leads to
+	 * @param ownerId
+	 *            The ID of the only user allowed to click the button, or {@code 0} if anyone may
+	 * @param payload
+	 *            The payload of the menu
+	 *
+	 * @return The signed button ID
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the payload is too long for the ID to fit in a button
+	 */
+	String encode(String type, char action, int page, long ownerId, String payload)
+	{
+		String	body	= PREFIX + type + ':' + action + ':' + Integer.toString(page, 36) + ':' + Long.toString(ownerId, 36) + ':' + payload;
+		String	id		= body + ':' + sign(body);
+		Checks.check(id.length() <= Button.ID_MAX_LENGTH, "Payload is too long to fit in a button ID: %s", payload);
+		return id;
+	}
+
+	private String sign(String body)
+	{
+		byte[] signature = Arrays.copyOf(macs.get().doFinal(body.getBytes(StandardCharsets.UTF_8)), SIGNATURE_BYTES);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+	}
+
+	private boolean verify(String body, String signature)
+	{
+		// Compare in constant time so the signature can't be guessed byte by byte
+		return MessageDigest.isEqual(sign(body).getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private Mac newMac()
+	{
+		try
+		{
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac;
+		} catch (GeneralSecurityException e)
+		{
+			throw new IllegalStateException("Unable to create a " + ALGORITHM + " Mac", e);
+		}
+	}
+}
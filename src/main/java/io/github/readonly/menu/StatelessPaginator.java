@@ -0,0 +1,487 @@
+/*
+ * This file is part of JDATools, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) ROMVoid95
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.readonly.menu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import net.dv8tion.jda.internal.utils.Checks;
+
+/**
+ * A paginator similar to the {@link ButtonEmbedPaginator ButtonEmbedPaginator}, displaying one {@link MessageEmbed} per
+ * page, that keeps no state at all while it is displayed.
+ * <p>
+ * Instead of waiting on an {@link io.github.readonly.common.waiter.EventWaiter EventWaiter}, the page each button leads
+ * to is encoded in the button's ID, along with a payload identifying what is being paginated (such as a guild ID or a
+ * search query). When a button is clicked, the {@link StatelessMenuRouter StatelessMenuRouter} the paginator is
+ * registered with fetches the page from the {@link PageSource PageSource} the paginator provides for that payload, and
+ * renders it. Displayed paginators therefore take no memory, never time out, and keep working across restarts.
+ * <p>
+ * The payload is visible to anyone able to inspect the message, and has to fit in a button ID alongside the rest of the
+ * encoded state, leaving roughly 50 characters depending on the length of the type.
+ */
+public class StatelessPaginator
+{
+
+	private static final char	BIG_LEFT	= 'B';
+	private static final char	LEFT		= 'L';
+	private static final char	STOP		= 'S';
+	private static final char	RIGHT		= 'R';
+	private static final char	BIG_RIGHT	= 'F';
+
+	private static final String	ERROR_MESSAGE	= "This page could not be shown. Please try again later!";
+	private static final Logger	LOG				= LoggerFactory.getLogger(StatelessPaginator.class);
+
+	private final StatelessMenuRouter							router;
+	private final String										type;
+	private final Function<String, PageSource<MessageEmbed>>	sources;
+	private final BiFunction<Integer, Integer, String>			text;
+	private final int											bulkSkipNumber;
+	private final boolean										wrapPageEnds;
+	private final ButtonStyle									style;
+
+	StatelessPaginator(StatelessMenuRouter router, String type, Function<String, PageSource<MessageEmbed>> sources, BiFunction<Integer, Integer, String> text, int bulkSkipNumber, boolean wrapPageEnds, ButtonStyle style)
+	{
+		this.router = router;
+		this.type = type;
+		this.sources = sources;
+		this.text = text;
+		this.bulkSkipNumber = bulkSkipNumber;
+		this.wrapPageEnds = wrapPageEnds;
+		this.style = style;
+	}
+
+	/**
+	 * Gets the type this paginator is registered under.
+	 *
+	 * @return The type
+	 */
+	public String getType()
+	{
+		return type;
+	}
+
+	/**
+	 * Begins pagination on page 1 as a new {@link net.dv8tion.jda.api.entities.Message Message} in the provided
+	 * {@link MessageChannel}.
+	 *
+	 * @param channel
+	 *            The MessageChannel to send the new Message to
+	 * @param payload
+	 *            The payload identifying what to paginate
+	 * @param owner
+	 *            The only user allowed to use the buttons, or {@code null} if anyone may
+	 */
+	public void display(MessageChannel channel, String payload, User owner)
+	{
+		paginate(channel, payload, owner, 1);
+	}
+
+	/**
+	 * Begins pagination on page 1 by editing the provided {@link InteractionHook}.
+	 *
+	 * @param hook
+	 *            The InteractionHook to edit
+	 * @param payload
+	 *            The payload identifying what to paginate
+	 * @param owner
+	 *            The only user allowed to use the buttons, or {@code null} if anyone may
+	 */
+	public void display(InteractionHook hook, String payload, User owner)
+	{
+		paginate(hook, payload, owner, 1);
+	}
+
+	/**
+	 * Begins pagination as a new {@link net.dv8tion.jda.api.entities.Message Message} in the provided
+	 * {@link MessageChannel}, starting on whatever page number is provided.
+	 *
+	 * @param channel
+	 *            The MessageChannel to send the new Message to
+	 * @param payload
+	 *            The payload identifying what to paginate
+	 * @param owner
+	 *            The only user allowed to use the buttons, or {@code null} if anyone may
+	 * @param pageNum
+	 *            The page number to begin on
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the payload is too long to fit in a button ID
+	 */
+	public void paginate(MessageChannel channel, String payload, User owner, int pageNum)
+	{
+		renderPage(payload, owner == null ? 0L : owner.getIdLong(), pageNum).whenComplete((msg, t) ->
+		{
+			if (t != null)
+			{
+				LOG.error("Failed to render page {} of the stateless paginator {}", pageNum, type, t);
+				return;
+			}
+			channel.sendMessage(MessageCreateData.fromEditData(msg)).queue();
+		});
+	}
+
+	/**
+	 * Begins pagination by editing the provided {@link InteractionHook}, starting on whatever page number is provided.
+	 *
+	 * @param hook
+	 *            The InteractionHook to edit
+	 * @param payload
+	 *            The payload identifying what to paginate
+	 * @param owner
+	 *            The only user allowed to use the buttons, or {@code null} if anyone may
+	 * @param pageNum
+	 *            The page number to begin on
+	 *
+	 * @throws java.lang.IllegalArgumentException
+	 *             If the payload is too long to fit in a button ID
+	 */
+	public void paginate(InteractionHook hook, String payload, User owner, int pageNum)
+	{
+		renderPage(payload, owner == null ? 0L : owner.getIdLong(), pageNum).whenComplete((msg, t) ->
+		{
+			if (t != null)
+			{
+				LOG.error("Failed to render page {} of the stateless paginator {}", pageNum, type, t);
+				hook.sendMessage(ERROR_MESSAGE).setEphemeral(true).queue();
+				return;
+			}
+			hook.editOriginal(msg).queue();
+		});
+	}
+
+	/**
+	 * Handles a click on one of this paginator's buttons, decoded by the {@link StatelessMenuRouter
+	 * StatelessMenuRouter}.
+	 */
+	void handle(ButtonInteractionEvent event, char action, int pageNum, long ownerId, String payload)
+	{
+		if ((ownerId != 0L) && (event.getUser().getIdLong() != ownerId))
+		{
+			event.deferEdit().queue();
+			return;
+		}
+		if (action == STOP)
+		{
+			event.editComponents().queue();
+			return;
+		}
+		CompletableFuture<MessageEditData> rendered;
+		try
+		{
+			rendered = renderPage(payload, ownerId, pageNum);
+		} catch (RuntimeException e)
+		{
+			// The interaction still has to be answered
+			rendered = CompletableFuture.failedFuture(e);
+		}
+		if (rendered.isDone() && !rendered.isCompletedExceptionally())
+		{
+			// Rendered straight away, so answer the interaction with the edit itself
+			event.editMessage(rendered.join()).queue();
+			return;
+		}
+		if (!rendered.isDone())
+		{
+			event.deferEdit().queue();
+		}
+		rendered.whenComplete((msg, t) ->
+		{
+			if (t == null)
+			{
+				event.getHook().editOriginal(msg).queue();
+				return;
+			}
+			LOG.error("Failed to render page {} of the stateless paginator {}", pageNum, type, t);
+			if (event.isAcknowledged())
+			{
+				event.getHook().sendMessage(ERROR_MESSAGE).setEphemeral(true).queue();
+			} else
+			{
+				event.reply(ERROR_MESSAGE).setEphemeral(true).queue();
+			}
+		});
+	}
+
+	private CompletableFuture<MessageEditData> renderPage(String payload, long ownerId, int pageNum)
+	{
+		PageSource<MessageEmbed>	source	= sources.apply(payload);
+		int							pages	= Math.max(1, source.getTotalItems());
+		int							page	= Math.max(1, Math.min(pageNum, pages));
+		// Build the buttons first, so a payload that doesn't fit fails before fetching anything
+		return renderPage(source, payload, ownerId, page, pages, buildButtons(payload, ownerId, page, pages));
+	}
+
+	private CompletableFuture<MessageEditData> renderPage(PageSource<MessageEmbed> source, String payload, long ownerId, int page, int pages, List<Button> buttons)
+	{
+		CompletableFuture<List<MessageEmbed>> fetched;
+		try
+		{
+			fetched = source.fetch(page, 1);
+		} catch (RuntimeException e)
+		{
+			fetched = CompletableFuture.failedFuture(e);
+		}
+		return fetched.thenCompose(items ->
+		{
+			if (items.isEmpty() && (page > 1) && !source.isTotalExact())
+			{
+				// An empty page is past the end of an estimated total, so the previous page becomes the last one
+				return renderPage(source, payload, ownerId, page - 1, page - 1, buildButtons(payload, ownerId, page - 1, page - 1));
+			}
+			MessageEditBuilder mbuilder = new MessageEditBuilder();
+			mbuilder.setEmbeds(items);
+			if (text != null)
+			{
+				mbuilder.setContent(text.apply(page, pages));
+			}
+			if (!buttons.isEmpty())
+			{
+				mbuilder.setComponents(ActionRow.of(buttons));
+			}
+			return CompletableFuture.completedFuture(mbuilder.build());
+		});
+	}
+
+	private List<Button> buildButtons(String payload, long ownerId, int page, int pages)
+	{
+		List<Button> buttons = new ArrayList<>();
+		if (pages == 1)
+		{
+			return buttons;
+		}
+		if (bulkSkipNumber > 1)
+		{
+			buttons.add(button(BIG_LEFT, ButtonEmbedPaginator.BIG_LEFT, payload, ownerId, page, move(page, pages, -bulkSkipNumber)));
+		}
+		buttons.add(button(LEFT, ButtonEmbedPaginator.LEFT, payload, ownerId, page, move(page, pages, -1)));
+		buttons.add(button(STOP, ButtonEmbedPaginator.STOP, payload, ownerId, page, page));
+		buttons.add(button(RIGHT, ButtonEmbedPaginator.RIGHT, payload, ownerId, page, move(page, pages, 1)));
+		if (bulkSkipNumber > 1)
+		{
+			buttons.add(button(BIG_RIGHT, ButtonEmbedPaginator.BIG_RIGHT, payload, ownerId, page, move(page, pages, bulkSkipNumber)));
+		}
+		return buttons;
+	}
+
+	private Button button(char action, Emoji emoji, String payload, long ownerId, int page, int target)
+	{
+		Button button = Button.of(style, router.encode(type, action, target, ownerId, payload), emoji);
+		// A button that wouldn't change the page is only there for the layout
+		return (action != STOP) && (target == page) ? button.asDisabled() : button;
+	}
+
+	private int move(int page, int pages, int offset)
+	{
+		if (wrapPageEnds)
+		{
+			return Math.floorMod((page - 1) + offset, pages) + 1;
+		}
+		return Math.max(1, Math.min(page + offset, pages));
+	}
+
+	/**
+	 * The builder for a {@link StatelessPaginator StatelessPaginator}.
+	 */
+	public static class Builder
+	{
+
+		private StatelessMenuRouter							router			= null;
+		private String										type			= null;
+		private Function<String, PageSource<MessageEmbed>>	sources			= null;
+		private BiFunction<Integer, Integer, String>		text			= (page, pages) -> null;
+		private int											bulkSkipNumber	= 1;
+		private boolean										wrapPageEnds	= false;
+		private ButtonStyle									style			= ButtonStyle.SECONDARY;
+
+		/**
+		 * Builds the {@link StatelessPaginator StatelessPaginator} with this Builder, and registers it with the
+		 * {@link StatelessMenuRouter StatelessMenuRouter}.
+		 *
+		 * @return The StatelessPaginator built from this Builder.
+		 *
+		 * @throws java.lang.IllegalArgumentException
+		 *             If one of the following is violated:
+		 *             <ul>
+		 *             <li>No StatelessMenuRouter was set.</li>
+		 *             <li>No type was set.</li>
+		 *             <li>No PageSource function was set.</li>
+		 *             <li>A paginator is already registered under the same type.</li>
+		 *             </ul>
+		 */
+		public StatelessPaginator build()
+		{
+			Checks.check(router != null, "Must set a StatelessMenuRouter");
+			Checks.check(type != null, "Must set a type");
+			Checks.check(sources != null, "Must set a PageSource function");
+
+			StatelessPaginator paginator = new StatelessPaginator(router, type, sources, text, bulkSkipNumber, wrapPageEnds, style);
+			router.register(paginator);
+			return paginator;
+		}
+
+		/**
+		 * Sets the {@link StatelessMenuRouter StatelessMenuRouter} handling the clicks on the paginator's buttons.
+		 *
+		 * @param router
+		 *            The StatelessMenuRouter
+		 *
+		 * @return This builder
+		 */
+		public Builder setRouter(StatelessMenuRouter router)
+		{
+			this.router = router;
+			return this;
+		}
+
+		/**
+		 * Sets the type the paginator is registered under. The type is encoded in every button ID, so it should be
+		 * short, and it must stay the same across restarts for older paginators to stay usable.
+		 *
+		 * @param type
+		 *            The type, which may not be empty or contain a colon
+		 *
+		 * @return This builder
+		 */
+		public Builder setType(String type)
+		{
+			Checks.notEmpty(type, "Type");
+			Checks.check(type.indexOf(':') < 0, "Type may not contain a colon");
+			this.type = type;
+			return this;
+		}
+
+		/**
+		 * Sets the {@link java.util.function.Function Function} providing the {@link PageSource PageSource} of the
+		 * {@link MessageEmbed MessageEmbeds} to paginate, one per page, for a payload.
+		 * <br>
+		 * The Function is called every time a page is shown, so it should be cheap, with any expensive work left to
+		 * {@link PageSource#fetch(int, int) fetching the page}.
+		 *
+		 * @param sources
+		 *            The Function providing the PageSource for a payload
+		 *
+		 * @return This builder
+		 */
+		public Builder setPageSource(Function<String, PageSource<MessageEmbed>> sources)
+		{
+			this.sources = sources;
+			return this;
+		}
+
+		/**
+		 * Sets the text of the {@link net.dv8tion.jda.api.entities.Message Message} to be displayed above the embed.
+		 *
+		 * @param text
+		 *            The Message content to be displayed above the embed
+		 *
+		 * @return This builder
+		 */
+		public Builder setText(String text)
+		{
+			this.text = (i0, i1) -> text;
+			return this;
+		}
+
+		/**
+		 * Sets the text of the {@link net.dv8tion.jda.api.entities.Message Message} to be displayed relative to the
+		 * total page number and the current page as determined by the provided {@link java.util.function.BiFunction
+		 * BiFunction}.
+		 *
+		 * @param textBiFunction
+		 *            The BiFunction that uses both current and total page numbers, to get text for the Message
+		 *
+		 * @return This builder
+		 */
+		public Builder setText(BiFunction<Integer, Integer, String> textBiFunction)
+		{
+			this.text = textBiFunction;
+			return this;
+		}
+
+		/**
+		 * Sets the number of pages skipped by the bulk-skip buttons. Bulk-skip buttons are only shown if this is more
+		 * than 1.
+		 *
+		 * @param bulkSkipNumber
+		 *            The number of pages to skip when the bulk-skip buttons are used
+		 *
+		 * @return This builder
+		 */
+		public Builder setBulkSkipNumber(int bulkSkipNumber)
+		{
+			this.bulkSkipNumber = Math.max(bulkSkipNumber, 1);
+			return this;
+		}
+
+		/**
+		 * Sets the paginator to wrap from the last page to the first when traversing right and vice versa from the
+		 * left.
+		 *
+		 * @param wrapPageEnds
+		 *            {@code true} to enable wrapping.
+		 *
+		 * @return This builder
+		 */
+		public Builder wrapPageEnds(boolean wrapPageEnds)
+		{
+			this.wrapPageEnds = wrapPageEnds;
+			return this;
+		}
+
+		/**
+		 * Sets the {@link ButtonStyle} to use for the buttons. By default, this is {@link ButtonStyle#SECONDARY
+		 * SECONDARY}.
+		 *
+		 * @param style
+		 *            The new style
+		 *
+		 * @return This builder
+		 */
+		public Builder setButtonStyle(ButtonStyle style)
+		{
+			this.style = style;
+			return this;
+		}
+	}
+}